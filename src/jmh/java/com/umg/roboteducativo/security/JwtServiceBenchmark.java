@@ -0,0 +1,108 @@
+package com.umg.roboteducativo.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de generar y validar tokens: "antes" reproduce el JwtService original
+ * (clave y parser nuevos en cada llamada, dos parseos por validación); "despues" usa
+ * el JwtService actual (clave y parser únicos, caché de tokens verificados).
+ *
+ * Ejecutar con: ./mvnw -Pbenchmark test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRETO = "robot-educativo-secret-key-super-segura-para-desarrollo-2025";
+    private static final long EXPIRACION_MS = 86400000L;
+    private static final String USUARIO = "admin";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRETO);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", EXPIRACION_MS);
+        ReflectionTestUtils.setField(jwtService, "maxTokensVerificados", 10000);
+        jwtService.inicializar();
+        parser = (JwtParser) ReflectionTestUtils.getField(jwtService, "parser");
+        token = jwtService.generateToken(USUARIO);
+    }
+
+    @Benchmark
+    public String generarAntes() {
+        return Jwts.builder()
+                .claims(new HashMap<>())
+                .subject(USUARIO)
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + EXPIRACION_MS))
+                .signWith(Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public String generarDespues() {
+        return jwtService.generateToken(USUARIO);
+    }
+
+    /**
+     * validateToken original: extractUsername y extractExpiration parseaban el token por separado
+     */
+    @Benchmark
+    public boolean validarAntes() {
+        String username = parsearAntes().getSubject();
+        Date expiracion = parsearAntes().getExpiration();
+        return username.equals(USUARIO) && !expiracion.before(new Date());
+    }
+
+    /**
+     * Parser reutilizado, sin la caché: el costo de un token que aún no se ha visto
+     */
+    @Benchmark
+    public boolean validarDespuesSinCache() {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        return claims.getSubject().equals(USUARIO) && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Caso común del dashboard: el mismo token en muchas peticiones
+     */
+    @Benchmark
+    public boolean validarDespues() {
+        return jwtService.validateToken(token, USUARIO);
+    }
+
+    private Claims parsearAntes() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
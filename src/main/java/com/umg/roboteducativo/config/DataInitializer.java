@@ -2,6 +2,8 @@ package com.umg.roboteducativo.config;
 
 import com.umg.roboteducativo.model.Administrador;
 import com.umg.roboteducativo.repository.AdministradorRepository;
+import com.umg.roboteducativo.service.PistaService;
+import com.umg.roboteducativo.service.SolucionadorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -15,6 +17,8 @@ public class DataInitializer implements CommandLineRunner {
 
     private final AdministradorRepository administradorRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PistaService pistaService;
+    private final SolucionadorService solucionadorService;
 
     @Override
     public void run(String... args) {
@@ -36,5 +40,29 @@ public class DataInitializer implements CommandLineRunner {
             log.info("   Password: admin123");
             log.info("   ⚠️ CAMBIA ESTA CONTRASEÑA EN PRODUCCIÓN");
         }
+
+        // Pistas guardadas antes de existir la columna camino_binario
+        int codificadas = pistaService.completarCaminosBinarios();
+        if (codificadas > 0) {
+            log.info("Camino binario generado para {} pistas existentes", codificadas);
+        }
+
+        // Pistas guardadas antes de existir la huella del camino
+        int huellas = pistaService.completarHashes();
+        if (huellas > 0) {
+            log.info("Huella de camino calculada para {} pistas existentes", huellas);
+        }
+
+        // Pistas guardadas antes de calcular métricas de dificultad
+        int medidas = pistaService.completarMetricas();
+        if (medidas > 0) {
+            log.info("Métricas de dificultad calculadas para {} pistas existentes", medidas);
+        }
+
+        // Pistas creadas antes de existir la tabla solucion_pista
+        int resueltas = solucionadorService.completarFaltantes();
+        if (resueltas > 0) {
+            log.info("Soluciones calculadas para {} pistas existentes", resueltas);
+        }
     }
 }
\ No newline at end of file
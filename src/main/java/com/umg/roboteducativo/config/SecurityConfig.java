@@ -1,6 +1,8 @@
 package com.umg.roboteducativo.config;
 
 import com.umg.roboteducativo.security.JwtAuthenticationFilter;
+import com.umg.roboteducativo.security.LimiteTasaFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +31,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final LimiteTasaFilter limiteTasaFilter;
     private final UserDetailsService userDetailsService;
 
     @Bean
@@ -36,12 +39,21 @@ public class SecurityConfig {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
+                // Re-despacho asíncrono al terminar una exportación en streaming:
+                // la petición original ya fue autorizada y el filtro JWT no corre de nuevo
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Endpoints públicos (sin autenticación)
                 .requestMatchers(
                     "/api/auth/**",
                     "/api/pistas/aleatoria",
+                    "/api/pistas/paquete",
+                    "/api/pistas/visitas",
+                    "/api/pistas/eventos",
                     "/api/pistas/*/exito",
                     "/api/pistas/*/fallo",
+                    "/api/pistas/*/sugerencia",
+                    "/api/pistas/*/tesela",
                     "/",
                     "/index.html",
                     "/login.html",
@@ -74,7 +86,9 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // El 429 se responde antes de validar el token o cargar el usuario
+            .addFilterBefore(limiteTasaFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
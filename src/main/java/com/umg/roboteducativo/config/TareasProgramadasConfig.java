@@ -0,0 +1,12 @@
+package com.umg.roboteducativo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita los métodos @Scheduled (ej. la purga de claves de eventos ya procesados)
+ */
+@Configuration
+@EnableScheduling
+public class TareasProgramadasConfig {
+}
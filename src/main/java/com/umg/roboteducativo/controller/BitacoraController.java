@@ -2,12 +2,16 @@ package com.umg.roboteducativo.controller;
 
 import com.umg.roboteducativo.dto.ApiResponseDTO;
 import com.umg.roboteducativo.dto.BitacoraDTO;
+import com.umg.roboteducativo.dto.PaginaDTO;
 import com.umg.roboteducativo.service.BitacoraService;
+import com.umg.roboteducativo.service.EscritorExportacion;
+import com.umg.roboteducativo.service.EscritorExportacion.FormatoExportacion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,15 +26,20 @@ public class BitacoraController {
 
     /**
      * GET /api/bitacora
-     * Obtiene toda la bitácora ordenada por fecha descendente
+     * Obtiene toda la bitácora ordenada por fecha descendente, paginada por cursor
      */
     @GetMapping
-    public ResponseEntity<ApiResponseDTO<List<BitacoraDTO>>> obtenerTodaLaBitacora() {
+    public ResponseEntity<ApiResponseDTO<PaginaDTO<BitacoraDTO>>> obtenerTodaLaBitacora(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamanio) {
         try {
-            List<BitacoraDTO> bitacora = bitacoraService.obtenerTodaLaBitacora();
+            PaginaDTO<BitacoraDTO> bitacora = bitacoraService.obtenerTodaLaBitacora(cursor, tamanio);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Bitácora obtenida exitosamente", bitacora)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error al obtener bitácora: " + e.getMessage()));
@@ -60,13 +69,18 @@ public class BitacoraController {
      * Obtiene la bitácora de un administrador específico
      */
     @GetMapping("/administrador/{administradorId}")
-    public ResponseEntity<ApiResponseDTO<List<BitacoraDTO>>> obtenerPorAdministrador(
-            @PathVariable Integer administradorId) {
+    public ResponseEntity<ApiResponseDTO<PaginaDTO<BitacoraDTO>>> obtenerPorAdministrador(
+            @PathVariable Integer administradorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamanio) {
         try {
-            List<BitacoraDTO> bitacora = bitacoraService.obtenerPorAdministrador(administradorId);
+            PaginaDTO<BitacoraDTO> bitacora = bitacoraService.obtenerPorAdministrador(administradorId, cursor, tamanio);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Bitácora del administrador obtenida", bitacora)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error al obtener bitácora: " + e.getMessage()));
@@ -78,13 +92,18 @@ public class BitacoraController {
      * Obtiene la bitácora filtrada por tipo de acción
      */
     @GetMapping("/accion/{accion}")
-    public ResponseEntity<ApiResponseDTO<List<BitacoraDTO>>> obtenerPorAccion(
-            @PathVariable String accion) {
+    public ResponseEntity<ApiResponseDTO<PaginaDTO<BitacoraDTO>>> obtenerPorAccion(
+            @PathVariable String accion,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamanio) {
         try {
-            List<BitacoraDTO> bitacora = bitacoraService.obtenerPorAccion(accion);
+            PaginaDTO<BitacoraDTO> bitacora = bitacoraService.obtenerPorAccion(accion, cursor, tamanio);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Bitácora filtrada por acción", bitacora)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error al obtener bitácora: " + e.getMessage()));
@@ -96,14 +115,19 @@ public class BitacoraController {
      * Obtiene la bitácora en un rango de fechas
      */
     @GetMapping("/rango")
-    public ResponseEntity<ApiResponseDTO<List<BitacoraDTO>>> obtenerPorRangoFechas(
+    public ResponseEntity<ApiResponseDTO<PaginaDTO<BitacoraDTO>>> obtenerPorRangoFechas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamanio) {
         try {
-            List<BitacoraDTO> bitacora = bitacoraService.obtenerPorRangoFechas(fechaInicio, fechaFin);
+            PaginaDTO<BitacoraDTO> bitacora = bitacoraService.obtenerPorRangoFechas(fechaInicio, fechaFin, cursor, tamanio);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Bitácora del rango obtenida", bitacora)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error al obtener bitácora: " + e.getMessage()));
@@ -115,13 +139,18 @@ public class BitacoraController {
      * Busca en la bitácora por descripción
      */
     @GetMapping("/buscar")
-    public ResponseEntity<ApiResponseDTO<List<BitacoraDTO>>> buscarPorDescripcion(
-            @RequestParam String texto) {
+    public ResponseEntity<ApiResponseDTO<PaginaDTO<BitacoraDTO>>> buscarPorDescripcion(
+            @RequestParam String texto,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamanio) {
         try {
-            List<BitacoraDTO> bitacora = bitacoraService.buscarPorDescripcion(texto);
+            PaginaDTO<BitacoraDTO> bitacora = bitacoraService.buscarPorDescripcion(texto, cursor, tamanio);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Búsqueda completada", bitacora)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error en la búsqueda: " + e.getMessage()));
@@ -144,4 +173,34 @@ public class BitacoraController {
                 .body(ApiResponseDTO.error("Error al obtener estadísticas: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * GET /api/bitacora/exportar
+     * Exporta la bitácora (con los filtros opcionales de los listados) en NDJSON o CSV.
+     * Las filas se escriben a la respuesta a medida que se leen, sin cargarlas en memoria.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<?> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Integer administradorId,
+            @RequestParam(required = false) String accion,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @RequestParam(required = false) String texto) {
+        FormatoExportacion formatoExportacion;
+        try {
+            formatoExportacion = FormatoExportacion.desde(formato);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        }
+
+        StreamingResponseBody cuerpo = salida -> bitacoraService.exportar(
+            administradorId, accion, fechaInicio, fechaFin, texto, formatoExportacion, gzip, salida
+        );
+        return ResponseEntity.ok()
+            .headers(EscritorExportacion.cabeceras("bitacora", formatoExportacion, gzip))
+            .body(cuerpo);
+    }
+}
@@ -0,0 +1,42 @@
+package com.umg.roboteducativo.controller;
+
+import com.umg.roboteducativo.dto.ApiResponseDTO;
+import com.umg.roboteducativo.dto.CalificacionLoteDTO;
+import com.umg.roboteducativo.service.CalificacionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/calificaciones")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class CalificacionController {
+
+    private final CalificacionService calificacionService;
+
+    /**
+     * POST /api/calificaciones/lote
+     * Califica en paralelo los programas de una clase contra sus pistas.
+     * Responde NDJSON: una línea por entrega, en el orden en que terminan (ver campo "indice").
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<?> calificarLote(@Valid @RequestBody CalificacionLoteDTO lote) {
+        try {
+            calificacionService.validarLote(lote.getEntregas());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        }
+
+        boolean registrar = !Boolean.FALSE.equals(lote.getRegistrarEstadisticas());
+        StreamingResponseBody cuerpo = salida -> calificacionService.calificar(lote.getEntregas(), registrar, salida);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(cuerpo);
+    }
+}
@@ -3,12 +3,15 @@ package com.umg.roboteducativo.controller;
 import com.umg.roboteducativo.dto.ApiResponseDTO;
 import com.umg.roboteducativo.dto.EstadisticaDTO;
 import com.umg.roboteducativo.dto.ResumenEstadisticasDTO;
+import com.umg.roboteducativo.service.EscritorExportacion;
+import com.umg.roboteducativo.service.EscritorExportacion.FormatoExportacion;
 import com.umg.roboteducativo.service.EstadisticaService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -144,4 +147,32 @@ public class EstadisticaController {
                 .body(ApiResponseDTO.error("Error al obtener ranking: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * GET /api/estadisticas/exportar
+     * Exporta las estadísticas (por pista y/o rango de fechas, opcionales) en NDJSON o CSV.
+     * Las filas se escriben a la respuesta a medida que se leen, sin cargarlas en memoria.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<?> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Integer pistaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+        FormatoExportacion formatoExportacion;
+        try {
+            formatoExportacion = FormatoExportacion.desde(formato);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        }
+
+        StreamingResponseBody cuerpo = salida -> estadisticaService.exportar(
+            pistaId, fechaInicio, fechaFin, formatoExportacion, gzip, salida
+        );
+        return ResponseEntity.ok()
+            .headers(EscritorExportacion.cabeceras("estadisticas", formatoExportacion, gzip))
+            .body(cuerpo);
+    }
+}
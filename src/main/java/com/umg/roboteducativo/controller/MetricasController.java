@@ -0,0 +1,56 @@
+package com.umg.roboteducativo.controller;
+
+import com.umg.roboteducativo.dto.ApiResponseDTO;
+import com.umg.roboteducativo.dto.MetricasBitacoraDTO;
+import com.umg.roboteducativo.dto.MetricasLimiteDTO;
+import com.umg.roboteducativo.dto.MetricasVeredictosDTO;
+import com.umg.roboteducativo.security.LimiteTasaFilter;
+import com.umg.roboteducativo.service.BitacoraAppender;
+import com.umg.roboteducativo.service.CacheVeredictos;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/metricas")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MetricasController {
+
+    private final BitacoraAppender bitacoraAppender;
+    private final CacheVeredictos cacheVeredictos;
+    private final LimiteTasaFilter limiteTasaFilter;
+
+    /**
+     * GET /api/metricas/bitacora
+     * Obtiene los contadores del escritor asíncrono de la bitácora
+     */
+    @GetMapping("/bitacora")
+    public ResponseEntity<ApiResponseDTO<MetricasBitacoraDTO>> obtenerMetricasBitacora() {
+        return ResponseEntity.ok(
+            ApiResponseDTO.success("Métricas de bitácora obtenidas", bitacoraAppender.obtenerMetricas())
+        );
+    }
+
+    /**
+     * GET /api/metricas/veredictos
+     * Obtiene los aciertos y ausencias de la caché de veredictos del motor
+     */
+    @GetMapping("/veredictos")
+    public ResponseEntity<ApiResponseDTO<MetricasVeredictosDTO>> obtenerMetricasVeredictos() {
+        return ResponseEntity.ok(
+            ApiResponseDTO.success("Métricas de veredictos obtenidas", cacheVeredictos.obtenerMetricas())
+        );
+    }
+
+    /**
+     * GET /api/metricas/limite
+     * Obtiene las solicitudes permitidas y rechazadas (429) por el límite de tasa de los endpoints públicos
+     */
+    @GetMapping("/limite")
+    public ResponseEntity<ApiResponseDTO<MetricasLimiteDTO>> obtenerMetricasLimite() {
+        return ResponseEntity.ok(
+            ApiResponseDTO.success("Métricas de límite de tasa obtenidas", limiteTasaFilter.obtenerMetricas())
+        );
+    }
+}
@@ -1,15 +1,43 @@
 package com.umg.roboteducativo.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.umg.roboteducativo.dto.ApiResponseDTO;
+import com.umg.roboteducativo.dto.EventosLoteDTO;
+import com.umg.roboteducativo.dto.GeneracionPistasDTO;
+import com.umg.roboteducativo.dto.GrupoDuplicadosDTO;
+import com.umg.roboteducativo.dto.PaquetePistasDTO;
 import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.dto.ProgramaDTO;
+import com.umg.roboteducativo.dto.ResultadoEventosDTO;
+import com.umg.roboteducativo.dto.ResultadoGeneracionDTO;
+import com.umg.roboteducativo.dto.ResultadoProgramaDTO;
+import com.umg.roboteducativo.dto.ResumenImportacionDTO;
+import com.umg.roboteducativo.dto.SolucionPistaDTO;
+import com.umg.roboteducativo.dto.SugerenciaDTO;
+import com.umg.roboteducativo.dto.TeselaDTO;
+import com.umg.roboteducativo.dto.VisitasLoteDTO;
+import com.umg.roboteducativo.service.EscritorExportacion;
+import com.umg.roboteducativo.service.EscritorExportacion.FormatoExportacion;
 import com.umg.roboteducativo.service.EstadisticaService;
+import com.umg.roboteducativo.service.EventoService;
+import com.umg.roboteducativo.service.FormatoCamino;
+import com.umg.roboteducativo.service.GeneradorPistasService;
+import com.umg.roboteducativo.service.IdempotenciaCache;
+import com.umg.roboteducativo.service.ImportacionPistasService;
+import com.umg.roboteducativo.service.MotorRobotService;
 import com.umg.roboteducativo.service.PistaService;
+import com.umg.roboteducativo.service.SolucionadorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,18 +46,29 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class PistaController {
 
+    private static final int MAXIMO_CLAVE_IDEMPOTENCIA = 64;
+
     private final PistaService pistaService;
     private final EstadisticaService estadisticaService;
+    private final MotorRobotService motorRobotService;
+    private final SolucionadorService solucionadorService;
+    private final GeneradorPistasService generadorPistasService;
+    private final ImportacionPistasService importacionPistasService;
+    private final EventoService eventoService;
+    private final IdempotenciaCache idempotenciaCache;
 
     /**
      * GET /api/pistas/aleatoria
      * Obtiene una pista aleatoria para el juego
      * Este es el endpoint principal que usa el frontend
+     * formato=compacto envía el camino binario en lugar de configuracionJson
      */
     @GetMapping("/aleatoria")
-    public ResponseEntity<ApiResponseDTO<PistaDTO>> obtenerPistaAleatoria() {
+    public ResponseEntity<ApiResponseDTO<PistaDTO>> obtenerPistaAleatoria(
+            @RequestParam(defaultValue = "json") String formato) {
         try {
-            PistaDTO pista = pistaService.obtenerPistaAleatoria();
+            FormatoCamino formatoCamino = FormatoCamino.desde(formato);
+            PistaDTO pista = formatoCamino.aplicar(pistaService.obtenerPistaAleatoria());
             
             // Registrar visita
             estadisticaService.registrarVisita(pista.getId());
@@ -37,23 +76,93 @@ public class PistaController {
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Pista cargada exitosamente", pista)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error al cargar pista: " + e.getMessage()));
         }
     }
 
+    /**
+     * GET /api/pistas/paquete
+     * Obtiene todas las pistas activas en formato teselas para elegirlas en el cliente
+     * durante toda la sesión. Con If-None-Match y sin cambios responde 304 sin cuerpo.
+     */
+    @GetMapping("/paquete")
+    public ResponseEntity<ApiResponseDTO<PaquetePistasDTO>> obtenerPaquete(WebRequest request) {
+        try {
+            PaquetePistasDTO paquete = pistaService.obtenerPaquete();
+            String etag = "\"" + paquete.getVersion() + "\"";
+            CacheControl cacheControl = CacheControl.noCache().cachePublic();
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(ApiResponseDTO.success("Paquete de pistas obtenido exitosamente", paquete));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Error al obtener paquete de pistas: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/pistas/visitas
+     * Registra en un solo lote las visitas que el cliente acumuló al elegir pistas del paquete
+     */
+    @PostMapping("/visitas")
+    public ResponseEntity<ApiResponseDTO<Integer>> registrarVisitas(@Valid @RequestBody VisitasLoteDTO lote) {
+        try {
+            int registradas = estadisticaService.registrarVisitas(lote.getVisitas());
+            return ResponseEntity.ok(ApiResponseDTO.success("Visitas registradas", registradas));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Error al registrar visitas: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/pistas/eventos
+     * Registra en un solo lote visitas, éxitos y fallos acumulados por el cliente;
+     * los eventos con una clave de idempotencia ya procesada se ignoran
+     */
+    @PostMapping("/eventos")
+    public ResponseEntity<ApiResponseDTO<ResultadoEventosDTO>> registrarEventos(@Valid @RequestBody EventosLoteDTO lote) {
+        try {
+            ResultadoEventosDTO resultado = eventoService.registrar(lote.getEventos());
+            return ResponseEntity.ok(ApiResponseDTO.success("Eventos procesados", resultado));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Error al registrar eventos: " + e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/pistas
      * Obtiene todas las pistas activas
      */
     @GetMapping
-    public ResponseEntity<ApiResponseDTO<List<PistaDTO>>> obtenerPistasActivas() {
+    public ResponseEntity<ApiResponseDTO<List<PistaDTO>>> obtenerPistasActivas(
+            @RequestParam(defaultValue = "json") String formato) {
         try {
+            FormatoCamino formatoCamino = FormatoCamino.desde(formato);
             List<PistaDTO> pistas = pistaService.obtenerPistasActivas();
+            pistas.forEach(formatoCamino::aplicar);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Pistas obtenidas exitosamente", pistas)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error al obtener pistas: " + e.getMessage()));
@@ -65,29 +174,87 @@ public class PistaController {
      * Obtiene todas las pistas (activas e inactivas)
      */
     @GetMapping("/todas")
-    public ResponseEntity<ApiResponseDTO<List<PistaDTO>>> obtenerTodasLasPistas() {
+    public ResponseEntity<ApiResponseDTO<List<PistaDTO>>> obtenerTodasLasPistas(
+            @RequestParam(defaultValue = "json") String formato) {
         try {
+            FormatoCamino formatoCamino = FormatoCamino.desde(formato);
             List<PistaDTO> pistas = pistaService.obtenerTodasLasPistas();
+            pistas.forEach(formatoCamino::aplicar);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Pistas obtenidas exitosamente", pistas)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponseDTO.error("Error al obtener pistas: " + e.getMessage()));
         }
     }
 
+    /**
+     * GET /api/pistas/dificultad
+     * Obtiene las pistas activas cuyo programa mínimo está entre minimo y maximo movimientos,
+     * ordenadas de la más fácil a la más difícil
+     */
+    @GetMapping("/dificultad")
+    public ResponseEntity<ApiResponseDTO<List<PistaDTO>>> obtenerPorDificultad(
+            @RequestParam(defaultValue = "0") int minimo,
+            @RequestParam(required = false) Integer maximo,
+            @RequestParam(defaultValue = "50") int limite,
+            @RequestParam(defaultValue = "json") String formato) {
+        try {
+            FormatoCamino formatoCamino = FormatoCamino.desde(formato);
+            List<PistaDTO> pistas = pistaService.obtenerPorDificultad(
+                minimo, maximo != null ? maximo : Integer.MAX_VALUE, limite);
+            pistas.forEach(formatoCamino::aplicar);
+            return ResponseEntity.ok(
+                ApiResponseDTO.success("Pistas obtenidas exitosamente", pistas)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Error al obtener pistas: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/pistas/duplicados
+     * Lista los grupos de pistas (activas o no) que tienen exactamente el mismo camino
+     */
+    @GetMapping("/duplicados")
+    public ResponseEntity<ApiResponseDTO<List<GrupoDuplicadosDTO>>> obtenerDuplicados() {
+        try {
+            List<GrupoDuplicadosDTO> grupos = pistaService.obtenerDuplicados();
+            grupos.forEach(grupo -> grupo.getPistas().forEach(FormatoCamino.JSON::aplicar));
+            return ResponseEntity.ok(
+                ApiResponseDTO.success("Grupos de pistas duplicadas obtenidos exitosamente", grupos)
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Error al obtener duplicados: " + e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/pistas/{id}
      * Obtiene una pista específica por ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponseDTO<PistaDTO>> obtenerPistaPorId(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponseDTO<PistaDTO>> obtenerPistaPorId(
+            @PathVariable Integer id,
+            @RequestParam(defaultValue = "json") String formato) {
         try {
-            PistaDTO pista = pistaService.obtenerPorId(id);
+            FormatoCamino formatoCamino = FormatoCamino.desde(formato);
+            PistaDTO pista = formatoCamino.aplicar(pistaService.obtenerPorId(id));
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Pista encontrada", pista)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(ApiResponseDTO.error(e.getMessage()));
@@ -103,7 +270,7 @@ public class PistaController {
             @Valid @RequestBody PistaDTO pistaDTO,
             @RequestParam(required = false) String username) {
         try {
-            PistaDTO pistaCreada = pistaService.crearPista(pistaDTO, username);
+            PistaDTO pistaCreada = FormatoCamino.JSON.aplicar(pistaService.crearPista(pistaDTO, username));
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponseDTO.success("Pista creada exitosamente", pistaCreada));
         } catch (Exception e) {
@@ -112,6 +279,104 @@ public class PistaController {
         }
     }
 
+    /**
+     * GET /api/pistas/exportar
+     * Exporta todas las pistas en NDJSON o CSV, comprimido con gzip por defecto.
+     * camino=compacto (por defecto) envía el camino binario en Base64; camino=json el configuracionJson.
+     * Las filas se escriben a la respuesta a medida que se leen, sin cargarlas en memoria.
+     * Con If-None-Match y el catálogo sin cambios responde 304 sin leer las pistas.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<?> exportarPistas(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(defaultValue = "compacto") String camino,
+            @RequestParam(defaultValue = "true") boolean gzip,
+            WebRequest request) {
+        FormatoExportacion formatoExportacion;
+        FormatoCamino formatoCamino;
+        try {
+            formatoExportacion = FormatoExportacion.desde(formato);
+            formatoCamino = FormatoCamino.desde(camino);
+            if (formatoCamino == FormatoCamino.TESELAS) {
+                throw new IllegalArgumentException("El camino se exporta como json o compacto");
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        }
+
+        String etag = pistaService.calcularEtagExportacion(
+            formatoExportacion + "-" + formatoCamino + (gzip ? "-gzip" : ""));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        StreamingResponseBody cuerpo = salida -> pistaService.exportar(formatoExportacion, formatoCamino, gzip, salida);
+        return ResponseEntity.ok()
+            .headers(EscritorExportacion.cabeceras("pistas", formatoExportacion, gzip))
+            .eTag(etag)
+            // El navegador guarda la copia y la revalida con el ETag en cada exportación
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(cuerpo);
+    }
+
+    /**
+     * POST /api/pistas/importar
+     * Importa un archivo de pistas (una pista, un arreglo o el NDJSON de /exportar, con o sin gzip)
+     * en una sola transacción
+     * Devuelve el resultado de cada pista: IMPORTADA, DUPLICADA o ERROR
+     */
+    @PostMapping("/importar")
+    public ResponseEntity<ApiResponseDTO<ResumenImportacionDTO>> importarPistas(
+            InputStream archivo,
+            @RequestParam(required = false) String username) {
+        try {
+            ResumenImportacionDTO resumen = importacionPistasService.importar(archivo, username);
+            return ResponseEntity.ok(
+                ApiResponseDTO.success("Se importaron " + resumen.getImportadas() + " de " + resumen.getTotal() + " pistas", resumen)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error("El archivo no es un JSON de pistas válido: " + e.getOriginalMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Error al importar pistas: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/pistas/generar
+     * Genera pistas aleatorias únicas (sin repetir la forma de ninguna pista existente)
+     * Con simulacion=true solo devuelve los candidatos, sin guardarlos
+     */
+    @PostMapping("/generar")
+    public ResponseEntity<ApiResponseDTO<ResultadoGeneracionDTO>> generarPistas(
+            @Valid @RequestBody GeneracionPistasDTO peticion,
+            @RequestParam(required = false) String username) {
+        try {
+            ResultadoGeneracionDTO resultado = generadorPistasService.generar(peticion, username);
+            resultado.getPistas().forEach(FormatoCamino.JSON::aplicar);
+            HttpStatus estado = Boolean.TRUE.equals(resultado.getSimulacion()) ? HttpStatus.OK : HttpStatus.CREATED;
+            String mensaje = "Se generaron " + resultado.getGeneradas() + " pistas"
+                + (Boolean.TRUE.equals(resultado.getTiempoAgotado()) ? " (se agotó el tiempo de generación)" : "");
+            return ResponseEntity.status(estado)
+                .body(ApiResponseDTO.success(mensaje, resultado));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponseDTO.error("La generación fue interrumpida"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Error al generar pistas: " + e.getMessage()));
+        }
+    }
+
     /**
      * PUT /api/pistas/{id}
      * Actualiza una pista existente
@@ -122,7 +387,7 @@ public class PistaController {
             @Valid @RequestBody PistaDTO pistaDTO,
             @RequestParam(required = false) String username) {
         try {
-            PistaDTO pistaActualizada = pistaService.actualizarPista(id, pistaDTO, username);
+            PistaDTO pistaActualizada = FormatoCamino.JSON.aplicar(pistaService.actualizarPista(id, pistaDTO, username));
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Pista actualizada exitosamente", pistaActualizada)
             );
@@ -160,6 +425,7 @@ public class PistaController {
             @RequestParam String nombre) {
         try {
             List<PistaDTO> pistas = pistaService.buscarPorNombre(nombre);
+            pistas.forEach(FormatoCamino.JSON::aplicar);
             return ResponseEntity.ok(
                 ApiResponseDTO.success("Búsqueda completada", pistas)
             );
@@ -170,36 +436,151 @@ public class PistaController {
     }
 
     /**
-     * POST /api/pistas/{id}/exito
-     * Registra una completación exitosa
+     * GET /api/pistas/{id}/tesela
+     * Obtiene solo las celdas del camino dentro de la región visible (para pistas grandes)
+     * Sin x/y, la región se centra en la posición inicial del robot
      */
-    @PostMapping("/{id}/exito")
-    public ResponseEntity<ApiResponseDTO<Void>> registrarExito(@PathVariable Integer id) {
+    @GetMapping("/{id}/tesela")
+    public ResponseEntity<ApiResponseDTO<TeselaDTO>> obtenerTesela(
+            @PathVariable Integer id,
+            @RequestParam(required = false) Integer x,
+            @RequestParam(required = false) Integer y,
+            @RequestParam(defaultValue = "15") int ancho,
+            @RequestParam(defaultValue = "15") int alto) {
         try {
-            estadisticaService.registrarExito(id);
+            TeselaDTO tesela = pistaService.obtenerTesela(id, x, y, ancho, alto);
             return ResponseEntity.ok(
-                ApiResponseDTO.success("¡Misión completada exitosamente!")
+                ApiResponseDTO.success("Tesela obtenida", tesela)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponseDTO.error("Error al registrar éxito: " + e.getMessage()));
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponseDTO.error("Error al obtener tesela: " + e.getMessage()));
         }
     }
 
+    /**
+     * GET /api/pistas/{id}/sugerencia
+     * Sugiere el mejor siguiente movimiento desde la posición y dirección del robot
+     * (dirección: 0=arriba, 1=derecha, 2=abajo, 3=izquierda)
+     */
+    @GetMapping("/{id}/sugerencia")
+    public ResponseEntity<ApiResponseDTO<SugerenciaDTO>> obtenerSugerencia(
+            @PathVariable Integer id,
+            @RequestParam int x,
+            @RequestParam int y,
+            @RequestParam int direccion) {
+        try {
+            SugerenciaDTO sugerencia = solucionadorService.obtenerSugerencia(id, x, y, direccion);
+            return ResponseEntity.ok(
+                ApiResponseDTO.success("Sugerencia obtenida", sugerencia)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponseDTO.error("Error al obtener sugerencia: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/pistas/{id}/solucion
+     * Obtiene el programa óptimo de la pista y la distancia al final de cada celda
+     */
+    @GetMapping("/{id}/solucion")
+    public ResponseEntity<ApiResponseDTO<SolucionPistaDTO>> obtenerSolucion(@PathVariable Integer id) {
+        try {
+            SolucionPistaDTO solucion = solucionadorService.obtenerSolucionDTO(id);
+            return ResponseEntity.ok(
+                ApiResponseDTO.success("Solución obtenida", solucion)
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponseDTO.error("Error al obtener solución: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/pistas/{id}/exito
+     * Registra el intento con el veredicto calculado por el servidor
+     * a partir de los movimientos enviados
+     * Con Idempotency-Key, un reintento de la misma clave no se vuelve a contar
+     */
+    @PostMapping("/{id}/exito")
+    public ResponseEntity<ApiResponseDTO<ResultadoProgramaDTO>> registrarExito(
+            @PathVariable Integer id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String clave,
+            @Valid @RequestBody ProgramaDTO programa) {
+        return registrarIntento(id, "exito", clave, programa);
+    }
+
     /**
      * POST /api/pistas/{id}/fallo
-     * Registra una completación fallida
+     * Registra el intento con el veredicto calculado por el servidor
+     * a partir de los movimientos enviados
+     * Con Idempotency-Key, un reintento de la misma clave no se vuelve a contar
      */
     @PostMapping("/{id}/fallo")
-    public ResponseEntity<ApiResponseDTO<Void>> registrarFallo(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponseDTO<ResultadoProgramaDTO>> registrarFallo(
+            @PathVariable Integer id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String clave,
+            @Valid @RequestBody ProgramaDTO programa) {
+        return registrarIntento(id, "fallo", clave, programa);
+    }
+
+    /**
+     * El endpoint usado por el cliente no decide el resultado: se ejecuta el programa.
+     * Una clave ya terminada repite la respuesta original sin ejecutar ni tocar la base de datos;
+     * una clave que otra petición sigue procesando responde 409 para que el cliente reintente.
+     * La clave se recuerda junto con la pista y la ruta
+     */
+    private ResponseEntity<ApiResponseDTO<ResultadoProgramaDTO>> registrarIntento(
+            Integer id, String ruta, String clave, ProgramaDTO programa) {
+        boolean conClave = clave != null && !clave.isBlank();
+        if (conClave && clave.length() > MAXIMO_CLAVE_IDEMPOTENCIA) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error("Idempotency-Key no puede exceder "
+                    + MAXIMO_CLAVE_IDEMPOTENCIA + " caracteres"));
+        }
+        String claveIntento = IdempotenciaCache.claveIntento(id, ruta, clave);
+        long previo = conClave ? idempotenciaCache.reservar(claveIntento) : IdempotenciaCache.NUEVA;
+        if (previo == IdempotenciaCache.EN_CURSO) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponseDTO.error("Ya hay un intento en curso con esta Idempotency-Key"));
+        }
+        if (previo != IdempotenciaCache.NUEVA) {
+            ResultadoProgramaDTO resultado = MotorRobotService.decodificarResultado(previo);
+            return ResponseEntity.ok(ApiResponseDTO.success(resultado.getMensaje(), resultado));
+        }
         try {
-            estadisticaService.registrarFallo(id);
+            ResultadoProgramaDTO resultado = motorRobotService.registrarIntento(id, programa.getMovimientos());
+            if (conClave) {
+                idempotenciaCache.completar(claveIntento, MotorRobotService.codificarResultado(resultado));
+            }
             return ResponseEntity.ok(
-                ApiResponseDTO.success("Intento registrado")
+                ApiResponseDTO.success(resultado.getMensaje(), resultado)
             );
+        } catch (IllegalArgumentException e) {
+            olvidarClave(conClave, claveIntento);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.error("Programa inválido: " + e.getMessage()));
         } catch (Exception e) {
+            olvidarClave(conClave, claveIntento);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponseDTO.error("Error al registrar fallo: " + e.getMessage()));
+                .body(ApiResponseDTO.error("Error al registrar intento: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Si el intento no se registró, el reintento con la misma clave debe procesarse
+     */
+    private void olvidarClave(boolean conClave, String clave) {
+        if (conClave) {
+            idempotenciaCache.olvidar(clave);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalificacionLoteDTO {
+
+    @NotEmpty(message = "Debe enviar al menos una entrega")
+    private List<@Valid EntregaDTO> entregas;
+
+    private Boolean registrarEstadisticas = true; // Si los resultados se suman a la tabla estadistica
+}
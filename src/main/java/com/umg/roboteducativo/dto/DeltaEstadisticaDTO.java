@@ -0,0 +1,26 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Incremento pendiente de aplicar sobre la estadística de una pista en una fecha
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaEstadisticaDTO {
+
+    private Integer pistaId;
+
+    private LocalDate fecha;
+
+    private Integer visitas;
+
+    private Integer exitos;
+
+    private Integer fallos;
+}
@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanciaCeldaDTO {
+
+    private Integer x;
+
+    private Integer y;
+
+    private Integer distancia; // Movimientos mínimos hasta el final desde la celda; null si es inalcanzable
+}
@@ -0,0 +1,22 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntregaDTO {
+
+    private String estudiante; // Identificador libre del estudiante (se devuelve tal cual)
+
+    @NotNull(message = "La pista es obligatoria")
+    private Integer pistaId;
+
+    @NotNull(message = "Los movimientos son obligatorios")
+    private List<String> movimientos;
+}
@@ -0,0 +1,36 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoDTO {
+
+    public static final String VISITA = "VISITA";
+    public static final String EXITO = "EXITO";
+    public static final String FALLO = "FALLO";
+
+    @NotNull(message = "El ID de la pista es obligatorio")
+    private Integer pistaId;
+
+    @NotBlank(message = "El tipo es obligatorio")
+    private String tipo; // VISITA, EXITO o FALLO
+
+    @NotNull(message = "La fecha del evento es obligatoria")
+    private Instant timestamp; // Cuándo ocurrió en el cliente; decide el día de la estadística
+
+    @NotBlank(message = "La clave de idempotencia es obligatoria")
+    @Size(max = 64, message = "La clave de idempotencia no puede exceder 64 caracteres")
+    private String idempotencyKey;
+
+    private List<String> movimientos; // Obligatorio en EXITO y FALLO; el servidor decide el resultado
+}
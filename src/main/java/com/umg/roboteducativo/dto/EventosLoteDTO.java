@@ -0,0 +1,20 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventosLoteDTO {
+
+    @NotEmpty(message = "Debe enviar al menos un evento")
+    @Size(max = 1000, message = "El lote no puede exceder 1000 eventos")
+    private List<@Valid EventoDTO> eventos;
+}
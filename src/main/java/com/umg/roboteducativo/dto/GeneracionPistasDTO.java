@@ -0,0 +1,51 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneracionPistasDTO {
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "Debe generar al menos una pista")
+    @Max(value = 1000, message = "No se pueden generar más de 1000 pistas por petición")
+    private Integer cantidad;
+
+    @Min(value = 1, message = "El ancho debe ser al menos 1")
+    @Max(value = 1000, message = "El ancho no puede exceder 1000")
+    private Integer ancho = 5;
+
+    @Min(value = 1, message = "El alto debe ser al menos 1")
+    @Max(value = 1000, message = "El alto no puede exceder 1000")
+    private Integer alto = 5;
+
+    @NotNull(message = "La longitud mínima es obligatoria")
+    @Min(value = 2, message = "La longitud mínima debe ser al menos 2")
+    @Max(value = 10000, message = "La longitud mínima no puede exceder 10000")
+    private Integer longitudMinima;
+
+    @NotNull(message = "La longitud máxima es obligatoria")
+    @Min(value = 2, message = "La longitud máxima debe ser al menos 2")
+    @Max(value = 10000, message = "La longitud máxima no puede exceder 10000")
+    private Integer longitudMaxima;
+
+    private Integer girosMinimos = 0;
+
+    private Integer girosMaximos; // Sin límite si no se envía
+
+    @NotBlank(message = "El prefijo del nombre es obligatorio")
+    @Size(max = 80, message = "El prefijo no puede exceder 80 caracteres")
+    private String prefijoNombre = "Generada";
+
+    private Boolean simulacion = false; // Solo devuelve los candidatos, sin guardarlos
+
+    private Long semilla; // Opcional; con un solo hilo la misma semilla repite la generación
+}
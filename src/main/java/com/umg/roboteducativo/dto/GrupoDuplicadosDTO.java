@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrupoDuplicadosDTO {
+
+    private String hashContenido; // En hexadecimal; un long no cabe exacto en un número de JavaScript
+
+    private List<PistaDTO> pistas;
+}
@@ -0,0 +1,25 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasBitacoraDTO {
+
+    private Long encoladas;
+
+    private Long escritas;
+
+    private Long descartadas;
+
+    private Long fallidas;
+
+    private Integer pendientes;
+
+    private Integer capacidad;
+
+    private String politica;
+}
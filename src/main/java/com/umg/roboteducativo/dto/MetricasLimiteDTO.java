@@ -0,0 +1,25 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasLimiteDTO {
+
+    private Long permitidas; // Solicitudes a rutas limitadas que pasaron el filtro
+
+    private Long rechazadas; // Respondidas con 429
+
+    private Map<String, Long> rechazadasPorRuta;
+
+    private Integer clientes; // Cubetas (ruta, IP) en memoria
+
+    private Integer capacidadClientes;
+
+    private Long expulsados; // Cubetas eliminadas por inactividad o para hacer lugar a clientes nuevos
+}
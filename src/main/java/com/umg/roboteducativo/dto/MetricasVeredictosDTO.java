@@ -0,0 +1,23 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasVeredictosDTO {
+
+    private Long aciertos; // Veredictos servidos desde la caché
+
+    private Long ausencias; // Veredictos que hubo que calcular con el motor
+
+    private Double porcentajeAciertos;
+
+    private Long invalidaciones;
+
+    private Integer tamanio;
+
+    private Integer capacidad;
+}
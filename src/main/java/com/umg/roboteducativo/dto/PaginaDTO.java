@@ -0,0 +1,22 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (keyset)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> elementos;
+
+    private String siguienteCursor; // Cursor opaco para pedir la siguiente página (null si no hay más)
+
+    private boolean hayMas;
+}
@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaquetePistasDTO {
+
+    private String version; // Igual al ETag (sin comillas); cambia solo si cambia el contenido
+
+    private List<PistaDTO> pistas; // Formato teselas: las pistas grandes van sin camino
+}
@@ -1,5 +1,7 @@
 package com.umg.roboteducativo.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -29,4 +31,21 @@ public class PistaDTO {
     private LocalDateTime fechaModificacion;
 
     private Boolean activa;
+
+    private byte[] camino; // Camino compacto (CaminoBinario), viaja en Base64 con formato=compacto
+
+    @Min(value = 1, message = "El ancho debe ser al menos 1")
+    @Max(value = 1000, message = "El ancho no puede exceder 1000 celdas")
+    private Integer ancho; // Si no se envía, 5
+
+    @Min(value = 1, message = "El alto debe ser al menos 1")
+    @Max(value = 1000, message = "El alto no puede exceder 1000 celdas")
+    private Integer alto; // Si no se envía, 5
+
+    // Métricas de dificultad; las calcula el servidor al guardar
+    private Integer longitud;
+
+    private Integer giros;
+
+    private Integer programaMinimo;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramaDTO {
+
+    @NotNull(message = "Los movimientos son obligatorios")
+    private List<String> movimientos; // "adelante", "girar-izquierda", "girar-derecha" o "bucle"
+}
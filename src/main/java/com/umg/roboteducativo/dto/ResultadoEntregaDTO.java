@@ -0,0 +1,25 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoEntregaDTO {
+
+    private Integer indice; // Posición de la entrega en la solicitud (los resultados llegan en orden de finalización)
+
+    private String estudiante;
+
+    private Integer pistaId;
+
+    private Boolean exito;
+
+    private String motivo; // Motivo del motor de ejecución, o ERROR si la entrega no se pudo evaluar
+
+    private String mensaje;
+
+    private Integer pasos;
+}
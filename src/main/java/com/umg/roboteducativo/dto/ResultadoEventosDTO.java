@@ -0,0 +1,23 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoEventosDTO {
+
+    private Integer recibidos;
+
+    private Integer registrados;
+
+    private Integer duplicados; // Claves ya procesadas (reintentos) o repetidas en el lote
+
+    private Integer rechazados;
+
+    private List<String> errores; // "clave: motivo" de cada evento rechazado
+}
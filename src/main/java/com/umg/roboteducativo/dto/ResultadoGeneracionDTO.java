@@ -0,0 +1,27 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoGeneracionDTO {
+
+    private Integer solicitadas;
+
+    private Integer generadas; // Caminos únicos obtenidos (puede ser menor si se agotaron los intentos)
+
+    private Integer duplicadas; // Descartados por tener la misma forma que otra pista o candidato
+
+    private Integer intentos;
+
+    private Boolean tiempoAgotado; // Se cortó por robot.generador.tiempo-maximo-ms; las pistas son un resultado parcial
+
+    private Boolean simulacion;
+
+    private List<PistaDTO> pistas;
+}
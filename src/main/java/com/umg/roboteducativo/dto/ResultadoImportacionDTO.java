@@ -0,0 +1,25 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+
+    public static final String IMPORTADA = "IMPORTADA";
+    public static final String DUPLICADA = "DUPLICADA";
+    public static final String ERROR = "ERROR";
+
+    private Integer indice; // Posición en el archivo (desde 0)
+
+    private String nombre; // Nombre con el que quedó guardada (puede llevar " (importada)")
+
+    private String estado; // IMPORTADA, DUPLICADA o ERROR
+
+    private Integer id; // ID de la pista creada, o de la existente si es duplicada
+
+    private String mensaje;
+}
@@ -0,0 +1,19 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoProgramaDTO {
+
+    private Boolean exito;
+
+    private String motivo; // COMPLETADO, FUERA_DEL_CAMINO, NO_LLEGO_AL_FINAL o LIMITE_DE_PASOS
+
+    private String mensaje;
+
+    private Integer pasos;
+}
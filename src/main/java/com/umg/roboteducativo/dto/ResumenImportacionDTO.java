@@ -0,0 +1,23 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenImportacionDTO {
+
+    private Integer total;
+
+    private Integer importadas;
+
+    private Integer duplicadas;
+
+    private Integer fallidas;
+
+    private List<ResultadoImportacionDTO> resultados;
+}
@@ -0,0 +1,21 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolucionPistaDTO {
+
+    private Integer pistaId;
+
+    private List<String> programaOptimo; // null si el final es inalcanzable
+
+    private Integer longitudOptima;
+
+    private List<DistanciaCeldaDTO> distancias;
+}
@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaDTO {
+
+    private String movimiento; // Mejor siguiente movimiento; null si ya llegó o no hay forma de llegar
+
+    private Integer movimientosRestantes; // Movimientos del camino más corto al final; null si es inalcanzable
+
+    private Boolean enMeta;
+}
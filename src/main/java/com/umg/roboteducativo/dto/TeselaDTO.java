@@ -0,0 +1,31 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeselaDTO {
+
+    private Integer pistaId;
+
+    // Región solicitada (ya recortada a la cuadrícula)
+    private int x;
+    private int y;
+    private int ancho;
+    private int alto;
+
+    // Dimensiones de la pista completa
+    private int anchoPista;
+    private int altoPista;
+
+    private int inicioX;
+    private int inicioY;
+    private int direccionInicial; // 0=arriba, 1=derecha, 2=abajo, 3=izquierda
+    private int finX;
+    private int finY;
+
+    private int[] celdas; // Celdas del camino dentro de la región, como pares x,y
+}
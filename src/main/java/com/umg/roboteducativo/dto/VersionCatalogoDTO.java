@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionCatalogoDTO {
+
+    private LocalDateTime ultimaModificacion; // null si no hay pistas
+
+    private Long totalPistas;
+}
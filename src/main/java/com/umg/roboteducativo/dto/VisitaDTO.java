@@ -0,0 +1,22 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitaDTO {
+
+    @NotNull(message = "El ID de la pista es obligatorio")
+    private Integer pistaId;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Max(value = 50, message = "La cantidad no puede exceder 50 por lote")
+    private Integer cantidad;
+}
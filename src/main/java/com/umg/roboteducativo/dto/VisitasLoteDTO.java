@@ -0,0 +1,20 @@
+package com.umg.roboteducativo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitasLoteDTO {
+
+    @NotEmpty(message = "Debe enviar al menos una visita")
+    @Size(max = 50, message = "El lote no puede exceder 50 pistas")
+    private List<@Valid VisitaDTO> visitas;
+}
@@ -0,0 +1,145 @@
+package com.umg.roboteducativo.engine;
+
+/**
+ * Camino de una pista, inmutable y seguro para compartir entre hilos.
+ * La pertenencia de una celda se resuelve en O(1) con un bitset disperso
+ * (ver {@link OcupacionDispersa}), así el costo depende de la longitud del
+ * camino y no del tamaño de la cuadrícula.
+ */
+public final class Camino {
+
+    // Desplazamientos por dirección: 0=arriba, 1=derecha, 2=abajo, 3=izquierda
+    static final int[] DX = {0, 1, 0, -1};
+    static final int[] DY = {-1, 0, 1, 0};
+
+    private final int[] xs;
+    private final int[] ys;
+
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+    private final OcupacionDispersa ocupacion;
+
+    private final int direccionInicial;
+
+    /**
+     * @param xs coordenadas x de los puntos, en orden
+     * @param ys coordenadas y de los puntos, en orden
+     */
+    public Camino(int[] xs, int[] ys) {
+        this(new int[][]{xs.clone(), ys.clone()});
+    }
+
+    /**
+     * Usa directamente los arreglos {xs, ys} recibidos, sin copiarlos (el llamador no los conserva)
+     */
+    static Camino sinCopia(int[][] coordenadas) {
+        return new Camino(coordenadas);
+    }
+
+    private Camino(int[][] coordenadas) {
+        int[] xs = coordenadas[0];
+        int[] ys = coordenadas[1];
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordenadas incompletas en el camino");
+        }
+        if (xs.length == 0) {
+            throw new IllegalArgumentException("El camino está vacío");
+        }
+        this.xs = xs;
+        this.ys = ys;
+
+        int minimoX = Integer.MAX_VALUE, minimoY = Integer.MAX_VALUE;
+        int maximoX = Integer.MIN_VALUE, maximoY = Integer.MIN_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            minimoX = Math.min(minimoX, xs[i]);
+            minimoY = Math.min(minimoY, ys[i]);
+            maximoX = Math.max(maximoX, xs[i]);
+            maximoY = Math.max(maximoY, ys[i]);
+        }
+        this.minX = minimoX;
+        this.minY = minimoY;
+        this.maxX = maximoX;
+        this.maxY = maximoY;
+        this.ocupacion = new OcupacionDispersa(xs, ys);
+
+        this.direccionInicial = calcularDireccionInicial();
+    }
+
+    /**
+     * Indica si la celda (x, y) pertenece al camino
+     */
+    public boolean contiene(int x, int y) {
+        if (x < minX || y < minY || x > maxX || y > maxY) {
+            return false;
+        }
+        return ocupacion.contiene(x, y);
+    }
+
+    /**
+     * Celdas del camino dentro del rectángulo [x, x + ancho) x [y, y + alto), como pares x,y.
+     * El costo depende del tamaño del rectángulo y de las celdas encontradas, no del camino completo.
+     */
+    public int[] celdasEnRegion(int x, int y, int ancho, int alto) {
+        int desdeX = Math.max(x, minX);
+        int desdeY = Math.max(y, minY);
+        int hastaX = (int) Math.min((long) x + ancho - 1, maxX);
+        int hastaY = (int) Math.min((long) y + alto - 1, maxY);
+        if (ancho <= 0 || alto <= 0 || desdeX > hastaX || desdeY > hastaY) {
+            return new int[0];
+        }
+        return ocupacion.celdasEnRegion(desdeX, desdeY, hastaX - desdeX + 1, hastaY - desdeY + 1);
+    }
+
+    public int longitud() {
+        return xs.length;
+    }
+
+    public int x(int indice) {
+        return xs[indice];
+    }
+
+    public int y(int indice) {
+        return ys[indice];
+    }
+
+    public int inicioX() {
+        return xs[0];
+    }
+
+    public int inicioY() {
+        return ys[0];
+    }
+
+    public int finX() {
+        return xs[xs.length - 1];
+    }
+
+    public int finY() {
+        return ys[ys.length - 1];
+    }
+
+    /**
+     * Dirección inicial del robot: hacia el segundo punto del camino (arriba por defecto)
+     */
+    public int direccionInicial() {
+        return direccionInicial;
+    }
+
+    private int calcularDireccionInicial() {
+        if (xs.length < 2) {
+            return 0;
+        }
+        int dx = xs[1] - xs[0];
+        int dy = ys[1] - ys[0];
+        if (dx == 1) {
+            return 1;
+        } else if (dx == -1) {
+            return 3;
+        } else if (dy == 1) {
+            return 2;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,199 @@
+package com.umg.roboteducativo.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Codificación binaria compacta del camino de una pista.
+ *
+ * Formato: [modo][cantidad de puntos][x inicial][y inicial][pasos...], con los
+ * enteros como varint (zigzag para los que pueden ser negativos).
+ * Si todos los pasos son a una celda vecina, cada paso ocupa 2 bits (su dirección);
+ * si no, cada paso se guarda como el par de deltas (dx, dy).
+ */
+public final class CaminoBinario {
+
+    private static final byte MODO_DIRECCIONES = 1;
+    private static final byte MODO_DELTAS = 2;
+
+    // Límite defensivo para no reservar arreglos enormes a partir de datos corruptos
+    private static final int MAX_PUNTOS = 1 << 24;
+
+    private CaminoBinario() {
+    }
+
+    public static byte[] codificar(Camino camino) {
+        int n = camino.longitud();
+        boolean contiguo = true;
+        for (int i = 1; i < n && contiguo; i++) {
+            contiguo = direccion(camino.x(i) - camino.x(i - 1), camino.y(i) - camino.y(i - 1)) >= 0;
+        }
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(8 + n / 4);
+        salida.write(contiguo ? MODO_DIRECCIONES : MODO_DELTAS);
+        escribirVarint(salida, n);
+        escribirVarint(salida, zigzag(camino.x(0)));
+        escribirVarint(salida, zigzag(camino.y(0)));
+
+        if (contiguo) {
+            int acumulado = 0;
+            int bits = 0;
+            for (int i = 1; i < n; i++) {
+                acumulado |= direccion(camino.x(i) - camino.x(i - 1), camino.y(i) - camino.y(i - 1)) << bits;
+                bits += 2;
+                if (bits == 8) {
+                    salida.write(acumulado);
+                    acumulado = 0;
+                    bits = 0;
+                }
+            }
+            if (bits > 0) {
+                salida.write(acumulado);
+            }
+        } else {
+            for (int i = 1; i < n; i++) {
+                escribirVarint(salida, zigzag(camino.x(i) - camino.x(i - 1)));
+                escribirVarint(salida, zigzag(camino.y(i) - camino.y(i - 1)));
+            }
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Reconstruye el camino directamente en los arreglos de coordenadas, sin pasar por JSON
+     * @throws IllegalArgumentException si los datos no tienen el formato esperado
+     */
+    public static Camino decodificar(byte[] datos) {
+        return Camino.sinCopia(leerPuntos(new Lector(datos)));
+    }
+
+    /**
+     * Huella del contenido del camino (FNV-1a de 64 bits sobre su codificación).
+     * La codificación depende solo de las celdas, así que dos JSON con otro formato
+     * o espaciado pero el mismo camino tienen la misma huella.
+     */
+    public static long huella(byte[] datos) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : datos) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Genera el configuracionJson equivalente ([{"x":0,"y":0}, ...]) para clientes que aún lo usan
+     */
+    public static String aJson(byte[] datos) {
+        int[][] puntos = leerPuntos(new Lector(datos));
+        return aJson(puntos[0].length, i -> puntos[0][i], i -> puntos[1][i]);
+    }
+
+    /**
+     * configuracionJson ([{"x":0,"y":0}, ...]) de un camino ya construido
+     */
+    public static String aJson(Camino camino) {
+        return aJson(camino.longitud(), camino::x, camino::y);
+    }
+
+    private static String aJson(int n, IntUnaryOperator x, IntUnaryOperator y) {
+        StringBuilder json = new StringBuilder(n * 16 + 2).append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"x\":").append(x.applyAsInt(i)).append(",\"y\":").append(y.applyAsInt(i)).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private static int[][] leerPuntos(Lector lector) {
+        int modo = lector.leerByte();
+        int n = lector.leerVarint();
+        if (n <= 0 || n > MAX_PUNTOS) {
+            throw new IllegalArgumentException("Cantidad de puntos inválida en el camino: " + n);
+        }
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        xs[0] = desZigzag(lector.leerVarint());
+        ys[0] = desZigzag(lector.leerVarint());
+
+        if (modo == MODO_DIRECCIONES) {
+            int actual = 0;
+            for (int i = 1; i < n; i++) {
+                int desplazamiento = ((i - 1) & 3) << 1;
+                if (desplazamiento == 0) {
+                    actual = lector.leerByte();
+                }
+                int direccion = (actual >>> desplazamiento) & 3;
+                xs[i] = xs[i - 1] + Camino.DX[direccion];
+                ys[i] = ys[i - 1] + Camino.DY[direccion];
+            }
+        } else if (modo == MODO_DELTAS) {
+            for (int i = 1; i < n; i++) {
+                xs[i] = xs[i - 1] + desZigzag(lector.leerVarint());
+                ys[i] = ys[i - 1] + desZigzag(lector.leerVarint());
+            }
+        } else {
+            throw new IllegalArgumentException("Modo de camino desconocido: " + modo);
+        }
+        return new int[][]{xs, ys};
+    }
+
+    /**
+     * Índice de {@link Camino#DX}/{@link Camino#DY} para un paso, o -1 si no es a una celda vecina
+     */
+    private static int direccion(int dx, int dy) {
+        for (int d = 0; d < 4; d++) {
+            if (Camino.DX[d] == dx && Camino.DY[d] == dy) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    private static void escribirVarint(ByteArrayOutputStream salida, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            salida.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.write(valor);
+    }
+
+    private static int zigzag(int valor) {
+        return (valor << 1) ^ (valor >> 31);
+    }
+
+    private static int desZigzag(int valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private static final class Lector {
+
+        private final byte[] datos;
+        private int posicion;
+
+        Lector(byte[] datos) {
+            this.datos = datos;
+        }
+
+        int leerByte() {
+            if (posicion >= datos.length) {
+                throw new IllegalArgumentException("Camino binario incompleto");
+            }
+            return datos[posicion++] & 0xFF;
+        }
+
+        int leerVarint() {
+            int valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 35; desplazamiento += 7) {
+                int b = leerByte();
+                valor |= (b & 0x7F) << desplazamiento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+            }
+            throw new IllegalArgumentException("Entero mal formado en el camino binario");
+        }
+    }
+}
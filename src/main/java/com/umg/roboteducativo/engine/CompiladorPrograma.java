@@ -0,0 +1,59 @@
+package com.umg.roboteducativo.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compila la lista de movimientos del frontend a un arreglo compacto de instrucciones.
+ * Los bucles se expanden igual que MovimientosManager.expandirBucles en robot.js:
+ * "bucle" abre o cierra un bloque, el bloque se ejecuta dos veces y un bucle
+ * que queda abierto al final se cierra si tiene contenido.
+ */
+public final class CompiladorPrograma {
+
+    public static final String BUCLE = "bucle";
+
+    private CompiladorPrograma() {
+    }
+
+    /**
+     * @param movimientos tipos de movimiento en el orden en que los programó el usuario
+     * @return instrucciones ya expandidas (ver {@link Instruccion})
+     * @throws IllegalArgumentException si algún movimiento no es válido
+     */
+    public static byte[] compilar(List<String> movimientos) {
+        // Cada movimiento produce a lo sumo dos instrucciones
+        byte[] salida = new byte[movimientos.size() * 2];
+        int longitud = 0;
+
+        byte[] bloque = new byte[movimientos.size()];
+        int longitudBloque = 0;
+        boolean dentroDelBucle = false;
+
+        for (String tipo : movimientos) {
+            if (BUCLE.equals(tipo)) {
+                if (dentroDelBucle) {
+                    longitud = repetirDosVeces(bloque, longitudBloque, salida, longitud);
+                    longitudBloque = 0;
+                }
+                dentroDelBucle = !dentroDelBucle;
+            } else if (dentroDelBucle) {
+                bloque[longitudBloque++] = Instruccion.desde(tipo);
+            } else {
+                salida[longitud++] = Instruccion.desde(tipo);
+            }
+        }
+
+        if (dentroDelBucle && longitudBloque > 0) {
+            longitud = repetirDosVeces(bloque, longitudBloque, salida, longitud);
+        }
+
+        return Arrays.copyOf(salida, longitud);
+    }
+
+    private static int repetirDosVeces(byte[] bloque, int longitudBloque, byte[] salida, int longitud) {
+        System.arraycopy(bloque, 0, salida, longitud, longitudBloque);
+        System.arraycopy(bloque, 0, salida, longitud + longitudBloque, longitudBloque);
+        return longitud + 2 * longitudBloque;
+    }
+}
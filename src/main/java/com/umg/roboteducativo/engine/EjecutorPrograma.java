@@ -0,0 +1,57 @@
+package com.umg.roboteducativo.engine;
+
+import com.umg.roboteducativo.engine.ResultadoEjecucion.Motivo;
+
+/**
+ * Ejecuta un programa compilado sobre un camino, con las mismas reglas que
+ * EjecutorMovimientos en robot.js: cada "adelante" debe caer dentro del camino
+ * y el programa tiene éxito si el robot termina en el último punto.
+ * Sin estado: se puede usar desde varios hilos a la vez.
+ */
+public final class EjecutorPrograma {
+
+    private EjecutorPrograma() {
+    }
+
+    /**
+     * @param camino camino de la pista
+     * @param programa instrucciones compiladas por {@link CompiladorPrograma}
+     * @param limitePasos máximo de instrucciones a ejecutar; robot.js no tiene límite, así que
+     *                    debe ser mayor que cualquier programa que acepte el compilador
+     * @return veredicto de la ejecución
+     */
+    public static ResultadoEjecucion ejecutar(Camino camino, byte[] programa, int limitePasos) {
+        int x = camino.inicioX();
+        int y = camino.inicioY();
+        int direccion = camino.direccionInicial();
+
+        if (programa.length > limitePasos) {
+            return new ResultadoEjecucion(false, Motivo.LIMITE_DE_PASOS, 0, x, y);
+        }
+
+        for (int paso = 0; paso < programa.length; paso++) {
+            switch (programa[paso]) {
+                case Instruccion.ADELANTE:
+                    x += Camino.DX[direccion];
+                    y += Camino.DY[direccion];
+                    if (!camino.contiene(x, y)) {
+                        return new ResultadoEjecucion(false, Motivo.FUERA_DEL_CAMINO, paso + 1, x, y);
+                    }
+                    break;
+                case Instruccion.GIRAR_IZQUIERDA:
+                    direccion = (direccion + 3) & 3;
+                    break;
+                case Instruccion.GIRAR_DERECHA:
+                    direccion = (direccion + 1) & 3;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Instrucción desconocida: " + programa[paso]);
+            }
+        }
+
+        if (x == camino.finX() && y == camino.finY()) {
+            return new ResultadoEjecucion(true, Motivo.COMPLETADO, programa.length, x, y);
+        }
+        return new ResultadoEjecucion(false, Motivo.NO_LLEGO_AL_FINAL, programa.length, x, y);
+    }
+}
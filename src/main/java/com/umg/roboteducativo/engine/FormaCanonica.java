@@ -0,0 +1,79 @@
+package com.umg.roboteducativo.engine;
+
+/**
+ * Huella de la forma de un camino, igual para todas sus copias trasladadas,
+ * rotadas 90/180/270 grados o reflejadas. Se calcula sobre la secuencia de
+ * pasos (dx, dy): de las 8 transformaciones se elige la secuencia
+ * lexicográficamente menor y se resume con FNV-1a de 64 bits.
+ */
+public final class FormaCanonica {
+
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+
+    private FormaCanonica() {
+    }
+
+    public static long calcular(Camino camino) {
+        int mejor = 0;
+        for (int transformacion = 1; transformacion < 8; transformacion++) {
+            if (comparar(camino, transformacion, mejor) < 0) {
+                mejor = transformacion;
+            }
+        }
+
+        long hash = FNV_BASE;
+        hash = mezclar(hash, camino.longitud());
+        for (int i = 1; i < camino.longitud(); i++) {
+            hash = mezclar(hash, dx(camino, i, mejor));
+            hash = mezclar(hash, dy(camino, i, mejor));
+        }
+        return hash;
+    }
+
+    /**
+     * Compara dos transformaciones del camino paso a paso, sin construir las secuencias
+     */
+    private static int comparar(Camino camino, int a, int b) {
+        for (int i = 1; i < camino.longitud(); i++) {
+            int diferencia = Integer.compare(dx(camino, i, a), dx(camino, i, b));
+            if (diferencia == 0) {
+                diferencia = Integer.compare(dy(camino, i, a), dy(camino, i, b));
+            }
+            if (diferencia != 0) {
+                return diferencia;
+            }
+        }
+        return 0;
+    }
+
+    // Transformación t: reflejo horizontal si t >= 4, luego (t % 4) rotaciones de 90 grados
+
+    private static int dx(Camino camino, int paso, int transformacion) {
+        return transformar(camino.x(paso) - camino.x(paso - 1), camino.y(paso) - camino.y(paso - 1), transformacion, true);
+    }
+
+    private static int dy(Camino camino, int paso, int transformacion) {
+        return transformar(camino.x(paso) - camino.x(paso - 1), camino.y(paso) - camino.y(paso - 1), transformacion, false);
+    }
+
+    private static int transformar(int dx, int dy, int transformacion, boolean componenteX) {
+        if (transformacion >= 4) {
+            dx = -dx;
+        }
+        for (int r = 0; r < (transformacion & 3); r++) {
+            int anterior = dx;
+            dx = -dy;
+            dy = anterior;
+        }
+        return componenteX ? dx : dy;
+    }
+
+    private static long mezclar(long hash, int valor) {
+        for (int b = 0; b < 4; b++) {
+            hash ^= (valor >>> (b * 8)) & 0xFF;
+            hash *= FNV_PRIMO;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,83 @@
+package com.umg.roboteducativo.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Genera caminos aleatorios válidos (continuos, sin repetir celdas y dentro de la
+ * cuadrícula) con una caminata que evita sus propias celdas. La probabilidad de
+ * girar en cada paso se ajusta para acercarse a la cantidad de giros buscada.
+ * Cada intento es O(longitud); si la caminata se encierra, el intento falla.
+ */
+public final class GeneradorCaminos {
+
+    private GeneradorCaminos() {
+    }
+
+    /**
+     * Un intento de generación
+     * @return el camino, o null si la caminata se encerró o no cumplió la cantidad de giros
+     */
+    public static Camino generar(SplittableRandom azar, int ancho, int alto, int longitud,
+                                 int girosMinimos, int girosMaximos) {
+        int[] xs = new int[longitud];
+        int[] ys = new int[longitud];
+        OcupacionDispersa visitadas = new OcupacionDispersa(longitud);
+
+        xs[0] = azar.nextInt(ancho);
+        ys[0] = azar.nextInt(alto);
+        visitadas.agregar(xs[0], ys[0]);
+
+        int girosObjetivo = girosMinimos + azar.nextInt(girosMaximos - girosMinimos + 1);
+        int giros = 0;
+        int direccion = azar.nextInt(4);
+        int[] opciones = new int[3];
+
+        for (int i = 1; i < longitud; i++) {
+            if (i == 1) {
+                // El primer paso define la dirección inicial; no cuenta como giro
+                opciones[0] = direccion;
+                opciones[1] = (direccion + 1) & 3;
+                opciones[2] = (direccion + 3) & 3;
+            } else {
+                int pasosRestantes = longitud - i;
+                boolean girar = azar.nextInt(pasosRestantes) < girosObjetivo - giros;
+                int izquierda = (direccion + 3) & 3;
+                int derecha = (direccion + 1) & 3;
+                if (azar.nextBoolean()) {
+                    int temporal = izquierda;
+                    izquierda = derecha;
+                    derecha = temporal;
+                }
+                opciones[0] = girar ? izquierda : direccion;
+                opciones[1] = girar ? derecha : izquierda;
+                opciones[2] = girar ? direccion : derecha;
+            }
+
+            int elegida = -1;
+            for (int opcion : opciones) {
+                int x = xs[i - 1] + Camino.DX[opcion];
+                int y = ys[i - 1] + Camino.DY[opcion];
+                if (x >= 0 && y >= 0 && x < ancho && y < alto && !visitadas.contiene(x, y)) {
+                    elegida = opcion;
+                    break;
+                }
+            }
+            if (elegida < 0) {
+                return null;
+            }
+
+            if (i > 1 && elegida != direccion) {
+                giros++;
+            }
+            direccion = elegida;
+            xs[i] = xs[i - 1] + Camino.DX[direccion];
+            ys[i] = ys[i - 1] + Camino.DY[direccion];
+            visitadas.agregar(xs[i], ys[i]);
+        }
+
+        if (giros < girosMinimos || giros > girosMaximos) {
+            return null;
+        }
+        return Camino.sinCopia(new int[][]{xs, ys});
+    }
+}
@@ -0,0 +1,49 @@
+package com.umg.roboteducativo.engine;
+
+/**
+ * Códigos de instrucción del programa compilado (un byte por paso)
+ */
+public final class Instruccion {
+
+    public static final byte ADELANTE = 0;
+    public static final byte GIRAR_IZQUIERDA = 1;
+    public static final byte GIRAR_DERECHA = 2;
+
+    private Instruccion() {
+    }
+
+    /**
+     * Traduce el tipo de movimiento del frontend ("adelante", "girar-izquierda", "girar-derecha")
+     */
+    public static byte desde(String tipo) {
+        if (tipo == null) {
+            throw new IllegalArgumentException("Movimiento vacío");
+        }
+        switch (tipo) {
+            case "adelante":
+                return ADELANTE;
+            case "girar-izquierda":
+                return GIRAR_IZQUIERDA;
+            case "girar-derecha":
+                return GIRAR_DERECHA;
+            default:
+                throw new IllegalArgumentException("Movimiento desconocido: " + tipo);
+        }
+    }
+
+    /**
+     * Tipo de movimiento del frontend correspondiente a la instrucción
+     */
+    public static String nombre(byte instruccion) {
+        switch (instruccion) {
+            case ADELANTE:
+                return "adelante";
+            case GIRAR_IZQUIERDA:
+                return "girar-izquierda";
+            case GIRAR_DERECHA:
+                return "girar-derecha";
+            default:
+                throw new IllegalArgumentException("Instrucción desconocida: " + instruccion);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.umg.roboteducativo.engine;
+
+/**
+ * Métricas de dificultad de un camino válido
+ *
+ * @param longitud cantidad de celdas del camino
+ * @param giros    cambios de dirección a lo largo del camino
+ */
+public record MetricasCamino(int longitud, int giros) {
+}
@@ -0,0 +1,125 @@
+package com.umg.roboteducativo.engine;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de celdas ocupadas guardado como bitset disperso: solo existen los
+ * bloques de 8x8 celdas que tocan el camino, cada uno en un long dentro de una
+ * tabla hash de direccionamiento abierto. La memoria y la construcción dependen
+ * de la cantidad de puntos, no del área de la cuadrícula.
+ */
+final class OcupacionDispersa {
+
+    private static final int LADO_BLOQUE = 8;
+    private static final int BITS_LADO = 3;
+    private static final long VACIO = Long.MIN_VALUE;
+
+    private final long[] claves;
+    private final long[] bloques;
+    private final int mascara;
+
+    OcupacionDispersa(int[] xs, int[] ys) {
+        this(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            agregar(xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * Conjunto vacío con espacio para la cantidad de puntos indicada
+     */
+    OcupacionDispersa(int puntos) {
+        // Como máximo un bloque por punto; factor de carga <= 0.5
+        int capacidad = Integer.highestOneBit(Math.max(puntos, 2) * 2 - 1) << 1;
+        this.claves = new long[capacidad];
+        this.bloques = new long[capacidad];
+        this.mascara = capacidad - 1;
+        Arrays.fill(claves, VACIO);
+    }
+
+    /**
+     * Marca la celda; devuelve false si ya estaba marcada
+     */
+    boolean agregar(int x, int y) {
+        int ranura = buscarRanura(clave(x >> BITS_LADO, y >> BITS_LADO));
+        long bit = bit(x, y);
+        if ((bloques[ranura] & bit) != 0) {
+            return false;
+        }
+        bloques[ranura] |= bit;
+        return true;
+    }
+
+    boolean contiene(int x, int y) {
+        int ranura = ubicar(clave(x >> BITS_LADO, y >> BITS_LADO));
+        return ranura >= 0 && (bloques[ranura] & bit(x, y)) != 0;
+    }
+
+    /**
+     * Celdas ocupadas dentro del rectángulo [x, x + ancho) x [y, y + alto), como pares x,y.
+     * Recorre solo los bloques que cubren el rectángulo.
+     */
+    int[] celdasEnRegion(int x, int y, int ancho, int alto) {
+        int[] resultado = new int[16];
+        int cantidad = 0;
+        int finX = x + ancho - 1;
+        int finY = y + alto - 1;
+        for (int by = y >> BITS_LADO; by <= finY >> BITS_LADO; by++) {
+            for (int bx = x >> BITS_LADO; bx <= finX >> BITS_LADO; bx++) {
+                int ranura = ubicar(clave(bx, by));
+                if (ranura < 0) {
+                    continue;
+                }
+                long bloque = bloques[ranura];
+                while (bloque != 0) {
+                    int indice = Long.numberOfTrailingZeros(bloque);
+                    bloque &= bloque - 1;
+                    int cx = (bx << BITS_LADO) + (indice & (LADO_BLOQUE - 1));
+                    int cy = (by << BITS_LADO) + (indice >>> BITS_LADO);
+                    if (cx < x || cx > finX || cy < y || cy > finY) {
+                        continue;
+                    }
+                    if (cantidad + 2 > resultado.length) {
+                        resultado = Arrays.copyOf(resultado, resultado.length * 2);
+                    }
+                    resultado[cantidad++] = cx;
+                    resultado[cantidad++] = cy;
+                }
+            }
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    private int buscarRanura(long clave) {
+        int ranura = dispersar(clave);
+        while (claves[ranura] != VACIO && claves[ranura] != clave) {
+            ranura = (ranura + 1) & mascara;
+        }
+        claves[ranura] = clave;
+        return ranura;
+    }
+
+    private int ubicar(long clave) {
+        int ranura = dispersar(clave);
+        while (claves[ranura] != VACIO) {
+            if (claves[ranura] == clave) {
+                return ranura;
+            }
+            ranura = (ranura + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private int dispersar(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private static long clave(int bloqueX, int bloqueY) {
+        return ((long) bloqueX << 32) | (bloqueY & 0xFFFFFFFFL);
+    }
+
+    private static long bit(int x, int y) {
+        return 1L << (((y & (LADO_BLOQUE - 1)) << BITS_LADO) | (x & (LADO_BLOQUE - 1)));
+    }
+}
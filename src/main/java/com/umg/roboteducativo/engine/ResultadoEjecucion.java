@@ -0,0 +1,29 @@
+package com.umg.roboteducativo.engine;
+
+/**
+ * Veredicto de ejecutar un programa sobre un camino
+ * @param exito si el robot terminó en el último punto del camino
+ * @param motivo por qué terminó la ejecución
+ * @param pasos instrucciones ejecutadas
+ * @param x posición final en x
+ * @param y posición final en y
+ */
+public record ResultadoEjecucion(boolean exito, Motivo motivo, int pasos, int x, int y) {
+
+    public enum Motivo {
+        COMPLETADO("¡Misión completada!"),
+        FUERA_DEL_CAMINO("¡El robot salió del camino! Inténtalo de nuevo."),
+        NO_LLEGO_AL_FINAL("No llegaste al final del camino"),
+        LIMITE_DE_PASOS("El programa excedió el límite de pasos");
+
+        private final String mensaje;
+
+        Motivo(String mensaje) {
+            this.mensaje = mensaje;
+        }
+
+        public String getMensaje() {
+            return mensaje;
+        }
+    }
+}
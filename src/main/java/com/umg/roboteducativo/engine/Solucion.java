@@ -0,0 +1,166 @@
+package com.umg.roboteducativo.engine;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabla precalculada de una pista: para cada estado (celda, dirección) guarda el
+ * mejor siguiente movimiento y cuántos movimientos faltan para llegar al final.
+ * Inmutable; responde una sugerencia en O(1).
+ */
+public final class Solucion {
+
+    /**
+     * Sin movimiento: el estado ya está en la meta o no puede alcanzarla
+     */
+    public static final byte NINGUNO = -1;
+
+    /**
+     * Distancia de los estados desde los que no se puede llegar a la meta
+     */
+    public static final int INALCANZABLE = -1;
+
+    private static final int VERSION_FORMATO = 1;
+
+    private final int[] xs;
+    private final int[] ys;
+    private final byte[] siguiente;
+    private final int[] distancia;
+    private final byte[] programaOptimo;
+
+    // Coordenada empaquetada (x, y) -> índice de celda
+    private final Map<Long, Integer> indices;
+
+    Solucion(int[] xs, int[] ys, byte[] siguiente, int[] distancia, byte[] programaOptimo) {
+        this.xs = xs;
+        this.ys = ys;
+        this.siguiente = siguiente;
+        this.distancia = distancia;
+        this.programaOptimo = programaOptimo;
+        this.indices = new HashMap<>(xs.length * 2);
+        for (int i = 0; i < xs.length; i++) {
+            indices.put(empaquetar(xs[i], ys[i]), i);
+        }
+    }
+
+    /**
+     * Mejor siguiente instrucción desde (x, y) mirando en la dirección indicada
+     * @return código de {@link Instruccion}, o {@link #NINGUNO}
+     * @throws IllegalArgumentException si la celda no pertenece al camino
+     */
+    public byte siguienteMovimiento(int x, int y, int direccion) {
+        return siguiente[estado(x, y, direccion)];
+    }
+
+    /**
+     * Movimientos que faltan desde el estado para llegar al final, o {@link #INALCANZABLE}
+     * @throws IllegalArgumentException si la celda no pertenece al camino
+     */
+    public int distancia(int x, int y, int direccion) {
+        return distancia[estado(x, y, direccion)];
+    }
+
+    /**
+     * Distancia mínima desde la celda, con la mejor dirección posible
+     */
+    public int distanciaCelda(int indiceCelda) {
+        int minima = INALCANZABLE;
+        for (int direccion = 0; direccion < 4; direccion++) {
+            int valor = distancia[indiceCelda * 4 + direccion];
+            if (valor != INALCANZABLE && (minima == INALCANZABLE || valor < minima)) {
+                minima = valor;
+            }
+        }
+        return minima;
+    }
+
+    public int cantidadCeldas() {
+        return xs.length;
+    }
+
+    public int x(int indiceCelda) {
+        return xs[indiceCelda];
+    }
+
+    public int y(int indiceCelda) {
+        return ys[indiceCelda];
+    }
+
+    /**
+     * Programa más corto desde la posición inicial, o null si el final es inalcanzable
+     */
+    public byte[] programaOptimo() {
+        return programaOptimo == null ? null : programaOptimo.clone();
+    }
+
+    /**
+     * Representación binaria compacta para guardar junto a la pista
+     */
+    public byte[] serializar() {
+        int n = xs.length;
+        int largoPrograma = programaOptimo == null ? -1 : programaOptimo.length;
+        ByteBuffer buffer = ByteBuffer.allocate(
+            4 + 4 + n * 8 + n * 4 + n * 16 + 4 + Math.max(largoPrograma, 0));
+        buffer.putInt(VERSION_FORMATO);
+        buffer.putInt(n);
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(xs[i]).putInt(ys[i]);
+        }
+        buffer.put(siguiente);
+        for (int valor : distancia) {
+            buffer.putInt(valor);
+        }
+        buffer.putInt(largoPrograma);
+        if (programaOptimo != null) {
+            buffer.put(programaOptimo);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reconstruye una solución guardada con {@link #serializar()}
+     */
+    public static Solucion deserializar(byte[] datos) {
+        ByteBuffer buffer = ByteBuffer.wrap(datos);
+        int version = buffer.getInt();
+        if (version != VERSION_FORMATO) {
+            throw new IllegalArgumentException("Versión de solución no soportada: " + version);
+        }
+        int n = buffer.getInt();
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = buffer.getInt();
+            ys[i] = buffer.getInt();
+        }
+        byte[] siguiente = new byte[n * 4];
+        buffer.get(siguiente);
+        int[] distancia = new int[n * 4];
+        for (int i = 0; i < distancia.length; i++) {
+            distancia[i] = buffer.getInt();
+        }
+        int largoPrograma = buffer.getInt();
+        byte[] programa = null;
+        if (largoPrograma >= 0) {
+            programa = new byte[largoPrograma];
+            buffer.get(programa);
+        }
+        return new Solucion(xs, ys, siguiente, distancia, programa);
+    }
+
+    private int estado(int x, int y, int direccion) {
+        Integer indice = indices.get(empaquetar(x, y));
+        if (indice == null) {
+            throw new IllegalArgumentException("La posición (" + x + ", " + y + ") no pertenece al camino");
+        }
+        if (direccion < 0 || direccion > 3) {
+            throw new IllegalArgumentException("Dirección inválida: " + direccion);
+        }
+        return indice * 4 + direccion;
+    }
+
+    static long empaquetar(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
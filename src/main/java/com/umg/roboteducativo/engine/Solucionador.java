@@ -0,0 +1,116 @@
+package com.umg.roboteducativo.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calcula la solución óptima de un camino con una BFS sobre los estados
+ * (celda, dirección). La búsqueda parte de la meta hacia atrás, así una sola
+ * pasada deja la distancia y el mejor movimiento de todos los estados.
+ */
+public final class Solucionador {
+
+    private Solucionador() {
+    }
+
+    public static Solucion resolver(Camino camino) {
+        // Celdas distintas del camino, en orden de aparición
+        Map<Long, Integer> indices = new HashMap<>();
+        int[] xs = new int[camino.longitud()];
+        int[] ys = new int[camino.longitud()];
+        int n = 0;
+        for (int i = 0; i < camino.longitud(); i++) {
+            long clave = Solucion.empaquetar(camino.x(i), camino.y(i));
+            if (!indices.containsKey(clave)) {
+                indices.put(clave, n);
+                xs[n] = camino.x(i);
+                ys[n] = camino.y(i);
+                n++;
+            }
+        }
+        xs = Arrays.copyOf(xs, n);
+        ys = Arrays.copyOf(ys, n);
+
+        byte[] siguiente = new byte[n * 4];
+        int[] distancia = new int[n * 4];
+        Arrays.fill(siguiente, Solucion.NINGUNO);
+        Arrays.fill(distancia, Solucion.INALCANZABLE);
+
+        // Estado = celda * 4 + dirección; la meta vale en cualquier dirección
+        int[] cola = new int[n * 4];
+        int cabeza = 0;
+        int fin = 0;
+        int meta = indices.get(Solucion.empaquetar(camino.finX(), camino.finY()));
+        for (int direccion = 0; direccion < 4; direccion++) {
+            distancia[meta * 4 + direccion] = 0;
+            cola[fin++] = meta * 4 + direccion;
+        }
+
+        while (cabeza < fin) {
+            int estado = cola[cabeza++];
+            int celda = estado >>> 2;
+            int direccion = estado & 3;
+            int siguienteDistancia = distancia[estado] + 1;
+
+            // Predecesores: quien llega a este estado con un solo movimiento
+            int previoAdelante = -1;
+            Integer celdaPrevia = indices.get(Solucion.empaquetar(
+                xs[celda] - Camino.DX[direccion], ys[celda] - Camino.DY[direccion]));
+            if (celdaPrevia != null) {
+                previoAdelante = celdaPrevia * 4 + direccion;
+            }
+            fin = visitar(previoAdelante, Instruccion.ADELANTE, siguienteDistancia, siguiente, distancia, cola, fin);
+            fin = visitar(celda * 4 + ((direccion + 1) & 3), Instruccion.GIRAR_IZQUIERDA,
+                siguienteDistancia, siguiente, distancia, cola, fin);
+            fin = visitar(celda * 4 + ((direccion + 3) & 3), Instruccion.GIRAR_DERECHA,
+                siguienteDistancia, siguiente, distancia, cola, fin);
+        }
+
+        int inicio = indices.get(Solucion.empaquetar(camino.inicioX(), camino.inicioY())) * 4
+            + camino.direccionInicial();
+        return new Solucion(xs, ys, siguiente, distancia, reconstruirPrograma(inicio, xs, ys, indices, siguiente, distancia));
+    }
+
+    private static int visitar(int estado, byte movimiento, int valor, byte[] siguiente, int[] distancia,
+                               int[] cola, int fin) {
+        if (estado < 0 || distancia[estado] != Solucion.INALCANZABLE) {
+            return fin;
+        }
+        distancia[estado] = valor;
+        siguiente[estado] = movimiento;
+        cola[fin] = estado;
+        return fin + 1;
+    }
+
+    /**
+     * Sigue la tabla desde el estado inicial hasta la meta
+     */
+    private static byte[] reconstruirPrograma(int inicio, int[] xs, int[] ys, Map<Long, Integer> indices,
+                                              byte[] siguiente, int[] distancia) {
+        if (distancia[inicio] == Solucion.INALCANZABLE) {
+            return null;
+        }
+        byte[] programa = new byte[distancia[inicio]];
+        int estado = inicio;
+        for (int paso = 0; paso < programa.length; paso++) {
+            byte movimiento = siguiente[estado];
+            programa[paso] = movimiento;
+            int celda = estado >>> 2;
+            int direccion = estado & 3;
+            switch (movimiento) {
+                case Instruccion.ADELANTE:
+                    celda = indices.get(Solucion.empaquetar(xs[celda] + Camino.DX[direccion], ys[celda] + Camino.DY[direccion]));
+                    break;
+                case Instruccion.GIRAR_IZQUIERDA:
+                    direccion = (direccion + 3) & 3;
+                    break;
+                default:
+                    direccion = (direccion + 1) & 3;
+                    break;
+            }
+            estado = celda * 4 + direccion;
+        }
+        return programa;
+    }
+}
@@ -0,0 +1,65 @@
+package com.umg.roboteducativo.engine;
+
+/**
+ * Valida el camino de una pista en una sola pasada y, en la misma pasada,
+ * calcula sus métricas de dificultad. Las celdas visitadas se llevan en un
+ * conjunto hash ({@link OcupacionDispersa}), así el costo es O(longitud).
+ */
+public final class ValidadorCamino {
+
+    private ValidadorCamino() {
+    }
+
+    /**
+     * @param camino camino a validar
+     * @param ancho  ancho de la cuadrícula (las x van de 0 a ancho - 1)
+     * @param alto   alto de la cuadrícula (las y van de 0 a alto - 1)
+     * @return longitud y cantidad de giros del camino
+     * @throws IllegalArgumentException si el camino tiene menos de 2 celdas, se sale de la
+     *                                  cuadrícula, salta entre celdas no vecinas o repite una celda
+     */
+    public static MetricasCamino validar(Camino camino, int ancho, int alto) {
+        int n = camino.longitud();
+        if (n < 2) {
+            throw new IllegalArgumentException("El camino debe tener al menos 2 celdas");
+        }
+
+        OcupacionDispersa visitadas = new OcupacionDispersa(n);
+        int giros = 0;
+        int direccionAnterior = -1;
+        for (int i = 0; i < n; i++) {
+            int x = camino.x(i);
+            int y = camino.y(i);
+            if (x < 0 || y < 0 || x >= ancho || y >= alto) {
+                throw new IllegalArgumentException("La celda (" + x + ", " + y + ") en la posición " + i
+                    + " se sale de la cuadrícula de " + ancho + "x" + alto);
+            }
+            if (!visitadas.agregar(x, y)) {
+                throw new IllegalArgumentException("El camino pasa dos veces por la celda (" + x + ", " + y + ")");
+            }
+            if (i == 0) {
+                continue;
+            }
+
+            int direccion = direccion(x - camino.x(i - 1), y - camino.y(i - 1));
+            if (direccion < 0) {
+                throw new IllegalArgumentException("El camino no es continuo entre las posiciones "
+                    + (i - 1) + " y " + i);
+            }
+            if (direccionAnterior >= 0 && direccion != direccionAnterior) {
+                giros++;
+            }
+            direccionAnterior = direccion;
+        }
+        return new MetricasCamino(n, giros);
+    }
+
+    private static int direccion(int dx, int dy) {
+        for (int d = 0; d < 4; d++) {
+            if (Camino.DX[d] == dx && Camino.DY[d] == dy) {
+                return d;
+            }
+        }
+        return -1;
+    }
+}
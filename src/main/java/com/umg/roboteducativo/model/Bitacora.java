@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "bitacora")
+@Table(name = "bitacora", indexes = {
+    @Index(name = "idx_bitacora_fecha_id", columnList = "fecha_hora, id"),
+    @Index(name = "idx_bitacora_accion_fecha_id", columnList = "accion, fecha_hora, id"),
+    @Index(name = "idx_bitacora_admin_fecha_id", columnList = "administrador_id, fecha_hora, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,29 @@
+package com.umg.roboteducativo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clave de idempotencia de un evento de estadística ya aplicado.
+ * La clave primaria garantiza que un reintento nunca se cuente dos veces.
+ */
+@Entity
+@Table(name = "evento_procesado", indexes = {
+    @Index(name = "idx_evento_procesado_fecha_recepcion", columnList = "fecha_recepcion")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoProcesado {
+
+    @Id
+    @Column(length = 64)
+    private String clave;
+
+    @Column(name = "fecha_recepcion", nullable = false)
+    private LocalDateTime fechaRecepcion;
+}
@@ -10,12 +10,21 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "pista")
+@Table(name = "pista", indexes = {
+    @Index(name = "idx_pista_activa_programa_minimo", columnList = "activa, programa_minimo, id"),
+    @Index(name = "idx_pista_activa_longitud", columnList = "activa, longitud, id"),
+    @Index(name = "idx_pista_activa_giros", columnList = "activa, giros, id"),
+    @Index(name = "idx_pista_hash_contenido", columnList = "hash_contenido"),
+    @Index(name = "idx_pista_fecha_modificacion", columnList = "fecha_modificacion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Pista {
 
+    // Tamaño de la cuadrícula de las pistas creadas antes de guardar dimensiones
+    public static final int DIMENSION_PREDETERMINADA = 5;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -25,10 +34,35 @@ public class Pista {
     @Column(nullable = false, unique = true, length = 100)
     private String nombre;
 
-    @NotBlank(message = "La configuración JSON es obligatoria")
-    @Column(name = "configuracion_json", nullable = false, columnDefinition = "TEXT")
+    // Solo en pistas guardadas antes del camino binario; las nuevas lo dejan en null (un camino
+    // largo no cabe en TEXT) y el JSON se genera desde camino_binario al enviarlo (FormatoCamino.JSON)
+    @Column(name = "configuracion_json", columnDefinition = "TEXT")
     private String configuracionJson;
 
+    // Camino en formato compacto (CaminoBinario); es el que se guarda y el que leen el motor y el juego
+    @Column(name = "camino_binario", columnDefinition = "BLOB")
+    private byte[] caminoBinario;
+
+    // Huella del camino binario (CaminoBinario.huella); detecta caminos repetidos con una búsqueda indexada
+    @Column(name = "hash_contenido")
+    private Long hashContenido;
+
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 5")
+    private Integer ancho = DIMENSION_PREDETERMINADA;
+
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 5")
+    private Integer alto = DIMENSION_PREDETERMINADA;
+
+    // Métricas de dificultad calculadas al guardar (null si el camino no es válido)
+    @Column
+    private Integer longitud;
+
+    @Column
+    private Integer giros;
+
+    @Column(name = "programa_minimo")
+    private Integer programaMinimo;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creado_por")
     private Administrador creadoPor;
@@ -51,6 +85,12 @@ public class Pista {
         if (activa == null) {
             activa = true;
         }
+        if (ancho == null) {
+            ancho = DIMENSION_PREDETERMINADA;
+        }
+        if (alto == null) {
+            alto = DIMENSION_PREDETERMINADA;
+        }
     }
 
     //Metodo ejecutado antes de actualizar la entidad
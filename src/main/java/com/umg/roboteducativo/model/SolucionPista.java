@@ -0,0 +1,48 @@
+package com.umg.roboteducativo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Solución precalculada de una pista: programa óptimo y tabla de sugerencias.
+ * Se recalcula cada vez que se guarda el camino de la pista.
+ */
+@Entity
+@Table(name = "solucion_pista")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolucionPista {
+
+    @Id
+    @Column(name = "pista_id")
+    private Integer pistaId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "pista_id")
+    private Pista pista;
+
+    // Versión del camino con la que se calculó
+    @Column(name = "fecha_modificacion_pista", nullable = false)
+    private LocalDateTime fechaModificacionPista;
+
+    // JSON con los movimientos del programa más corto; null si el final es inalcanzable
+    @Column(name = "programa_optimo", columnDefinition = "TEXT")
+    private String programaOptimo;
+
+    @Column(name = "longitud_optima")
+    private Integer longitudOptima;
+
+    // Tabla (celda, dirección) -> siguiente movimiento y distancia, en formato binario
+    @Lob
+    @Column(name = "tabla_movimientos", nullable = false, length = 16777215)
+    private byte[] tablaMovimientos;
+
+    @Column(name = "fecha_calculo", nullable = false)
+    private LocalDateTime fechaCalculo;
+}
@@ -1,57 +1,159 @@
 package com.umg.roboteducativo.repository;
 
+import com.umg.roboteducativo.dto.BitacoraDTO;
 import com.umg.roboteducativo.model.Bitacora;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BitacoraRepository extends JpaRepository<Bitacora, Integer> {
 
     /**
-     * Obtiene todas las entradas de bitácora ordenadas por fecha descendente
-     * @return lista de entradas de bitácora
+     * Proyección común de los listados: una sola sentencia con el administrador ya unido,
+     * sin cargar entidades ni disparar la asociación LAZY por cada fila
      */
-    List<Bitacora> findAllByOrderByFechaHoraDesc();
+    String SELECT_DTO =
+        "SELECT new com.umg.roboteducativo.dto.BitacoraDTO(b.id, a.nombre, a.username, b.accion, " +
+        "b.descripcion, b.fechaHora, b.ipAddress) " +
+        "FROM Bitacora b LEFT JOIN b.administrador a ";
 
     /**
-     * Obtiene las entradas de bitácora de un administrador específico
+     * Condición keyset: entradas estrictamente anteriores al cursor (fechaHora, id).
+     * La primera comparación acota el rango sobre el índice (fecha_hora, id).
+     */
+    String ANTES_DEL_CURSOR =
+        "b.fechaHora <= :fechaCursor AND (b.fechaHora < :fechaCursor OR b.id < :idCursor) ";
+
+    String ORDEN_KEYSET = "ORDER BY b.fechaHora DESC, b.id DESC";
+
+    /**
+     * Obtiene una página de toda la bitácora, de la más reciente a la más antigua
+     * @param fechaCursor fecha de la última entrada de la página anterior
+     * @param idCursor ID de la última entrada de la página anterior
+     * @param pagina tamaño de la página (siempre la página 0)
+     * @return entradas de la página
+     */
+    @Query(SELECT_DTO + "WHERE " + ANTES_DEL_CURSOR + ORDEN_KEYSET)
+    List<BitacoraDTO> findPagina(
+        @Param("fechaCursor") LocalDateTime fechaCursor,
+        @Param("idCursor") Integer idCursor,
+        Pageable pagina
+    );
+
+    /**
+     * Obtiene una página de las entradas de un administrador específico
      * @param administradorId ID del administrador
-     * @return lista de entradas de bitácora del administrador
+     * @param fechaCursor fecha de la última entrada de la página anterior
+     * @param idCursor ID de la última entrada de la página anterior
+     * @param pagina tamaño de la página (siempre la página 0)
+     * @return entradas de la página
      */
-    @Query("SELECT b FROM Bitacora b WHERE b.administrador.id = :administradorId ORDER BY b.fechaHora DESC")
-    List<Bitacora> findByAdministradorId(@Param("administradorId") Integer administradorId);
+    @Query(SELECT_DTO + "WHERE b.administrador.id = :administradorId AND " + ANTES_DEL_CURSOR + ORDEN_KEYSET)
+    List<BitacoraDTO> findPaginaPorAdministrador(
+        @Param("administradorId") Integer administradorId,
+        @Param("fechaCursor") LocalDateTime fechaCursor,
+        @Param("idCursor") Integer idCursor,
+        Pageable pagina
+    );
 
     /**
-     * Obtiene las entradas de bitácora por tipo de acción
+     * Obtiene una página de las entradas con un tipo de acción
      * @param accion tipo de acción
-     * @return lista de entradas de bitácora con esa acción
+     * @param fechaCursor fecha de la última entrada de la página anterior
+     * @param idCursor ID de la última entrada de la página anterior
+     * @param pagina tamaño de la página (siempre la página 0)
+     * @return entradas de la página
      */
-    List<Bitacora> findByAccionOrderByFechaHoraDesc(String accion);
+    @Query(SELECT_DTO + "WHERE b.accion = :accion AND " + ANTES_DEL_CURSOR + ORDEN_KEYSET)
+    List<BitacoraDTO> findPaginaPorAccion(
+        @Param("accion") String accion,
+        @Param("fechaCursor") LocalDateTime fechaCursor,
+        @Param("idCursor") Integer idCursor,
+        Pageable pagina
+    );
 
     /**
-     * Obtiene las entradas de bitácora en un rango de fechas
+     * Obtiene una página de las entradas en un rango de fechas
      * @param fechaInicio fecha de inicio
      * @param fechaFin fecha de fin
-     * @return lista de entradas de bitácora en el rango
+     * @param fechaCursor fecha de la última entrada de la página anterior
+     * @param idCursor ID de la última entrada de la página anterior
+     * @param pagina tamaño de la página (siempre la página 0)
+     * @return entradas de la página
      */
-    @Query("SELECT b FROM Bitacora b WHERE b.fechaHora BETWEEN :fechaInicio AND :fechaFin ORDER BY b.fechaHora DESC")
-    List<Bitacora> findByFechaHoraBetween(
-        @Param("fechaInicio") LocalDateTime fechaInicio, 
-        @Param("fechaFin") LocalDateTime fechaFin
+    @Query(SELECT_DTO + "WHERE b.fechaHora BETWEEN :fechaInicio AND :fechaFin AND " + ANTES_DEL_CURSOR + ORDEN_KEYSET)
+    List<BitacoraDTO> findPaginaPorRango(
+        @Param("fechaInicio") LocalDateTime fechaInicio,
+        @Param("fechaFin") LocalDateTime fechaFin,
+        @Param("fechaCursor") LocalDateTime fechaCursor,
+        @Param("idCursor") Integer idCursor,
+        Pageable pagina
+    );
+
+    /**
+     * Busca una página de entradas por descripción (búsqueda parcial)
+     * @param texto texto a buscar
+     * @param fechaCursor fecha de la última entrada de la página anterior
+     * @param idCursor ID de la última entrada de la página anterior
+     * @param pagina tamaño de la página (siempre la página 0)
+     * @return entradas de la página
+     */
+    @Query(SELECT_DTO + "WHERE LOWER(b.descripcion) LIKE LOWER(CONCAT('%', :texto, '%')) AND " + ANTES_DEL_CURSOR + ORDEN_KEYSET)
+    List<BitacoraDTO> buscarPaginaPorDescripcion(
+        @Param("texto") String texto,
+        @Param("fechaCursor") LocalDateTime fechaCursor,
+        @Param("idCursor") Integer idCursor,
+        Pageable pagina
+    );
+
+    /**
+     * Recorre las entradas para exportarlas, con los mismos filtros que los listados.
+     * Cada filtro nulo se ignora. El driver entrega las filas por bloques (fetch size)
+     * y la proyección a DTO no deja entidades en el contexto de persistencia.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @param administradorId ID del administrador (opcional)
+     * @param accion tipo de acción (opcional)
+     * @param fechaInicio fecha de inicio (opcional)
+     * @param fechaFin fecha de fin (opcional)
+     * @param texto texto a buscar en la descripción (opcional)
+     * @return stream de entradas, de la más reciente a la más antigua
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DTO +
+           "WHERE (:administradorId IS NULL OR b.administrador.id = :administradorId) " +
+           "AND (:accion IS NULL OR b.accion = :accion) " +
+           "AND (:fechaInicio IS NULL OR b.fechaHora >= :fechaInicio) " +
+           "AND (:fechaFin IS NULL OR b.fechaHora <= :fechaFin) " +
+           "AND (:texto IS NULL OR LOWER(b.descripcion) LIKE LOWER(CONCAT('%', :texto, '%'))) " +
+           ORDEN_KEYSET)
+    Stream<BitacoraDTO> streamParaExportar(
+        @Param("administradorId") Integer administradorId,
+        @Param("accion") String accion,
+        @Param("fechaInicio") LocalDateTime fechaInicio,
+        @Param("fechaFin") LocalDateTime fechaFin,
+        @Param("texto") String texto
     );
 
     /**
      * Obtiene las últimas N entradas de la bitácora
-     * @param limite cantidad de entradas
+     * @param pagina primera página con tamaño N (ej. PageRequest.of(0, limite))
      * @return lista de las últimas entradas
      */
-    @Query(value = "SELECT * FROM bitacora ORDER BY fecha_hora DESC LIMIT :limite", nativeQuery = true)
-    List<Bitacora> findUltimas(@Param("limite") int limite);
+    @Query(SELECT_DTO + ORDEN_KEYSET)
+    List<BitacoraDTO> findUltimas(Pageable pagina);
 
     /**
      * Cuenta las acciones realizadas por un administrador
@@ -61,14 +163,6 @@ public interface BitacoraRepository extends JpaRepository<Bitacora, Integer> {
     @Query("SELECT COUNT(b) FROM Bitacora b WHERE b.administrador.id = :administradorId")
     long countByAdministradorId(@Param("administradorId") Integer administradorId);
 
-    /**
-     * Busca en la bitácora por descripción (búsqueda parcial)
-     * @param texto texto a buscar
-     * @return lista de entradas que coinciden
-     */
-    @Query("SELECT b FROM Bitacora b WHERE LOWER(b.descripcion) LIKE LOWER(CONCAT('%', :texto, '%')) ORDER BY b.fechaHora DESC")
-    List<Bitacora> buscarPorDescripcion(@Param("texto") String texto);
-
     /**
      * Obtiene estadísticas de acciones por tipo
      * @return lista de arrays [accion, cantidad]
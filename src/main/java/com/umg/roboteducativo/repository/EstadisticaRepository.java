@@ -1,17 +1,65 @@
 package com.umg.roboteducativo.repository;
 
+import com.umg.roboteducativo.dto.EstadisticaDTO;
 import com.umg.roboteducativo.model.Estadistica;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EstadisticaRepository extends JpaRepository<Estadistica, Integer> {
+public interface EstadisticaRepository extends JpaRepository<Estadistica, Integer>, EstadisticaRepositoryCustom {
+
+    /**
+     * Upsert atómico de contadores: crea la fila (pista_id, fecha) o suma los deltas si ya existe.
+     * Se apoya en la restricción única (pista_id, fecha), así que no hay pérdidas bajo concurrencia.
+     */
+    String UPSERT_CONTADORES =
+        "INSERT INTO estadistica (pista_id, fecha, total_visitas, completaciones_exitosas, completaciones_fallidas) " +
+        "VALUES (:pistaId, :fecha, :visitas, :exitos, :fallos) " +
+        "ON DUPLICATE KEY UPDATE " +
+        "total_visitas = total_visitas + VALUES(total_visitas), " +
+        "completaciones_exitosas = completaciones_exitosas + VALUES(completaciones_exitosas), " +
+        "completaciones_fallidas = completaciones_fallidas + VALUES(completaciones_fallidas)";
+
+    /**
+     * Incrementa los contadores de una pista en una fecha con una sola sentencia
+     * @param pistaId ID de la pista
+     * @param fecha fecha de la estadística
+     * @param visitas visitas a sumar
+     * @param exitos completaciones exitosas a sumar
+     * @param fallos completaciones fallidas a sumar
+     * @return filas afectadas (1 si insertó, 2 si actualizó)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = UPSERT_CONTADORES, nativeQuery = true)
+    int incrementarContadores(
+        @Param("pistaId") Integer pistaId,
+        @Param("fecha") LocalDate fecha,
+        @Param("visitas") int visitas,
+        @Param("exitos") int exitos,
+        @Param("fallos") int fallos
+    );
+
+    /**
+     * Proyección común de los listados: una sola sentencia con la pista ya unida,
+     * sin cargar entidades Pista por cada fila
+     */
+    String SELECT_DTO =
+        "SELECT new com.umg.roboteducativo.dto.EstadisticaDTO(e.id, p.nombre, p.id, e.fecha, " +
+        "e.totalVisitas, e.completacionesExitosas, e.completacionesFallidas) " +
+        "FROM Estadistica e LEFT JOIN e.pista p ";
 
     /**
      * Busca la estadística de una pista en una fecha específica
@@ -30,8 +78,8 @@ public interface EstadisticaRepository extends JpaRepository<Estadistica, Intege
      * @param pistaId ID de la pista
      * @return lista de estadísticas de la pista
      */
-    @Query("SELECT e FROM Estadistica e WHERE e.pista.id = :pistaId ORDER BY e.fecha DESC")
-    List<Estadistica> findByPistaId(@Param("pistaId") Integer pistaId);
+    @Query(SELECT_DTO + "WHERE p.id = :pistaId ORDER BY e.fecha DESC")
+    List<EstadisticaDTO> findByPistaId(@Param("pistaId") Integer pistaId);
 
     /**
      * Obtiene las estadísticas en un rango de fechas
@@ -39,8 +87,8 @@ public interface EstadisticaRepository extends JpaRepository<Estadistica, Intege
      * @param fechaFin fecha de fin
      * @return lista de estadísticas en el rango
      */
-    @Query("SELECT e FROM Estadistica e WHERE e.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY e.fecha DESC")
-    List<Estadistica> findByFechaBetween(
+    @Query(SELECT_DTO + "WHERE e.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY e.fecha DESC")
+    List<EstadisticaDTO> findByFechaBetween(
         @Param("fechaInicio") LocalDate fechaInicio, 
         @Param("fechaFin") LocalDate fechaFin
     );
@@ -52,13 +100,36 @@ public interface EstadisticaRepository extends JpaRepository<Estadistica, Intege
      * @param fechaFin fecha de fin
      * @return lista de estadísticas
      */
-    @Query("SELECT e FROM Estadistica e WHERE e.pista.id = :pistaId AND e.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY e.fecha DESC")
-    List<Estadistica> findByPistaIdAndFechaBetween(
+    @Query(SELECT_DTO + "WHERE p.id = :pistaId AND e.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY e.fecha DESC")
+    List<EstadisticaDTO> findByPistaIdAndFechaBetween(
         @Param("pistaId") Integer pistaId,
         @Param("fechaInicio") LocalDate fechaInicio, 
         @Param("fechaFin") LocalDate fechaFin
     );
 
+    /**
+     * Recorre las estadísticas para exportarlas, con los mismos filtros que los listados.
+     * Cada filtro nulo se ignora. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @param pistaId ID de la pista (opcional)
+     * @param fechaInicio fecha de inicio (opcional)
+     * @param fechaFin fecha de fin (opcional)
+     * @return stream de estadísticas, de la más reciente a la más antigua
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DTO +
+           "WHERE (:pistaId IS NULL OR e.pista.id = :pistaId) " +
+           "AND (:fechaInicio IS NULL OR e.fecha >= :fechaInicio) " +
+           "AND (:fechaFin IS NULL OR e.fecha <= :fechaFin) " +
+           "ORDER BY e.fecha DESC, e.id DESC")
+    Stream<EstadisticaDTO> streamParaExportar(
+        @Param("pistaId") Integer pistaId,
+        @Param("fechaInicio") LocalDate fechaInicio,
+        @Param("fechaFin") LocalDate fechaFin
+    );
+
     /**
      * Calcula el total de visitas de todas las pistas
      * @return suma total de visitas
@@ -98,8 +169,8 @@ public interface EstadisticaRepository extends JpaRepository<Estadistica, Intege
      * Obtiene las estadísticas de hoy
      * @return lista de estadísticas de hoy
      */
-    @Query("SELECT e FROM Estadistica e WHERE e.fecha = CURRENT_DATE")
-    List<Estadistica> findEstadisticasHoy();
+    @Query(SELECT_DTO + "WHERE e.fecha = CURRENT_DATE")
+    List<EstadisticaDTO> findEstadisticasHoy();
 
     /**
      * Obtiene las pistas más visitadas (top N)
@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
+
+import java.util.List;
+
+/**
+ * Operaciones de EstadisticaRepository implementadas con JDBC directo
+ */
+public interface EstadisticaRepositoryCustom {
+
+    /**
+     * Aplica varios incrementos de contadores en un único lote JDBC
+     * @param deltas incrementos por (pista, fecha)
+     */
+    void aplicarDeltas(List<DeltaEstadisticaDTO> deltas);
+}
@@ -0,0 +1,33 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class EstadisticaRepositoryImpl implements EstadisticaRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void aplicarDeltas(List<DeltaEstadisticaDTO> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] lote = deltas.stream()
+                .map(delta -> new MapSqlParameterSource()
+                        .addValue("pistaId", delta.getPistaId())
+                        .addValue("fecha", delta.getFecha())
+                        .addValue("visitas", delta.getVisitas())
+                        .addValue("exitos", delta.getExitos())
+                        .addValue("fallos", delta.getFallos()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(EstadisticaRepository.UPSERT_CONTADORES, lote);
+    }
+}
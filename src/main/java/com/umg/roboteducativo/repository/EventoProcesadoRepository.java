@@ -0,0 +1,33 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.model.EventoProcesado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventoProcesadoRepository extends JpaRepository<EventoProcesado, String>, EventoProcesadoRepositoryCustom {
+
+    /**
+     * Obtiene cuáles de las claves dadas ya fueron procesadas
+     * @param claves claves de idempotencia
+     * @return lista de claves existentes
+     */
+    @Query("SELECT e.clave FROM EventoProcesado e WHERE e.clave IN :claves")
+    List<String> findClavesExistentes(@Param("claves") Collection<String> claves);
+
+    /**
+     * Elimina las claves recibidas antes de la fecha límite (usa idx_evento_procesado_fecha_recepcion)
+     * @param limite fecha de recepción mínima que se conserva
+     * @return cantidad de claves eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM EventoProcesado e WHERE e.fechaRecepcion < :limite")
+    int eliminarAnteriores(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,18 @@
+package com.umg.roboteducativo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Operaciones de EventoProcesadoRepository implementadas con JDBC directo
+ */
+public interface EventoProcesadoRepositoryCustom {
+
+    /**
+     * Inserta las claves en un único lote JDBC. Si otra petición insertó la misma clave
+     * entre la consulta y el insert, la clave primaria hace fallar la transacción.
+     * @param claves claves de idempotencia nuevas
+     * @param fechaRecepcion momento en que se procesaron
+     */
+    void insertarLote(Collection<String> claves, LocalDateTime fechaRecepcion);
+}
@@ -0,0 +1,33 @@
+package com.umg.roboteducativo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class EventoProcesadoRepositoryImpl implements EventoProcesadoRepositoryCustom {
+
+    private static final String INSERTAR =
+        "INSERT INTO evento_procesado (clave, fecha_recepcion) VALUES (:clave, :fechaRecepcion)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertarLote(Collection<String> claves, LocalDateTime fechaRecepcion) {
+        if (claves.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] lote = claves.stream()
+                .map(clave -> new MapSqlParameterSource()
+                        .addValue("clave", clave)
+                        .addValue("fechaRecepcion", fechaRecepcion))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERTAR, lote);
+    }
+}
@@ -1,15 +1,26 @@
 package com.umg.roboteducativo.repository;
 
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.dto.VersionCatalogoDTO;
 import com.umg.roboteducativo.model.Pista;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PistaRepository extends JpaRepository<Pista, Integer> {
+public interface PistaRepository extends JpaRepository<Pista, Integer>, PistaRepositoryCustom {
 
     /**
      * Busca una pista por su nombre
@@ -44,12 +55,63 @@ public interface PistaRepository extends JpaRepository<Pista, Integer> {
     long countByActivaTrue();
 
     /**
-     * Obtiene una pista aleatoria de las activas
-     * Este método es crítico para el proyecto: carga aleatoriamente una pista
-     * @return Optional con una pista aleatoria
+     * Obtiene las pistas activas ya proyectadas a DTO (una sola consulta, sin cargar entidades)
+     * Se usa para reconstruir el snapshot en memoria de la selección aleatoria.
+     * El JSON solo se trae para las pistas que aún no tienen camino binario.
+     * @return lista de pistas activas como DTO
      */
-    @Query(value = "SELECT * FROM pista WHERE activa = true ORDER BY RAND() LIMIT 1", nativeQuery = true)
-    Optional<Pista> obtenerPistaAleatoria();
+    @Query("SELECT new com.umg.roboteducativo.dto.PistaDTO(p.id, p.nombre, " +
+           "CASE WHEN p.caminoBinario IS NULL THEN p.configuracionJson ELSE NULL END, a.nombre, " +
+           "p.fechaCreacion, p.fechaModificacion, p.activa, p.caminoBinario, p.ancho, p.alto, " +
+           "p.longitud, p.giros, p.programaMinimo) " +
+           "FROM Pista p LEFT JOIN p.creadoPor a WHERE p.activa = true")
+    List<PistaDTO> findActivasComoDTO();
+
+    /**
+     * Obtiene las pistas activas cuyo programa mínimo está en el rango, de la más fácil a la más difícil
+     * Usa el índice (activa, programa_minimo, id)
+     * @param minimo largo mínimo del programa óptimo
+     * @param maximo largo máximo del programa óptimo
+     * @param pagina cantidad de resultados
+     * @return lista de pistas como DTO
+     */
+    @Query("SELECT new com.umg.roboteducativo.dto.PistaDTO(p.id, p.nombre, " +
+           "CASE WHEN p.caminoBinario IS NULL THEN p.configuracionJson ELSE NULL END, a.nombre, " +
+           "p.fechaCreacion, p.fechaModificacion, p.activa, p.caminoBinario, p.ancho, p.alto, " +
+           "p.longitud, p.giros, p.programaMinimo) " +
+           "FROM Pista p LEFT JOIN p.creadoPor a " +
+           "WHERE p.activa = true AND p.programaMinimo BETWEEN :minimo AND :maximo " +
+           "ORDER BY p.programaMinimo, p.id")
+    List<PistaDTO> findActivasPorDificultad(
+        @Param("minimo") int minimo,
+        @Param("maximo") int maximo,
+        Pageable pagina);
+
+    /**
+     * Recorre todas las pistas (activas e inactivas) para exportarlas, en orden de ID.
+     * El driver entrega las filas por bloques (fetch size) y la proyección a DTO no deja
+     * entidades en el contexto de persistencia. El JSON solo se trae si no hay camino binario.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de pistas como DTO
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.umg.roboteducativo.dto.PistaDTO(p.id, p.nombre, " +
+           "CASE WHEN p.caminoBinario IS NULL THEN p.configuracionJson ELSE NULL END, a.nombre, " +
+           "p.fechaCreacion, p.fechaModificacion, p.activa, p.caminoBinario, p.ancho, p.alto, " +
+           "p.longitud, p.giros, p.programaMinimo) " +
+           "FROM Pista p LEFT JOIN p.creadoPor a ORDER BY p.id")
+    Stream<PistaDTO> streamParaExportar();
+
+    /**
+     * Versión del catálogo de pistas: última modificación y cantidad de filas.
+     * Usa el índice idx_pista_fecha_modificacion; no lee las filas.
+     * @return versión del catálogo
+     */
+    @Query("SELECT new com.umg.roboteducativo.dto.VersionCatalogoDTO(MAX(p.fechaModificacion), COUNT(p)) FROM Pista p")
+    VersionCatalogoDTO obtenerVersionCatalogo();
 
     /**
      * Busca pistas por nombre (búsqueda parcial, case insensitive)
@@ -74,4 +136,120 @@ public interface PistaRepository extends JpaRepository<Pista, Integer> {
      */
     @Query("SELECT p FROM Pista p ORDER BY p.fechaCreacion DESC")
     List<Pista> findUltimasPistas(int limite);
-}
\ No newline at end of file
+
+    /**
+     * Obtiene las pistas que aún no tienen solución precalculada
+     * @return lista de pistas sin solución
+     */
+    @Query("SELECT p FROM Pista p WHERE NOT EXISTS (SELECT s FROM SolucionPista s WHERE s.pistaId = p.id)")
+    List<Pista> findSinSolucion();
+
+    /**
+     * Busca las pistas con la huella de camino dada (usa el índice idx_pista_hash_contenido)
+     * @param hashContenido huella del camino binario
+     * @return lista de pistas con esa huella
+     */
+    List<Pista> findByHashContenido(Long hashContenido);
+
+    /**
+     * Busca las pistas con cualquiera de las huellas dadas (una consulta para todo un lote)
+     * @param hashes huellas de camino
+     * @return lista de pistas con alguna de esas huellas
+     */
+    List<Pista> findByHashContenidoIn(Collection<Long> hashes);
+
+    /**
+     * Obtiene cuáles de los nombres dados ya están usados
+     * @param nombres nombres a verificar
+     * @return lista de nombres existentes
+     */
+    @Query("SELECT p.nombre FROM Pista p WHERE p.nombre IN :nombres")
+    List<String> findNombresExistentes(@Param("nombres") Collection<String> nombres);
+
+    /**
+     * Obtiene las pistas cuya huella de camino se repite, agrupadas por huella
+     * @return lista de pistas ordenadas por huella e ID
+     */
+    @Query("SELECT p FROM Pista p LEFT JOIN FETCH p.creadoPor WHERE p.hashContenido IN (" +
+           "SELECT q.hashContenido FROM Pista q WHERE q.hashContenido IS NOT NULL " +
+           "GROUP BY q.hashContenido HAVING COUNT(q) > 1) " +
+           "ORDER BY p.hashContenido, p.id")
+    List<Pista> findConCaminoRepetido();
+
+    /**
+     * Obtiene las pistas con camino binario guardadas antes de existir la huella
+     * @return lista de pistas sin huella
+     */
+    List<Pista> findByHashContenidoIsNullAndCaminoBinarioIsNotNull();
+
+    /**
+     * Guarda la huella del camino sin cargar la entidad; adelanta la fecha de modificación
+     * para que cambie el ETag de la exportación
+     * @return cantidad de filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE Pista p SET p.hashContenido = :hashContenido, p.fechaModificacion = :fechaModificacion " +
+           "WHERE p.id = :id")
+    int actualizarHashContenido(
+        @Param("id") Integer id,
+        @Param("hashContenido") long hashContenido,
+        @Param("fechaModificacion") LocalDateTime fechaModificacion);
+
+    /**
+     * Obtiene el camino binario de todas las pistas (para comparar formas sin cargar entidades)
+     * @return lista de caminos codificados
+     */
+    @Query("SELECT p.caminoBinario FROM Pista p WHERE p.caminoBinario IS NOT NULL")
+    List<byte[]> findCaminosBinarios();
+
+    /**
+     * Obtiene los nombres de pista que empiezan con el prefijo dado
+     * @param prefijo inicio del nombre
+     * @return lista de nombres
+     */
+    @Query("SELECT p.nombre FROM Pista p WHERE p.nombre LIKE CONCAT(:prefijo, '%')")
+    List<String> findNombresConPrefijo(@Param("prefijo") String prefijo);
+
+    /**
+     * Obtiene las pistas guardadas antes de existir el camino binario
+     * @return lista de pistas sin camino binario
+     */
+    List<Pista> findByCaminoBinarioIsNull();
+
+    /**
+     * Obtiene las pistas guardadas antes de calcular métricas de dificultad
+     * @return lista de pistas sin métricas
+     */
+    List<Pista> findByProgramaMinimoIsNull();
+
+    /**
+     * Guarda las métricas de dificultad sin cargar la entidad; adelanta la fecha de modificación
+     * para que cambie el ETag de la exportación
+     * @return cantidad de filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE Pista p SET p.longitud = :longitud, p.giros = :giros, p.programaMinimo = :programaMinimo, " +
+           "p.fechaModificacion = :fechaModificacion WHERE p.id = :id")
+    int actualizarMetricas(
+        @Param("id") Integer id,
+        @Param("longitud") int longitud,
+        @Param("giros") int giros,
+        @Param("programaMinimo") int programaMinimo,
+        @Param("fechaModificacion") LocalDateTime fechaModificacion);
+
+    /**
+     * Guarda el camino binario sin cargar la entidad; adelanta la fecha de modificación
+     * para que cambie el ETag de la exportación
+     * @param id ID de la pista
+     * @param caminoBinario camino codificado
+     * @param fechaModificacion nueva fecha de modificación
+     * @return cantidad de filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE Pista p SET p.caminoBinario = :caminoBinario, p.fechaModificacion = :fechaModificacion " +
+           "WHERE p.id = :id")
+    int actualizarCaminoBinario(
+        @Param("id") Integer id,
+        @Param("caminoBinario") byte[] caminoBinario,
+        @Param("fechaModificacion") LocalDateTime fechaModificacion);
+}
@@ -0,0 +1,18 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.model.Pista;
+
+import java.util.List;
+
+/**
+ * Operaciones de PistaRepository implementadas con JDBC directo
+ */
+public interface PistaRepositoryCustom {
+
+    /**
+     * Inserta las pistas nuevas en un único lote JDBC y les asigna el ID generado.
+     * Con ids IDENTITY Hibernate no agrupa los INSERT, por eso se hace aquí.
+     * @param pistas pistas sin ID, con nombres únicos
+     */
+    void insertarLote(List<Pista> pistas);
+}
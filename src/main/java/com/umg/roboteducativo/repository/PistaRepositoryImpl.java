@@ -0,0 +1,66 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.model.Pista;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class PistaRepositoryImpl implements PistaRepositoryCustom {
+
+    private static final String INSERTAR =
+        "INSERT INTO pista (nombre, configuracion_json, camino_binario, hash_contenido, ancho, alto, " +
+        "longitud, giros, programa_minimo, creado_por, fecha_creacion, fecha_modificacion, activa) " +
+        "VALUES (:nombre, :configuracionJson, :caminoBinario, :hashContenido, :ancho, :alto, " +
+        ":longitud, :giros, :programaMinimo, :creadoPor, :fecha, :fecha, :activa)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertarLote(List<Pista> pistas) {
+        if (pistas.isEmpty()) {
+            return;
+        }
+        // Mismo valor que pondría @PrePersist
+        LocalDateTime ahora = LocalDateTime.now();
+        SqlParameterSource[] lote = pistas.stream()
+                .map(pista -> {
+                    pista.setFechaCreacion(ahora);
+                    pista.setFechaModificacion(ahora);
+                    return new MapSqlParameterSource()
+                            .addValue("nombre", pista.getNombre())
+                            .addValue("configuracionJson", pista.getConfiguracionJson())
+                            .addValue("caminoBinario", pista.getCaminoBinario())
+                            .addValue("hashContenido", pista.getHashContenido())
+                            .addValue("ancho", pista.getAncho())
+                            .addValue("alto", pista.getAlto())
+                            .addValue("longitud", pista.getLongitud())
+                            .addValue("giros", pista.getGiros())
+                            .addValue("programaMinimo", pista.getProgramaMinimo())
+                            .addValue("creadoPor", pista.getCreadoPor() != null ? pista.getCreadoPor().getId() : null)
+                            .addValue("fecha", ahora)
+                            .addValue("activa", pista.getActiva() == null || pista.getActiva());
+                })
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERTAR, lote);
+
+        // El nombre es único: una consulta recupera los ids de todo el lote
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT id, nombre FROM pista WHERE nombre IN (:nombres)",
+            new MapSqlParameterSource("nombres", pistas.stream().map(Pista::getNombre).collect(Collectors.toList())),
+            fila -> {
+                ids.put(fila.getString("nombre"), fila.getInt("id"));
+            });
+        pistas.forEach(pista -> pista.setId(ids.get(pista.getNombre())));
+    }
+}
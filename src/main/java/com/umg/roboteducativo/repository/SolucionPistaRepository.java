@@ -0,0 +1,9 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.model.SolucionPista;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SolucionPistaRepository extends JpaRepository<SolucionPista, Integer>, SolucionPistaRepositoryCustom {
+}
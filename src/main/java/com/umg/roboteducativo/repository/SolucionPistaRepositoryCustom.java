@@ -0,0 +1,17 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.model.SolucionPista;
+
+import java.util.List;
+
+/**
+ * Operaciones de SolucionPistaRepository implementadas con JDBC directo
+ */
+public interface SolucionPistaRepositoryCustom {
+
+    /**
+     * Inserta las soluciones de pistas recién creadas en un único lote JDBC
+     * @param soluciones soluciones con pistaId asignado
+     */
+    void insertarLote(List<SolucionPista> soluciones);
+}
@@ -0,0 +1,39 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.model.SolucionPista;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class SolucionPistaRepositoryImpl implements SolucionPistaRepositoryCustom {
+
+    private static final String INSERTAR =
+        "INSERT INTO solucion_pista (pista_id, fecha_modificacion_pista, programa_optimo, longitud_optima, " +
+        "tabla_movimientos, fecha_calculo) " +
+        "VALUES (:pistaId, :fechaModificacionPista, :programaOptimo, :longitudOptima, :tablaMovimientos, :fechaCalculo)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertarLote(List<SolucionPista> soluciones) {
+        if (soluciones.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] lote = soluciones.stream()
+                .map(solucion -> new MapSqlParameterSource()
+                        .addValue("pistaId", solucion.getPistaId())
+                        .addValue("fechaModificacionPista", solucion.getFechaModificacionPista())
+                        .addValue("programaOptimo", solucion.getProgramaOptimo())
+                        .addValue("longitudOptima", solucion.getLongitudOptima())
+                        .addValue("tablaMovimientos", solucion.getTablaMovimientos())
+                        .addValue("fechaCalculo", solucion.getFechaCalculo()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERTAR, lote);
+    }
+}
@@ -0,0 +1,94 @@
+package com.umg.roboteducativo.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché acotada en memoria con expiración por entrada.
+ * Al llenarse purga primero las entradas vencidas y, si no alcanza, descarta entradas arbitrarias.
+ */
+public class CacheExpirable<K, V> {
+
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final int capacidadMaxima;
+
+    // Cambia en cada invalidación; evita guardar un valor cargado antes de invalidar
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CacheExpirable(int capacidadMaxima) {
+        this.capacidadMaxima = capacidadMaxima;
+    }
+
+    /**
+     * Obtiene un valor vigente
+     * @return el valor, o null si no existe o ya expiró
+     */
+    public V obtener(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expiraEn() <= System.currentTimeMillis()) {
+            entradas.remove(clave, entrada);
+            return null;
+        }
+        return entrada.valor();
+    }
+
+    /**
+     * Obtiene un valor vigente o lo carga y lo guarda durante ttlMs
+     */
+    public V obtenerOCargar(K clave, Function<K, V> cargador, long ttlMs) {
+        V valor = obtener(clave);
+        if (valor != null) {
+            return valor;
+        }
+        long generacionInicial = generacion.get();
+        valor = cargador.apply(clave);
+        if (valor != null && generacion.get() == generacionInicial) {
+            guardar(clave, valor, System.currentTimeMillis() + ttlMs);
+        }
+        return valor;
+    }
+
+    /**
+     * Guarda un valor hasta el instante indicado (epoch en milisegundos)
+     */
+    public void guardar(K clave, V valor, long expiraEn) {
+        if (entradas.size() >= capacidadMaxima) {
+            purgar();
+        }
+        entradas.put(clave, new Entrada<>(valor, expiraEn));
+    }
+
+    public void invalidar(K clave) {
+        generacion.incrementAndGet();
+        entradas.remove(clave);
+    }
+
+    public void limpiar() {
+        generacion.incrementAndGet();
+        entradas.clear();
+    }
+
+    public int tamanio() {
+        return entradas.size();
+    }
+
+    private void purgar() {
+        long ahora = System.currentTimeMillis();
+        entradas.entrySet().removeIf(entrada -> entrada.getValue().expiraEn() <= ahora);
+
+        Iterator<K> claves = entradas.keySet().iterator();
+        while (entradas.size() >= capacidadMaxima && claves.hasNext()) {
+            claves.next();
+            claves.remove();
+        }
+    }
+
+    private record Entrada<V>(V valor, long expiraEn) {
+    }
+}
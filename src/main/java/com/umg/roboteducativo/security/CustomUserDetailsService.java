@@ -2,22 +2,36 @@ package com.umg.roboteducativo.security;
 
 import com.umg.roboteducativo.model.Administrador;
 import com.umg.roboteducativo.repository.AdministradorRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Collections;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final AdministradorRepository administradorRepository;
 
+    // Usuarios activos ya cargados, para no consultar la base de datos en cada request autenticado
+    private final CacheExpirable<String, UserDetails> cacheUsuarios;
+    private final long ttlCacheMs;
+
+    public CustomUserDetailsService(
+            AdministradorRepository administradorRepository,
+            @Value("${security.usuarios.cache.ttl-ms:60000}") long ttlCacheMs,
+            @Value("${security.usuarios.cache.max:1000}") int maxUsuarios) {
+        this.administradorRepository = administradorRepository;
+        this.ttlCacheMs = ttlCacheMs;
+        this.cacheUsuarios = new CacheExpirable<>(maxUsuarios);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Administrador admin = administradorRepository.findByUsername(username)
@@ -40,6 +54,30 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Carga un usuario pasando por la caché (se usa en el filtro JWT)
+     */
+    public UserDetails loadUserByUsernameCacheado(String username) throws UsernameNotFoundException {
+        return cacheUsuarios.obtenerOCargar(username, this::loadUserByUsername, ttlCacheMs);
+    }
+
+    /**
+     * Invalida el usuario en caché cuando la transacción actual confirme
+     * (o de inmediato si no hay transacción activa)
+     */
+    public void invalidarCache(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheUsuarios.invalidar(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheUsuarios.invalidar(username);
+            }
+        });
+    }
+
     /**
      * Obtiene el administrador por username
      */
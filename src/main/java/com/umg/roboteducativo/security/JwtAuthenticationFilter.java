@@ -1,5 +1,6 @@
 package com.umg.roboteducativo.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -47,16 +48,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            // Extraer username del token
-            username = jwtService.extractUsername(jwt);
+            // Verificar firma y expiración y extraer los claims en un solo parseo
+            Claims claims = jwtService.validarYExtraerClaims(jwt);
+            username = claims.getSubject();
 
             // Si hay username y no está autenticado aún
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Cargar detalles del usuario
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                // Cargar detalles del usuario (desde caché en el caso común)
+                UserDetails userDetails = this.userDetailsService.loadUserByUsernameCacheado(username);
 
-                // Validar token
-                if (jwtService.validateToken(jwt, userDetails)) {
+                if (userDetails.isEnabled()) {
                     // Crear objeto de autenticación
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -1,8 +1,10 @@
 package com.umg.roboteducativo.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -10,6 +12,9 @@ import java.util.Date;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -25,6 +30,26 @@ public class JwtService {
     @Value("${jwt.expiration:86400000}")
     private Long jwtExpiration;
 
+    // Cantidad máxima de tokens ya verificados que se recuerdan
+    @Value("${jwt.cache.max:10000}")
+    private int maxTokensVerificados;
+
+    // Clave y parser se construyen una sola vez; el parser es inmutable y thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Claims de tokens ya verificados, por hash del token, vigentes hasta su expiración
+    private CacheExpirable<String, Claims> tokensVerificados;
+
+    @PostConstruct
+    void inicializar() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        tokensVerificados = new CacheExpirable<>(maxTokensVerificados);
+    }
+
     /**
      * Genera un token JWT para un usuario
      */
@@ -49,18 +74,10 @@ public class JwtService {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    /**
-     * Obtiene la clave de firma
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Extrae el username del token
      */
@@ -87,33 +104,58 @@ public class JwtService {
      * Extrae todos los claims del token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String clave = hashToken(token);
+        Claims claims = tokensVerificados.obtener(clave);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            tokensVerificados.guardar(clave, claims, claims.getExpiration().getTime());
+        }
+        return claims;
     }
 
     /**
-     * Verifica si el token ha expirado
+     * Calcula el hash SHA-256 del token para usarlo como clave de la caché
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private String hashToken(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Verifica firma y expiración y devuelve todos los claims en un solo parseo
+     * Lanza JwtException si el token es inválido o ya expiró
+     */
+    public Claims validarYExtraerClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    /**
+     * Verifica si los claims ya expiraron
+     */
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     /**
      * Valida el token
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(token, userDetails.getUsername());
     }
 
     /**
      * Valida el token solo por username
      */
     public Boolean validateToken(String token, String username) {
-        final String tokenUsername = extractUsername(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(username) && !isTokenExpired(claims));
     }
 }
\ No newline at end of file
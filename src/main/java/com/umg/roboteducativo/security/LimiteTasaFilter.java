@@ -0,0 +1,320 @@
+package com.umg.roboteducativo.security;
+
+import com.umg.roboteducativo.dto.MetricasLimiteDTO;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita por IP las solicitudes a los endpoints públicos del juego, antes del filtro JWT
+ * y de cualquier controlador o transacción. Cada (ruta, IP) tiene una cubeta de fichas
+ * con ráfaga y recarga por minuto configurables; sin fichas se responde 429.
+ * Formato de robot.limite.rutas: patrón=ráfaga:porMinuto, separados por comas.
+ * Detrás de un proxy confiable (robot.limite.proxies-confiables, IP o CIDR) la IP del cliente
+ * se toma de X-Forwarded-For; si no, todos los alumnos detrás del proxy compartirían una cubeta.
+ */
+@Component
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private static final long INTERVALO_LIMPIEZA_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final byte[] CUERPO_429 =
+        "{\"success\":false,\"message\":\"Demasiadas solicitudes, intente de nuevo en unos segundos\",\"data\":null}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final boolean habilitado;
+    private final int maxClientes;
+    private final List<Ruta> rutas = new ArrayList<>();
+    private final List<IpAddressMatcher> proxiesConfiables = new ArrayList<>();
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    private final Map<ClaveCubeta, Cubeta> cubetas = new ConcurrentHashMap<>();
+    private final AtomicLong ultimaLimpieza = new AtomicLong(System.nanoTime());
+    private final LongAdder permitidas = new LongAdder();
+    private final LongAdder expulsados = new LongAdder();
+
+    public LimiteTasaFilter(
+            @Value("${robot.limite.enabled:true}") boolean habilitado,
+            @Value("${robot.limite.max-clientes:100000}") int maxClientes,
+            @Value("${robot.limite.rutas:}") String[] rutas,
+            @Value("${robot.limite.proxies-confiables:}") String[] proxiesConfiables) {
+        this.habilitado = habilitado;
+        this.maxClientes = maxClientes;
+        for (String definicion : rutas) {
+            if (!definicion.isBlank()) {
+                this.rutas.add(Ruta.parsear(definicion.trim()));
+            }
+        }
+        for (String proxy : proxiesConfiables) {
+            if (!proxy.isBlank()) {
+                this.proxiesConfiables.add(new IpAddressMatcher(proxy.trim()));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // Los preflight CORS no llegan a la base de datos
+        return !habilitado || rutas.isEmpty() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        Ruta limite = buscarRuta(ruta);
+        if (limite == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long ahora = System.nanoTime();
+        limpiarSiCorresponde(ahora);
+        long esperaNanos = consumir(new ClaveCubeta(limite, resolverIpCliente(request)), limite, ahora);
+        if (esperaNanos > 0) {
+            limite.rechazadas.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos) + 1)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(CUERPO_429.length);
+            response.getOutputStream().write(CUERPO_429);
+            return;
+        }
+        permitidas.increment();
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Contadores de solicitudes permitidas y rechazadas
+     */
+    public MetricasLimiteDTO obtenerMetricas() {
+        Map<String, Long> porRuta = new LinkedHashMap<>();
+        long rechazadas = 0;
+        for (Ruta ruta : rutas) {
+            long total = ruta.rechazadas.sum();
+            porRuta.put(ruta.patron, total);
+            rechazadas += total;
+        }
+        return new MetricasLimiteDTO(
+            permitidas.sum(),
+            rechazadas,
+            porRuta,
+            cubetas.size(),
+            maxClientes,
+            expulsados.sum()
+        );
+    }
+
+    /**
+     * Recorre X-Forwarded-For de derecha a izquierda mientras el salto sea un proxy confiable:
+     * la primera dirección no confiable es el cliente. Lo que está más a la izquierda lo escribe
+     * el propio cliente y no se usa, así nadie elige su cubeta falsificando el encabezado.
+     */
+    private String resolverIpCliente(HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        if (!esConfiable(ip)) {
+            return ip;
+        }
+        String reenviado = request.getHeader("X-Forwarded-For");
+        if (reenviado == null) {
+            return ip;
+        }
+        String[] saltos = reenviado.split(",");
+        for (int i = saltos.length - 1; i >= 0; i--) {
+            String salto = saltos[i].trim();
+            if (!esDireccionIp(salto)) {
+                // Encabezado malformado: se usa el último salto válido
+                return ip;
+            }
+            ip = salto;
+            if (!esConfiable(ip)) {
+                return ip;
+            }
+        }
+        return ip;
+    }
+
+    private boolean esConfiable(String ip) {
+        if (proxiesConfiables.isEmpty() || !esDireccionIp(ip)) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : proxiesConfiables) {
+            if (proxy.matches(ip)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Solo literales IPv4/IPv6: un nombre de host obligaría a resolverlo por DNS
+     */
+    private static boolean esDireccionIp(String valor) {
+        if (valor.isEmpty() || valor.length() > 45) {
+            return false;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != '.' && c != ':') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Ruta buscarRuta(String ruta) {
+        for (Ruta limite : rutas) {
+            if (matcher.match(limite.patron, ruta)) {
+                return limite;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 0 si se consumió una ficha; si no, cuánto falta para la próxima
+     */
+    private long consumir(ClaveCubeta clave, Ruta limite, long ahora) {
+        Cubeta cubeta = cubetas.get(clave);
+        if (cubeta == null) {
+            if (cubetas.size() >= maxClientes) {
+                liberarEspacio(ahora);
+            }
+            cubeta = cubetas.computeIfAbsent(clave, k -> new Cubeta(ahora));
+        }
+        return cubeta.consumir(limite, ahora);
+    }
+
+    private void limpiarSiCorresponde(long ahora) {
+        long anterior = ultimaLimpieza.get();
+        if (ahora - anterior >= TimeUnit.MILLISECONDS.toNanos(INTERVALO_LIMPIEZA_MS)
+                && ultimaLimpieza.compareAndSet(anterior, ahora)) {
+            limpiar(ahora);
+        }
+    }
+
+    /**
+     * Con el mapa lleno, quita primero las cubetas ya recargadas y, si no alcanza, la décima parte
+     * más cercana a recargarse (las de uso más antiguo). Un cliente nuevo nunca recibe 429 solo
+     * porque haya muchos otros; a cambio, un expulsado recupera antes sus fichas.
+     */
+    private synchronized void liberarEspacio(long ahora) {
+        if (cubetas.size() < maxClientes) {
+            return;
+        }
+        limpiar(ahora);
+        int exceso = cubetas.size() - (maxClientes - Math.max(1, maxClientes / 10));
+        if (exceso <= 0) {
+            return;
+        }
+        long[] recargas = cubetas.values().stream().mapToLong(cubeta -> cubeta.llenaEn.get() - ahora).toArray();
+        Arrays.sort(recargas);
+        long limite = recargas[Math.min(exceso, recargas.length) - 1];
+        cubetas.values().removeIf(cubeta -> {
+            boolean antigua = cubeta.llenaEn.get() - ahora <= limite;
+            if (antigua) {
+                expulsados.increment();
+            }
+            return antigua;
+        });
+    }
+
+    /**
+     * Una cubeta llena es igual a una nueva, así que quitarla no pierde información
+     */
+    private void limpiar(long ahora) {
+        cubetas.values().removeIf(cubeta -> {
+            boolean llena = cubeta.llena(ahora);
+            if (llena) {
+                expulsados.increment();
+            }
+            return llena;
+        });
+    }
+
+    private static final class Ruta {
+
+        private final String patron;
+        private final long intervaloNanos; // Tiempo en recargar una ficha
+        private final long toleranciaNanos; // Fichas de ráfaga (menos una) expresadas en tiempo
+        private final LongAdder rechazadas = new LongAdder();
+
+        private Ruta(String patron, int rafaga, int porMinuto) {
+            this.patron = patron;
+            this.intervaloNanos = TimeUnit.MINUTES.toNanos(1) / porMinuto;
+            this.toleranciaNanos = intervaloNanos * (rafaga - 1);
+        }
+
+        static Ruta parsear(String definicion) {
+            int igual = definicion.lastIndexOf('=');
+            int dosPuntos = definicion.lastIndexOf(':');
+            if (igual <= 0 || dosPuntos < igual) {
+                throw new IllegalArgumentException("Límite de ruta inválido (patrón=ráfaga:porMinuto): " + definicion);
+            }
+            int rafaga = Integer.parseInt(definicion.substring(igual + 1, dosPuntos).trim());
+            int porMinuto = Integer.parseInt(definicion.substring(dosPuntos + 1).trim());
+            if (rafaga < 1 || porMinuto < 1) {
+                throw new IllegalArgumentException("La ráfaga y la recarga deben ser al menos 1: " + definicion);
+            }
+            return new Ruta(definicion.substring(0, igual).trim(), rafaga, porMinuto);
+        }
+    }
+
+    private record ClaveCubeta(Ruta ruta, String ip) {
+    }
+
+    /**
+     * Cubeta de fichas guardada como un solo instante (algoritmo GCRA): el momento en que
+     * volvería a estar llena. Consumir una ficha es un compareAndSet, sin locks.
+     */
+    private static final class Cubeta {
+
+        private final AtomicLong llenaEn;
+
+        Cubeta(long ahora) {
+            this.llenaEn = new AtomicLong(ahora);
+        }
+
+        long consumir(Ruta ruta, long ahora) {
+            while (true) {
+                long actual = llenaEn.get();
+                long base = actual - ahora > 0 ? actual : ahora;
+                long exceso = base - ahora - ruta.toleranciaNanos;
+                if (exceso > 0) {
+                    return exceso;
+                }
+                if (llenaEn.compareAndSet(actual, base + ruta.intervaloNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean llena(long ahora) {
+            return llenaEn.get() - ahora <= 0;
+        }
+    }
+}
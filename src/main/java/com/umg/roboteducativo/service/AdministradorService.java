@@ -4,6 +4,7 @@ import com.umg.roboteducativo.dto.AdministradorDTO;
 import com.umg.roboteducativo.dto.CrearAdministradorDTO;
 import com.umg.roboteducativo.model.Administrador;
 import com.umg.roboteducativo.repository.AdministradorRepository;
+import com.umg.roboteducativo.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +21,7 @@ public class AdministradorService {
 
     private final AdministradorRepository administradorRepository;
     private final BitacoraService bitacoraService;
+    private final CustomUserDetailsService userDetailsService;
     
     // Importar al inicio del archivo:
     // import org.springframework.security.crypto.password.PasswordEncoder;
@@ -121,6 +123,10 @@ public class AdministradorService {
             throw new RuntimeException("Ya existe un administrador con el email: " + adminDTO.getEmail());
         }
 
+        // El usuario cacheado por el filtro JWT queda obsoleto (username o estado activo)
+        userDetailsService.invalidarCache(administrador.getUsername());
+        userDetailsService.invalidarCache(adminDTO.getUsername());
+
         administrador.setUsername(adminDTO.getUsername());
         administrador.setNombre(adminDTO.getNombre());
         administrador.setEmail(adminDTO.getEmail());
@@ -152,6 +158,7 @@ public class AdministradorService {
                 .orElseThrow(() -> new RuntimeException("Administrador no encontrado con ID: " + id));
         administrador.setPassword(nuevaPassword);
         administradorRepository.save(administrador);
+        userDetailsService.invalidarCache(administrador.getUsername());
 
         // Registrar en bitácora
         if (usernameModificador != null) {
@@ -174,6 +181,7 @@ public class AdministradorService {
 
         administrador.setActivo(false);
         administradorRepository.save(administrador);
+        userDetailsService.invalidarCache(administrador.getUsername());
 
         // Registrar en bitácora
         if (usernameModificador != null) {
@@ -60,8 +60,8 @@ public class AuthService {
                     admin.getEmail());
 
         } catch (AuthenticationException e) {
-            // Registrar intento fallido
-            bitacoraService.registrarAccion(
+            // Registrar intento fallido (se conserva aunque la transacción haga rollback)
+            bitacoraService.registrarAccionInmediata(
                     request.getUsername(),
                     "LOGIN_FALLIDO",
                     "Intento de login fallido: " + e.getMessage(),
@@ -0,0 +1,166 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.MetricasBitacoraDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritor asíncrono de la bitácora.
+ * Las acciones se encolan en un buffer circular acotado y un único hilo consumidor
+ * las inserta en lotes JDBC, fuera de la transacción (y de la latencia) del llamador.
+ */
+@Component
+@Slf4j
+public class BitacoraAppender {
+
+    // El administrador se resuelve en la misma sentencia, sin un SELECT previo
+    private static final String INSERT_BITACORA =
+        "INSERT INTO bitacora (administrador_id, accion, descripcion, fecha_hora, ip_address) " +
+        "VALUES ((SELECT a.id FROM administrador a WHERE a.username = ?), ?, ?, ?, ?)";
+
+    /**
+     * Qué hacer cuando el buffer está lleno
+     */
+    public enum PoliticaDesborde {
+        DESCARTAR,
+        BLOQUEAR
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BufferCircular<EntradaBitacora> buffer;
+    private final int tamanioLote;
+    private final long esperaNanos;
+    private final PoliticaDesborde politica;
+
+    private final LongAdder encoladas = new LongAdder();
+    private final LongAdder escritas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder fallidas = new LongAdder();
+
+    private volatile boolean activo = true;
+    private Thread consumidor;
+
+    public BitacoraAppender(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${bitacora.async.capacidad:8192}") int capacidad,
+            @Value("${bitacora.async.lote:200}") int tamanioLote,
+            @Value("${bitacora.async.espera-ms:50}") long esperaMs,
+            @Value("${bitacora.async.politica:DESCARTAR}") PoliticaDesborde politica) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.buffer = new BufferCircular<>(capacidad);
+        this.tamanioLote = tamanioLote;
+        this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMs);
+        this.politica = politica;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        consumidor = new Thread(this::consumir, "bitacora-appender");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    /**
+     * Detiene el consumidor después de escribir lo que quede en el buffer
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(consumidor);
+        consumidor.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Encola una acción para su escritura asíncrona
+     */
+    public void registrar(String username, String accion, String descripcion, String ipAddress) {
+        EntradaBitacora entrada = new EntradaBitacora(username, accion, descripcion, ipAddress, LocalDateTime.now());
+
+        while (!buffer.ofrecer(entrada)) {
+            if (politica == PoliticaDesborde.DESCARTAR || !activo) {
+                descartadas.increment();
+                return;
+            }
+            // BLOQUEAR: despertar al consumidor y esperar a que libere espacio
+            LockSupport.unpark(consumidor);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        encoladas.increment();
+    }
+
+    /**
+     * Contadores del escritor asíncrono
+     */
+    public MetricasBitacoraDTO obtenerMetricas() {
+        return new MetricasBitacoraDTO(
+            encoladas.sum(),
+            escritas.sum(),
+            descartadas.sum(),
+            fallidas.sum(),
+            buffer.tamanio(),
+            buffer.capacidad(),
+            politica.name()
+        );
+    }
+
+    private void consumir() {
+        List<EntradaBitacora> lote = new ArrayList<>(tamanioLote);
+        while (activo || buffer.tamanio() > 0) {
+            EntradaBitacora entrada;
+            while (lote.size() < tamanioLote && (entrada = buffer.sacar()) != null) {
+                lote.add(entrada);
+            }
+            if (lote.isEmpty()) {
+                LockSupport.parkNanos(esperaNanos);
+                continue;
+            }
+            escribir(lote);
+            lote.clear();
+        }
+    }
+
+    private void escribir(List<EntradaBitacora> lote) {
+        List<Object[]> filas = new ArrayList<>(lote.size());
+        for (EntradaBitacora entrada : lote) {
+            filas.add(new Object[] {
+                entrada.username(),
+                entrada.accion(),
+                entrada.descripcion(),
+                Timestamp.valueOf(entrada.fechaHora()),
+                entrada.ipAddress()
+            });
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_BITACORA, filas));
+            escritas.add(lote.size());
+        } catch (RuntimeException e) {
+            fallidas.add(lote.size());
+            log.error("Error al escribir {} entradas de bitácora: {}", lote.size(), e.getMessage());
+        }
+    }
+
+    private record EntradaBitacora(
+        String username,
+        String accion,
+        String descripcion,
+        String ipAddress,
+        LocalDateTime fechaHora
+    ) {
+    }
+}
@@ -1,49 +1,76 @@
 package com.umg.roboteducativo.service;
 
 import com.umg.roboteducativo.dto.BitacoraDTO;
-import com.umg.roboteducativo.model.Administrador;
-import com.umg.roboteducativo.model.Bitacora;
-import com.umg.roboteducativo.repository.AdministradorRepository;
+import com.umg.roboteducativo.dto.PaginaDTO;
 import com.umg.roboteducativo.repository.BitacoraRepository;
+import com.umg.roboteducativo.service.EscritorExportacion.FormatoExportacion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BitacoraService {
 
     private final BitacoraRepository bitacoraRepository;
-    private final AdministradorRepository administradorRepository;
+    private final BitacoraAppender bitacoraAppender;
+    private final EscritorExportacion escritorExportacion;
+
+    // Tamaño máximo de página en los listados paginados por cursor
+    private static final int TAMANIO_MAXIMO_PAGINA = 200;
+
+    // Cursor inicial: posterior a cualquier entrada existente
+    private static final LocalDateTime FECHA_INICIAL = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final List<String> COLUMNAS_EXPORTACION = List.of(
+        "id", "administrador", "username", "accion", "descripcion", "fechaHora", "ipAddress"
+    );
 
     /**
      * Registra una acción en la bitácora
+     * Dentro de una transacción la entrada se encola solo cuando esta confirma,
+     * así un cambio que hace rollback no queda registrado como hecho
      */
-    @Transactional
     public void registrarAccion(String username, String accion, String descripcion, String ipAddress) {
-        Administrador admin = administradorRepository.findByUsername(username).orElse(null);
-
-        Bitacora bitacora = new Bitacora();
-        bitacora.setAdministrador(admin);
-        bitacora.setAccion(accion);
-        bitacora.setDescripcion(descripcion);
-        bitacora.setIpAddress(ipAddress);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bitacoraAppender.registrar(username, accion, descripcion, ipAddress);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bitacoraAppender.registrar(username, accion, descripcion, ipAddress);
+            }
+        });
+    }
 
-        bitacoraRepository.save(bitacora);
+    /**
+     * Registra una acción en la bitácora sin esperar a la transacción del llamador;
+     * la entrada se conserva aunque este haga rollback (ej. LOGIN_FALLIDO)
+     */
+    public void registrarAccionInmediata(String username, String accion, String descripcion, String ipAddress) {
+        bitacoraAppender.registrar(username, accion, descripcion, ipAddress);
     }
 
     /**
-     * Obtiene toda la bitácora ordenada por fecha descendente
+     * Obtiene una página de toda la bitácora ordenada por fecha descendente
      */
     @Transactional(readOnly = true)
-    public List<BitacoraDTO> obtenerTodaLaBitacora() {
-        return bitacoraRepository.findAllByOrderByFechaHoraDesc().stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<BitacoraDTO> obtenerTodaLaBitacora(String cursor, int tamanio) {
+        return paginar(cursor, tamanio, bitacoraRepository::findPagina);
     }
 
     /**
@@ -51,49 +78,44 @@ public class BitacoraService {
      */
     @Transactional(readOnly = true)
     public List<BitacoraDTO> obtenerUltimas(int limite) {
-        return bitacoraRepository.findUltimas(limite).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return bitacoraRepository.findUltimas(PageRequest.of(0, limite));
     }
 
     /**
-     * Obtiene la bitácora de un administrador específico
+     * Obtiene una página de la bitácora de un administrador específico
      */
     @Transactional(readOnly = true)
-    public List<BitacoraDTO> obtenerPorAdministrador(Integer administradorId) {
-        return bitacoraRepository.findByAdministradorId(administradorId).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<BitacoraDTO> obtenerPorAdministrador(Integer administradorId, String cursor, int tamanio) {
+        return paginar(cursor, tamanio, (fecha, id, pagina) ->
+                bitacoraRepository.findPaginaPorAdministrador(administradorId, fecha, id, pagina));
     }
 
     /**
-     * Obtiene la bitácora por tipo de acción
+     * Obtiene una página de la bitácora por tipo de acción
      */
     @Transactional(readOnly = true)
-    public List<BitacoraDTO> obtenerPorAccion(String accion) {
-        return bitacoraRepository.findByAccionOrderByFechaHoraDesc(accion).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<BitacoraDTO> obtenerPorAccion(String accion, String cursor, int tamanio) {
+        return paginar(cursor, tamanio, (fecha, id, pagina) ->
+                bitacoraRepository.findPaginaPorAccion(accion, fecha, id, pagina));
     }
 
     /**
-     * Obtiene la bitácora en un rango de fechas
+     * Obtiene una página de la bitácora en un rango de fechas
      */
     @Transactional(readOnly = true)
-    public List<BitacoraDTO> obtenerPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
-        return bitacoraRepository.findByFechaHoraBetween(fechaInicio, fechaFin).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<BitacoraDTO> obtenerPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                        String cursor, int tamanio) {
+        return paginar(cursor, tamanio, (fecha, id, pagina) ->
+                bitacoraRepository.findPaginaPorRango(fechaInicio, fechaFin, fecha, id, pagina));
     }
 
     /**
-     * Busca en la bitácora por descripción
+     * Busca en la bitácora por descripción, paginado
      */
     @Transactional(readOnly = true)
-    public List<BitacoraDTO> buscarPorDescripcion(String texto) {
-        return bitacoraRepository.buscarPorDescripcion(texto).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<BitacoraDTO> buscarPorDescripcion(String texto, String cursor, int tamanio) {
+        return paginar(cursor, tamanio, (fecha, id, pagina) ->
+                bitacoraRepository.buscarPaginaPorDescripcion(texto, fecha, id, pagina));
     }
 
     /**
@@ -105,21 +127,70 @@ public class BitacoraService {
     }
 
     /**
-     * Convierte una entidad Bitacora a BitacoraDTO
+     * Exporta la bitácora filtrada directamente al flujo de salida, fila por fila
+     * @return cantidad de entradas exportadas
      */
-    private BitacoraDTO convertirADTO(Bitacora bitacora) {
-        BitacoraDTO dto = new BitacoraDTO();
-        dto.setId(bitacora.getId());
-        dto.setAccion(bitacora.getAccion());
-        dto.setDescripcion(bitacora.getDescripcion());
-        dto.setFechaHora(bitacora.getFechaHora());
-        dto.setIpAddress(bitacora.getIpAddress());
-        
-        if (bitacora.getAdministrador() != null) {
-            dto.setAdministrador(bitacora.getAdministrador().getNombre());
-            dto.setUsername(bitacora.getAdministrador().getUsername());
+    @Transactional(readOnly = true)
+    public long exportar(Integer administradorId, String accion, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                         String texto, FormatoExportacion formato, boolean gzip, OutputStream salida) throws IOException {
+        try (Stream<BitacoraDTO> filas = bitacoraRepository.streamParaExportar(
+                administradorId, accion, fechaInicio, fechaFin, texto)) {
+            return escritorExportacion.escribir(filas, formato, gzip, salida, COLUMNAS_EXPORTACION, fila -> new Object[] {
+                fila.getId(),
+                fila.getAdministrador(),
+                fila.getUsername(),
+                fila.getAccion(),
+                fila.getDescripcion(),
+                fila.getFechaHora(),
+                fila.getIpAddress()
+            });
         }
-        
-        return dto;
     }
-}
\ No newline at end of file
+
+    /**
+     * Ejecuta una consulta keyset: pide una fila de más para saber si hay otra página
+     * y arma el cursor a partir de la última fila devuelta
+     */
+    private PaginaDTO<BitacoraDTO> paginar(String cursor, int tamanio, ConsultaKeyset consulta) {
+        int tamanioPagina = Math.min(Math.max(tamanio, 1), TAMANIO_MAXIMO_PAGINA);
+
+        LocalDateTime fechaCursor = FECHA_INICIAL;
+        Integer idCursor = Integer.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separador = valor.indexOf('|');
+                fechaCursor = LocalDateTime.parse(valor.substring(0, separador));
+                idCursor = Integer.valueOf(valor.substring(separador + 1));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+
+        List<BitacoraDTO> filas = consulta.ejecutar(fechaCursor, idCursor, PageRequest.of(0, tamanioPagina + 1));
+        boolean hayMas = filas.size() > tamanioPagina;
+        if (hayMas) {
+            filas = filas.subList(0, tamanioPagina);
+        }
+
+        String siguienteCursor = null;
+        if (hayMas) {
+            BitacoraDTO ultima = filas.get(filas.size() - 1);
+            siguienteCursor = codificarCursor(ultima.getFechaHora(), ultima.getId());
+        }
+        return new PaginaDTO<>(filas, siguienteCursor, hayMas);
+    }
+
+    private String codificarCursor(LocalDateTime fechaHora, Integer id) {
+        String valor = fechaHora + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Consulta paginada por cursor (fechaHora, id)
+     */
+    @FunctionalInterface
+    private interface ConsultaKeyset {
+        List<BitacoraDTO> ejecutar(LocalDateTime fechaCursor, Integer idCursor, Pageable pagina);
+    }
+}
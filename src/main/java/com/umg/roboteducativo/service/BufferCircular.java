@@ -0,0 +1,82 @@
+package com.umg.roboteducativo.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular acotado y sin locks para muchos productores y un único consumidor.
+ * Cada celda lleva un número de secuencia que indica si está libre para escribir
+ * o lista para leer (algoritmo de cola acotada de D. Vyukov).
+ */
+public class BufferCircular<T> {
+
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong posicionEscritura = new AtomicLong();
+    private final AtomicLong posicionLectura = new AtomicLong();
+
+    /**
+     * @param capacidad cantidad de celdas; se redondea a la siguiente potencia de 2
+     */
+    public BufferCircular(int capacidad) {
+        int tamanio = Integer.highestOneBit(Math.max(2, capacidad) - 1) << 1;
+        this.mascara = tamanio - 1;
+        this.elementos = new AtomicReferenceArray<>(tamanio);
+        this.secuencias = new AtomicLongArray(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Intenta encolar un elemento
+     * @return false si el buffer está lleno
+     */
+    public boolean ofrecer(T elemento) {
+        long posicion = posicionEscritura.get();
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (posicionEscritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.set(indice, elemento);
+                    secuencias.set(indice, posicion + 1);
+                    return true;
+                }
+            } else if (diferencia < 0) {
+                return false;
+            }
+            posicion = posicionEscritura.get();
+        }
+    }
+
+    /**
+     * Saca el siguiente elemento. Solo debe llamarlo el hilo consumidor.
+     * @return el elemento, o null si el buffer está vacío
+     */
+    public T sacar() {
+        long posicion = posicionLectura.get();
+        int indice = (int) (posicion & mascara);
+        if (secuencias.get(indice) - (posicion + 1) < 0) {
+            return null;
+        }
+        T elemento = elementos.get(indice);
+        elementos.set(indice, null);
+        secuencias.set(indice, posicion + mascara + 1);
+        posicionLectura.set(posicion + 1);
+        return elemento;
+    }
+
+    /**
+     * Cantidad aproximada de elementos pendientes
+     */
+    public int tamanio() {
+        return (int) Math.max(0, posicionEscritura.get() - posicionLectura.get());
+    }
+
+    public int capacidad() {
+        return mascara + 1;
+    }
+}
@@ -0,0 +1,139 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.MetricasVeredictosDTO;
+import com.umg.roboteducativo.engine.ResultadoEjecucion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caché acotada de veredictos por (pista, fechaModificacion, programa expandido).
+ * La mayoría de los estudiantes envía los mismos pocos programas para una pista,
+ * así que el veredicto se reutiliza sin volver a ejecutar el motor.
+ */
+@Component
+public class CacheVeredictos {
+
+    private final Map<ClaveVeredicto, ResultadoEjecucion> veredictos = new ConcurrentHashMap<>();
+    private final int capacidadMaxima;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder ausencias = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    public CacheVeredictos(@Value("${robot.veredictos.cache.max:50000}") int capacidadMaxima) {
+        this.capacidadMaxima = capacidadMaxima;
+    }
+
+    /**
+     * Devuelve el veredicto guardado o lo calcula y lo guarda
+     * @param pistaId ID de la pista
+     * @param fechaModificacion versión de la pista con la que se calcula el veredicto
+     * @param programa instrucciones ya expandidas (forma canónica del programa)
+     * @param calculo ejecución del motor, solo si no hay veredicto guardado
+     */
+    public ResultadoEjecucion obtenerOCalcular(Integer pistaId, LocalDateTime fechaModificacion, byte[] programa,
+                                               Supplier<ResultadoEjecucion> calculo) {
+        ClaveVeredicto clave = new ClaveVeredicto(pistaId, fechaModificacion, programa);
+        ResultadoEjecucion veredicto = veredictos.get(clave);
+        if (veredicto != null) {
+            aciertos.increment();
+            return veredicto;
+        }
+
+        ausencias.increment();
+        veredicto = calculo.get();
+        if (veredictos.size() >= capacidadMaxima) {
+            descartarAlgunas();
+        }
+        veredictos.put(clave, veredicto);
+        return veredicto;
+    }
+
+    /**
+     * Descarta los veredictos de una pista (su camino cambió o ya no existe)
+     */
+    public void invalidarPista(Integer pistaId) {
+        invalidaciones.increment();
+        veredictos.keySet().removeIf(clave -> clave.pistaId().equals(pistaId));
+    }
+
+    /**
+     * Contadores de aciertos y ausencias de la caché
+     */
+    public MetricasVeredictosDTO obtenerMetricas() {
+        long totalAciertos = aciertos.sum();
+        long totalAusencias = ausencias.sum();
+        long consultas = totalAciertos + totalAusencias;
+        double tasa = consultas == 0 ? 0.0 : Math.round(totalAciertos * 10000.0 / consultas) / 100.0;
+        return new MetricasVeredictosDTO(
+            totalAciertos,
+            totalAusencias,
+            tasa,
+            invalidaciones.sum(),
+            veredictos.size(),
+            capacidadMaxima
+        );
+    }
+
+    /**
+     * Libera espacio descartando entradas arbitrarias (igual que CacheExpirable al llenarse)
+     */
+    private void descartarAlgunas() {
+        int objetivo = capacidadMaxima - Math.max(1, capacidadMaxima / 10);
+        Iterator<ClaveVeredicto> claves = veredictos.keySet().iterator();
+        while (veredictos.size() > objetivo && claves.hasNext()) {
+            claves.next();
+            claves.remove();
+        }
+    }
+
+    /**
+     * Clave con el programa completo: la igualdad compara bytes, el hash se calcula una vez
+     */
+    private static final class ClaveVeredicto {
+
+        private final Integer pistaId;
+        private final LocalDateTime fechaModificacion;
+        private final byte[] programa;
+        private final int hash;
+
+        ClaveVeredicto(Integer pistaId, LocalDateTime fechaModificacion, byte[] programa) {
+            this.pistaId = pistaId;
+            this.fechaModificacion = fechaModificacion;
+            this.programa = programa;
+            this.hash = 31 * Objects.hash(pistaId, fechaModificacion) + Arrays.hashCode(programa);
+        }
+
+        Integer pistaId() {
+            return pistaId;
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (this == otro) {
+                return true;
+            }
+            if (!(otro instanceof ClaveVeredicto clave)) {
+                return false;
+            }
+            return hash == clave.hash
+                && pistaId.equals(clave.pistaId)
+                && Objects.equals(fechaModificacion, clave.fechaModificacion)
+                && Arrays.equals(programa, clave.programa);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
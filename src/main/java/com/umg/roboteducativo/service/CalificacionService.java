@@ -0,0 +1,226 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
+import com.umg.roboteducativo.dto.EntregaDTO;
+import com.umg.roboteducativo.dto.ResultadoEntregaDTO;
+import com.umg.roboteducativo.engine.ResultadoEjecucion;
+import com.umg.roboteducativo.service.MotorRobotService.PistaCompilada;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calificación masiva de programas (ej. un examen de toda la clase).
+ * Las entregas se evalúan en paralelo en un pool acotado; cada camino se parsea
+ * una sola vez por lote y se comparte entre todas sus entregas. Los resultados
+ * se escriben como NDJSON a medida que terminan y al final se suman a la
+ * tabla estadistica en una sola escritura por lotes.
+ */
+@Service
+@Slf4j
+public class CalificacionService {
+
+    private static final String MOTIVO_ERROR = "ERROR";
+
+    private final MotorRobotService motorRobotService;
+    private final EstadisticaService estadisticaService;
+    private final ObjectWriter escritorJson;
+    private final int maxEntregas;
+    private final int ventana;
+    private final ThreadPoolExecutor executor;
+
+    public CalificacionService(
+            MotorRobotService motorRobotService,
+            EstadisticaService estadisticaService,
+            ObjectMapper objectMapper,
+            @Value("${robot.calificacion.hilos:0}") int hilos,
+            @Value("${robot.calificacion.max-entregas:10000}") int maxEntregas) {
+        this.motorRobotService = motorRobotService;
+        this.estadisticaService = estadisticaService;
+        this.escritorJson = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        this.maxEntregas = maxEntregas;
+
+        int tamanioPool = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        // Entregas en vuelo por lote: mantiene ocupado el pool sin encolar todo el examen
+        this.ventana = tamanioPool * 4;
+
+        AtomicInteger contador = new AtomicInteger();
+        // Si varios lotes llenan la cola, el hilo de la petición ejecuta la tarea (contrapresión)
+        this.executor = new ThreadPoolExecutor(
+            tamanioPool, tamanioPool, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(ventana),
+            runnable -> {
+                Thread hilo = new Thread(runnable, "calificacion-" + contador.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdown();
+    }
+
+    /**
+     * Valida el tamaño del lote antes de empezar a responder
+     * @throws IllegalArgumentException si el lote excede el máximo configurado
+     */
+    public void validarLote(List<EntregaDTO> entregas) {
+        if (entregas.size() > maxEntregas) {
+            throw new IllegalArgumentException("El lote excede " + maxEntregas + " entregas");
+        }
+    }
+
+    /**
+     * Califica todas las entregas y escribe cada resultado en la salida en cuanto está listo
+     * @param entregas programas a calificar
+     * @param registrarEstadisticas si los éxitos y fallos se suman a la tabla estadistica
+     * @param salida flujo de la respuesta HTTP (NDJSON)
+     */
+    public void calificar(List<EntregaDTO> entregas, boolean registrarEstadisticas, OutputStream salida)
+            throws IOException {
+        Map<Integer, CaminoResuelto> caminos = resolverCaminos(entregas);
+        CompletionService<ResultadoEntregaDTO> completadas = new ExecutorCompletionService<>(executor);
+        Map<Integer, int[]> totalesPorPista = new HashMap<>();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+
+        // Tareas enviadas cuyo resultado aún no se leyó; se cancelan si el lote termina antes
+        Set<Future<ResultadoEntregaDTO>> pendientes = new HashSet<>();
+        int enviadas = 0;
+        int recibidas = 0;
+        try {
+            while (recibidas < entregas.size()) {
+                while (enviadas < entregas.size() && enviadas - recibidas < ventana) {
+                    int indice = enviadas++;
+                    pendientes.add(completadas.submit(() -> calificarEntrega(indice, entregas.get(indice), caminos)));
+                }
+
+                Future<ResultadoEntregaDTO> lista = completadas.poll();
+                if (lista == null) {
+                    // Nada más listo por ahora: enviar al cliente lo que ya hay
+                    writer.flush();
+                    lista = completadas.take();
+                }
+                pendientes.remove(lista);
+                ResultadoEntregaDTO resultado = lista.get();
+                recibidas++;
+
+                acumular(totalesPorPista, resultado);
+                escritorJson.writeValue(writer, resultado);
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Calificación interrumpida");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error inesperado al calificar", e.getCause());
+        } finally {
+            // Tras un error o una desconexión, lo que sigue en el pool ya no tiene a quién responder
+            pendientes.forEach(pendiente -> pendiente.cancel(true));
+            // Lo ya calificado se registra aunque el cliente se desconecte a mitad del lote
+            if (registrarEstadisticas) {
+                estadisticaService.registrarDeltas(convertirADeltas(totalesPorPista));
+            }
+            log.info("Lote calificado: {} de {} entregas", recibidas, entregas.size());
+        }
+    }
+
+    /**
+     * Parsea una vez el camino de cada pista del lote; guarda el mensaje de error si no se puede.
+     * El mapa se llena antes de enviar tareas al pool y después solo se lee.
+     */
+    private Map<Integer, CaminoResuelto> resolverCaminos(List<EntregaDTO> entregas) {
+        Map<Integer, CaminoResuelto> caminos = new HashMap<>();
+        for (EntregaDTO entrega : entregas) {
+            caminos.computeIfAbsent(entrega.getPistaId(), pistaId -> {
+                try {
+                    return new CaminoResuelto(motorRobotService.obtenerCamino(pistaId), null);
+                } catch (RuntimeException e) {
+                    return new CaminoResuelto(null, e.getMessage());
+                }
+            });
+        }
+        return caminos;
+    }
+
+    private ResultadoEntregaDTO calificarEntrega(int indice, EntregaDTO entrega, Map<Integer, CaminoResuelto> caminos) {
+        CaminoResuelto camino = caminos.get(entrega.getPistaId());
+        if (camino.pista() == null) {
+            return error(indice, entrega, camino.error());
+        }
+        try {
+            ResultadoEjecucion resultado = motorRobotService.ejecutar(camino.pista(), entrega.getMovimientos());
+            return new ResultadoEntregaDTO(
+                indice,
+                entrega.getEstudiante(),
+                entrega.getPistaId(),
+                resultado.exito(),
+                resultado.motivo().name(),
+                resultado.motivo().getMensaje(),
+                resultado.pasos()
+            );
+        } catch (IllegalArgumentException e) {
+            return error(indice, entrega, e.getMessage());
+        }
+    }
+
+    private ResultadoEntregaDTO error(int indice, EntregaDTO entrega, String mensaje) {
+        return new ResultadoEntregaDTO(
+            indice, entrega.getEstudiante(), entrega.getPistaId(), false, MOTIVO_ERROR, mensaje, 0
+        );
+    }
+
+    /**
+     * Cuenta éxitos y fallos por pista; las entregas con ERROR no cuentan como intento
+     */
+    private void acumular(Map<Integer, int[]> totalesPorPista, ResultadoEntregaDTO resultado) {
+        if (MOTIVO_ERROR.equals(resultado.getMotivo())) {
+            return;
+        }
+        int[] totales = totalesPorPista.computeIfAbsent(resultado.getPistaId(), pistaId -> new int[2]);
+        totales[resultado.getExito() ? 0 : 1]++;
+    }
+
+    private List<DeltaEstadisticaDTO> convertirADeltas(Map<Integer, int[]> totalesPorPista) {
+        LocalDate hoy = LocalDate.now();
+        List<DeltaEstadisticaDTO> deltas = new ArrayList<>(totalesPorPista.size());
+        totalesPorPista.forEach((pistaId, totales) ->
+            deltas.add(new DeltaEstadisticaDTO(pistaId, hoy, 0, totales[0], totales[1])));
+        return deltas;
+    }
+
+    private record CaminoResuelto(PistaCompilada pista, String error) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe filas de una exportación en NDJSON o CSV a medida que se leen del repositorio.
+ * No acumula filas: cada una se serializa al buffer de salida y se descarta.
+ */
+@Component
+public class EscritorExportacion {
+
+    private static final int TAMANIO_BUFFER = 16 * 1024;
+
+    /**
+     * Formatos de exportación soportados
+     */
+    public enum FormatoExportacion {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String tipoContenido;
+        private final String extension;
+
+        FormatoExportacion(String tipoContenido, String extension) {
+            this.tipoContenido = tipoContenido;
+            this.extension = extension;
+        }
+
+        /**
+         * Interpreta el parámetro "formato" sin distinguir mayúsculas
+         */
+        public static FormatoExportacion desde(String formato) {
+            try {
+                return valueOf(formato.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato no soportado: " + formato + " (use ndjson o csv)");
+            }
+        }
+    }
+
+    // Sin cerrar ni vaciar el Writer en cada fila; el vaciado lo decide el buffer
+    private final ObjectWriter escritorJson;
+
+    public EscritorExportacion(ObjectMapper objectMapper) {
+        this.escritorJson = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    /**
+     * Cabeceras de descarga: tipo de contenido y nombre del archivo según formato y compresión
+     */
+    public static HttpHeaders cabeceras(String nombreBase, FormatoExportacion formato, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        String nombreArchivo = nombreBase + "." + formato.extension;
+        if (gzip) {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+            nombreArchivo += ".gz";
+        } else {
+            headers.setContentType(MediaType.parseMediaType(formato.tipoContenido + ";charset=UTF-8"));
+        }
+        headers.setContentDisposition(ContentDisposition.attachment().filename(nombreArchivo).build());
+        return headers;
+    }
+
+    /**
+     * Escribe todas las filas del stream en la salida
+     * @param filas filas leídas del repositorio (el llamador cierra el stream)
+     * @param formato NDJSON o CSV
+     * @param gzip si se comprime la salida
+     * @param salida flujo de la respuesta HTTP
+     * @param encabezados nombres de columna para CSV
+     * @param columnas valores de cada fila para CSV, en el orden de los encabezados
+     * @return cantidad de filas escritas
+     */
+    public <T> long escribir(Stream<T> filas, FormatoExportacion formato, boolean gzip, OutputStream salida,
+                             List<String> encabezados, Function<T, Object[]> columnas) throws IOException {
+        OutputStream destino = gzip ? new GZIPOutputStream(salida, TAMANIO_BUFFER) : salida;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+
+        long total = 0;
+        if (formato == FormatoExportacion.CSV) {
+            escribirLineaCsv(writer, encabezados.toArray());
+        }
+
+        Iterator<T> iterador = filas.iterator();
+        while (iterador.hasNext()) {
+            T fila = iterador.next();
+            if (formato == FormatoExportacion.CSV) {
+                escribirLineaCsv(writer, columnas.apply(fila));
+            } else {
+                escritorJson.writeValue(writer, fila);
+                writer.write('\n');
+            }
+            total++;
+        }
+
+        writer.flush();
+        if (gzip) {
+            ((GZIPOutputStream) destino).finish();
+        }
+        return total;
+    }
+
+    private void escribirLineaCsv(Writer writer, Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (valores[i] != null) {
+                writer.write(escaparCsv(valores[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Entrecomilla el valor si contiene separadores, comillas o saltos de línea (RFC 4180)
+     */
+    private String escaparCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
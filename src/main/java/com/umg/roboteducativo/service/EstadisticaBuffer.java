@@ -0,0 +1,298 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
+import com.umg.roboteducativo.repository.EstadisticaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Buffer write-behind (opcional) para los contadores de estadística.
+ * Los eventos se acumulan en contadores LongAdder por (pista, fecha) y se vuelcan
+ * a la tabla estadistica en un único lote JDBC cada N ms o cada M eventos.
+ * Si el lote falla se aplica clave por clave, para que un delta inválido (ej. de una pista
+ * eliminada) no bloquee a los demás.
+ */
+@Component
+@Slf4j
+public class EstadisticaBuffer {
+
+    private final EstadisticaRepository estadisticaRepository;
+    private final boolean habilitado;
+    private final long intervaloFlushMs;
+    private final long maxEventosPendientes;
+    private final int maxReintentos;
+
+    private final Map<ClaveEstadistica, Contadores> pendientes = new ConcurrentHashMap<>();
+    private final AtomicLong eventosPendientes = new AtomicLong();
+    private final AtomicBoolean flushProgramado = new AtomicBoolean();
+
+    // El volcado toma el lock de escritura; las lecturas del dashboard el de lectura,
+    // así nunca ven un delta descontado del buffer pero aún no confirmado en la base
+    private final ReentrantReadWriteLock lockVolcado = new ReentrantReadWriteLock();
+
+    // Volcados individuales fallidos por clave; solo se usa dentro del lock de escritura
+    private final Map<ClaveEstadistica, Integer> reintentos = new HashMap<>();
+    private final LongAdder descartados = new LongAdder();
+    private int volcadosIndividuales;
+
+    private ScheduledExecutorService executor;
+
+    public EstadisticaBuffer(
+            EstadisticaRepository estadisticaRepository,
+            @Value("${estadisticas.write-behind.enabled:false}") boolean habilitado,
+            @Value("${estadisticas.write-behind.flush-ms:1000}") long intervaloFlushMs,
+            @Value("${estadisticas.write-behind.max-eventos:500}") long maxEventosPendientes,
+            @Value("${estadisticas.write-behind.max-reintentos:10}") int maxReintentos) {
+        this.estadisticaRepository = estadisticaRepository;
+        this.habilitado = habilitado;
+        this.intervaloFlushMs = intervaloFlushMs;
+        this.maxEventosPendientes = maxEventosPendientes;
+        this.maxReintentos = maxReintentos;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread hilo = new Thread(runnable, "estadistica-write-behind");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        executor.scheduleWithFixedDelay(this::volcar, intervaloFlushMs, intervaloFlushMs, TimeUnit.MILLISECONDS);
+        log.info("Write-behind de estadísticas activo: cada {} ms o {} eventos", intervaloFlushMs, maxEventosPendientes);
+    }
+
+    /**
+     * Vacía los deltas pendientes antes de apagar la aplicación
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        volcar();
+    }
+
+    /**
+     * Indica si el modo write-behind está activo
+     */
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Acumula un evento en memoria; no toca la base de datos
+     */
+    public void registrar(Integer pistaId, int visitas, int exitos, int fallos) {
+        Contadores contadores = pendientes.computeIfAbsent(
+            new ClaveEstadistica(pistaId, LocalDate.now()), clave -> new Contadores());
+        contadores.sumar(visitas, exitos, fallos);
+
+        long total = eventosPendientes.addAndGet(visitas + exitos + fallos);
+        if (total >= maxEventosPendientes && flushProgramado.compareAndSet(false, true)) {
+            executor.execute(this::volcar);
+        }
+    }
+
+    /**
+     * Ejecuta una lectura de estadísticas sin que un volcado quede a medias durante ella
+     */
+    public <T> T leerConsistente(Supplier<T> lectura) {
+        if (!habilitado) {
+            return lectura.get();
+        }
+        lockVolcado.readLock().lock();
+        try {
+            return lectura.get();
+        } finally {
+            lockVolcado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los deltas aún no volcados a la base de datos
+     */
+    public List<DeltaEstadisticaDTO> obtenerPendientes() {
+        List<DeltaEstadisticaDTO> deltas = new ArrayList<>();
+        if (!habilitado) {
+            return deltas;
+        }
+        pendientes.forEach((clave, contadores) -> {
+            DeltaEstadisticaDTO delta = contadores.leer(clave);
+            if (delta != null) {
+                deltas.add(delta);
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * Deltas descartados porque la base los rechazó de forma definitiva o agotaron los reintentos
+     */
+    long descartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Vuelca todos los deltas acumulados en un único lote JDBC
+     */
+    void volcar() {
+        flushProgramado.set(false);
+        lockVolcado.writeLock().lock();
+        try {
+            List<DeltaEstadisticaDTO> deltas = new ArrayList<>();
+            LocalDate ayer = LocalDate.now().minusDays(1);
+
+            for (Map.Entry<ClaveEstadistica, Contadores> entrada : pendientes.entrySet()) {
+                ClaveEstadistica clave = entrada.getKey();
+                DeltaEstadisticaDTO delta = entrada.getValue().descontar(clave);
+                if (delta != null) {
+                    deltas.add(delta);
+                    eventosPendientes.addAndGet(-(delta.getVisitas() + delta.getExitos() + delta.getFallos()));
+                } else if (clave.fecha().isBefore(ayer)) {
+                    // Días ya cerrados y sin actividad: liberar la entrada
+                    pendientes.remove(clave, entrada.getValue());
+                }
+            }
+
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                estadisticaRepository.aplicarDeltas(deltas);
+                reintentos.clear();
+            } catch (RuntimeException e) {
+                log.warn("Error al volcar {} deltas de estadística, se aplican uno por uno: {}", deltas.size(), e.getMessage());
+                volcarIndividualmente(deltas);
+            }
+        } finally {
+            lockVolcado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica cada delta en su propia transacción. Un rechazo de integridad (ej. la pista ya no
+     * existe) es definitivo y el delta se descarta; otro error se reintenta en el próximo volcado
+     * hasta maxReintentos veces. Si falla antes de aplicar alguno, la base probablemente no está
+     * disponible: se devuelven todos sin gastar reintentos. Cada volcado empieza por una clave
+     * distinta, así un delta que siempre falla no impide aplicar los demás.
+     */
+    private void volcarIndividualmente(List<DeltaEstadisticaDTO> deltas) {
+        int inicio = Math.floorMod(volcadosIndividuales++, deltas.size());
+        int aplicados = 0;
+        for (int j = 0; j < deltas.size(); j++) {
+            DeltaEstadisticaDTO delta = deltas.get((inicio + j) % deltas.size());
+            ClaveEstadistica clave = new ClaveEstadistica(delta.getPistaId(), delta.getFecha());
+            try {
+                estadisticaRepository.aplicarDeltas(List.of(delta));
+                reintentos.remove(clave);
+                aplicados++;
+            } catch (DataIntegrityViolationException e) {
+                descartar(delta, e);
+            } catch (RuntimeException e) {
+                if (aplicados == 0) {
+                    log.error("La base de datos no aceptó deltas de estadística, se reintentará: {}", e.getMessage());
+                    for (int k = j; k < deltas.size(); k++) {
+                        devolver(deltas.get((inicio + k) % deltas.size()));
+                    }
+                    return;
+                }
+                if (reintentos.merge(clave, 1, Integer::sum) > maxReintentos) {
+                    descartar(delta, e);
+                } else {
+                    devolver(delta);
+                }
+            }
+        }
+    }
+
+    private void descartar(DeltaEstadisticaDTO delta, RuntimeException causa) {
+        reintentos.remove(new ClaveEstadistica(delta.getPistaId(), delta.getFecha()));
+        descartados.increment();
+        log.error("Delta de estadística descartado (pista {}, fecha {}, visitas {}, éxitos {}, fallos {}): {}",
+            delta.getPistaId(), delta.getFecha(), delta.getVisitas(), delta.getExitos(), delta.getFallos(),
+            causa.getMessage());
+    }
+
+    /**
+     * Reincorpora al buffer un delta de un volcado fallido
+     */
+    private void devolver(DeltaEstadisticaDTO delta) {
+        pendientes.computeIfAbsent(new ClaveEstadistica(delta.getPistaId(), delta.getFecha()), clave -> new Contadores())
+                .sumar(delta.getVisitas(), delta.getExitos(), delta.getFallos());
+        eventosPendientes.addAndGet(delta.getVisitas() + delta.getExitos() + delta.getFallos());
+    }
+
+    private record ClaveEstadistica(Integer pistaId, LocalDate fecha) {
+    }
+
+    /**
+     * Contadores rayados (LongAdder) de una (pista, fecha)
+     */
+    private static final class Contadores {
+
+        private final LongAdder visitas = new LongAdder();
+        private final LongAdder exitos = new LongAdder();
+        private final LongAdder fallos = new LongAdder();
+
+        void sumar(int deltaVisitas, int deltaExitos, int deltaFallos) {
+            if (deltaVisitas != 0) {
+                visitas.add(deltaVisitas);
+            }
+            if (deltaExitos != 0) {
+                exitos.add(deltaExitos);
+            }
+            if (deltaFallos != 0) {
+                fallos.add(deltaFallos);
+            }
+        }
+
+        DeltaEstadisticaDTO leer(ClaveEstadistica clave) {
+            long v = visitas.sum();
+            long e = exitos.sum();
+            long f = fallos.sum();
+            if (v == 0 && e == 0 && f == 0) {
+                return null;
+            }
+            return new DeltaEstadisticaDTO(clave.pistaId(), clave.fecha(), (int) v, (int) e, (int) f);
+        }
+
+        /**
+         * Lee y descuenta lo leído. Restar exactamente lo leído (en lugar de sumThenReset)
+         * conserva los incrementos concurrentes que lleguen entre la lectura y el descuento.
+         */
+        DeltaEstadisticaDTO descontar(ClaveEstadistica clave) {
+            DeltaEstadisticaDTO delta = leer(clave);
+            if (delta != null) {
+                visitas.add(-delta.getVisitas());
+                exitos.add(-delta.getExitos());
+                fallos.add(-delta.getFallos());
+            }
+            return delta;
+        }
+    }
+}
@@ -1,68 +1,121 @@
 package com.umg.roboteducativo.service;
 
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
 import com.umg.roboteducativo.dto.EstadisticaDTO;
 import com.umg.roboteducativo.dto.ResumenEstadisticasDTO;
-import com.umg.roboteducativo.model.Estadistica;
-import com.umg.roboteducativo.model.Pista;
+import com.umg.roboteducativo.dto.VisitaDTO;
 import com.umg.roboteducativo.repository.AdministradorRepository;
 import com.umg.roboteducativo.repository.EstadisticaRepository;
 import com.umg.roboteducativo.repository.PistaRepository;
-import lombok.RequiredArgsConstructor;
+import com.umg.roboteducativo.service.EscritorExportacion.FormatoExportacion;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
 public class EstadisticaService {
 
     private final EstadisticaRepository estadisticaRepository;
     private final PistaRepository pistaRepository;
     private final AdministradorRepository administradorRepository;
+    private final EstadisticaBuffer estadisticaBuffer;
+    private final EscritorExportacion escritorExportacion;
+    private final PistaAleatoriaCache pistaAleatoriaCache;
+    private final int maxVisitasPorLote;
+
+    public EstadisticaService(
+            EstadisticaRepository estadisticaRepository,
+            PistaRepository pistaRepository,
+            AdministradorRepository administradorRepository,
+            EstadisticaBuffer estadisticaBuffer,
+            EscritorExportacion escritorExportacion,
+            PistaAleatoriaCache pistaAleatoriaCache,
+            @Value("${robot.visitas.max-por-lote:50}") int maxVisitasPorLote) {
+        this.estadisticaRepository = estadisticaRepository;
+        this.pistaRepository = pistaRepository;
+        this.administradorRepository = administradorRepository;
+        this.estadisticaBuffer = estadisticaBuffer;
+        this.escritorExportacion = escritorExportacion;
+        this.pistaAleatoriaCache = pistaAleatoriaCache;
+        this.maxVisitasPorLote = maxVisitasPorLote;
+    }
+
+    private static final List<String> COLUMNAS_EXPORTACION = List.of(
+        "id", "pista", "pistaId", "fecha", "totalVisitas", "completacionesExitosas",
+        "completacionesFallidas", "porcentajeExito"
+    );
 
     /**
      * Registra una visita a una pista
      */
-    @Transactional
     public void registrarVisita(Integer pistaId) {
-        LocalDate hoy = LocalDate.now();
-        Estadistica estadistica = estadisticaRepository
-                .findByPistaIdAndFecha(pistaId, hoy)
-                .orElseGet(() -> crearNuevaEstadistica(pistaId, hoy));
-
-        estadistica.incrementarVisitas();
-        estadisticaRepository.save(estadistica);
+        registrar(pistaId, 1, 0, 0);
     }
 
     /**
      * Registra una completación exitosa
      */
-    @Transactional
     public void registrarExito(Integer pistaId) {
-        LocalDate hoy = LocalDate.now();
-        Estadistica estadistica = estadisticaRepository
-                .findByPistaIdAndFecha(pistaId, hoy)
-                .orElseGet(() -> crearNuevaEstadistica(pistaId, hoy));
-
-        estadistica.incrementarExitos();
-        estadisticaRepository.save(estadistica);
+        registrar(pistaId, 0, 1, 0);
     }
 
     /**
      * Registra una completación fallida
      */
-    @Transactional
     public void registrarFallo(Integer pistaId) {
-        LocalDate hoy = LocalDate.now();
-        Estadistica estadistica = estadisticaRepository
-                .findByPistaIdAndFecha(pistaId, hoy)
-                .orElseGet(() -> crearNuevaEstadistica(pistaId, hoy));
+        registrar(pistaId, 0, 0, 1);
+    }
 
-        estadistica.incrementarFallos();
-        estadisticaRepository.save(estadistica);
+    /**
+     * Registra varios deltas de una vez: un único lote JDBC, o el buffer write-behind si está activo
+     */
+    public void registrarDeltas(List<DeltaEstadisticaDTO> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (estadisticaBuffer.isHabilitado()) {
+            deltas.forEach(delta -> estadisticaBuffer.registrar(
+                delta.getPistaId(), delta.getVisitas(), delta.getExitos(), delta.getFallos()));
+        } else {
+            estadisticaRepository.aplicarDeltas(deltas);
+        }
+    }
+
+    /**
+     * Registra las visitas que el cliente acumuló localmente, sumadas por pista, en un solo lote.
+     * Se ignoran las pistas que ya no están activas (el cliente puede tener un paquete viejo).
+     * El endpoint es público: un lote no puede sumar más visitas de las que junta un navegador entre envíos.
+     * @return cantidad de visitas registradas
+     * @throws IllegalArgumentException si el lote suma más visitas que el máximo configurado
+     */
+    public int registrarVisitas(List<VisitaDTO> visitas) {
+        long total = visitas.stream().mapToLong(VisitaDTO::getCantidad).sum();
+        if (total > maxVisitasPorLote) {
+            throw new IllegalArgumentException("El lote no puede sumar más de " + maxVisitasPorLote + " visitas");
+        }
+        Map<Integer, Integer> porPista = new LinkedHashMap<>();
+        for (VisitaDTO visita : visitas) {
+            if (pistaAleatoriaCache.esActiva(visita.getPistaId())) {
+                porPista.merge(visita.getPistaId(), visita.getCantidad(), Integer::sum);
+            }
+        }
+        LocalDate hoy = LocalDate.now();
+        registrarDeltas(porPista.entrySet().stream()
+                .map(visita -> new DeltaEstadisticaDTO(visita.getKey(), hoy, visita.getValue(), 0, 0))
+                .collect(Collectors.toList()));
+        return porPista.values().stream().mapToInt(Integer::intValue).sum();
     }
 
     /**
@@ -70,9 +123,22 @@ public class EstadisticaService {
      */
     @Transactional(readOnly = true)
     public ResumenEstadisticasDTO obtenerResumenGeneral() {
-        Long totalVisitas = estadisticaRepository.calcularTotalVisitas();
-        Long totalExitos = estadisticaRepository.calcularTotalExitos();
-        Long totalFallos = estadisticaRepository.calcularTotalFallos();
+        long[] totales = estadisticaBuffer.leerConsistente(() -> {
+            long[] suma = {
+                estadisticaRepository.calcularTotalVisitas(),
+                estadisticaRepository.calcularTotalExitos(),
+                estadisticaRepository.calcularTotalFallos()
+            };
+            for (DeltaEstadisticaDTO delta : estadisticaBuffer.obtenerPendientes()) {
+                suma[0] += delta.getVisitas();
+                suma[1] += delta.getExitos();
+                suma[2] += delta.getFallos();
+            }
+            return suma;
+        });
+        Long totalVisitas = totales[0];
+        Long totalExitos = totales[1];
+        Long totalFallos = totales[2];
         Long totalPistasActivas = pistaRepository.countByActivaTrue();
         Long totalAdministradores = administradorRepository.countByActivoTrue();
 
@@ -90,9 +156,10 @@ public class EstadisticaService {
      */
     @Transactional(readOnly = true)
     public List<EstadisticaDTO> obtenerEstadisticasPorPista(Integer pistaId) {
-        return estadisticaRepository.findByPistaId(pistaId).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return estadisticaBuffer.leerConsistente(() -> fusionarPendientes(
+            estadisticaRepository.findByPistaId(pistaId),
+            delta -> delta.getPistaId().equals(pistaId)
+        ));
     }
 
     /**
@@ -100,9 +167,10 @@ public class EstadisticaService {
      */
     @Transactional(readOnly = true)
     public List<EstadisticaDTO> obtenerEstadisticasPorRango(LocalDate fechaInicio, LocalDate fechaFin) {
-        return estadisticaRepository.findByFechaBetween(fechaInicio, fechaFin).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return estadisticaBuffer.leerConsistente(() -> fusionarPendientes(
+            estadisticaRepository.findByFechaBetween(fechaInicio, fechaFin),
+            delta -> !delta.getFecha().isBefore(fechaInicio) && !delta.getFecha().isAfter(fechaFin)
+        ));
     }
 
     /**
@@ -110,9 +178,10 @@ public class EstadisticaService {
      */
     @Transactional(readOnly = true)
     public List<EstadisticaDTO> obtenerEstadisticasHoy() {
-        return estadisticaRepository.findEstadisticasHoy().stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return estadisticaBuffer.leerConsistente(() -> fusionarPendientes(
+            estadisticaRepository.findEstadisticasHoy(),
+            delta -> delta.getFecha().equals(LocalDate.now())
+        ));
     }
 
     /**
@@ -140,34 +209,92 @@ public class EstadisticaService {
     }
 
     /**
-     * Crea una nueva estadística para una pista y fecha
+     * Exporta las estadísticas confirmadas en la base de datos directamente al flujo de salida.
+     * Los deltas aún en el buffer write-behind no se incluyen.
+     * @return cantidad de filas exportadas
      */
-    private Estadistica crearNuevaEstadistica(Integer pistaId, LocalDate fecha) {
-        Pista pista = pistaRepository.findById(pistaId)
-                .orElseThrow(() -> new RuntimeException("Pista no encontrada"));
-
-        Estadistica estadistica = new Estadistica();
-        estadistica.setPista(pista);
-        estadistica.setFecha(fecha);
-        estadistica.setTotalVisitas(0);
-        estadistica.setCompletacionesExitosas(0);
-        estadistica.setCompletacionesFallidas(0);
+    @Transactional(readOnly = true)
+    public long exportar(Integer pistaId, LocalDate fechaInicio, LocalDate fechaFin,
+                         FormatoExportacion formato, boolean gzip, OutputStream salida) throws IOException {
+        try (Stream<EstadisticaDTO> filas = estadisticaRepository.streamParaExportar(pistaId, fechaInicio, fechaFin)) {
+            return escritorExportacion.escribir(filas, formato, gzip, salida, COLUMNAS_EXPORTACION, fila -> new Object[] {
+                fila.getId(),
+                fila.getPista(),
+                fila.getPistaId(),
+                fila.getFecha(),
+                fila.getTotalVisitas(),
+                fila.getCompletacionesExitosas(),
+                fila.getCompletacionesFallidas(),
+                fila.getPorcentajeExito()
+            });
+        }
+    }
 
-        return estadistica;
+    /**
+     * Registra un evento: directo a la base de datos o al buffer write-behind si está activo
+     */
+    private void registrar(Integer pistaId, int visitas, int exitos, int fallos) {
+        if (estadisticaBuffer.isHabilitado()) {
+            estadisticaBuffer.registrar(pistaId, visitas, exitos, fallos);
+        } else {
+            estadisticaRepository.incrementarContadores(pistaId, LocalDate.now(), visitas, exitos, fallos);
+        }
     }
 
     /**
-     * Convierte una entidad Estadistica a EstadisticaDTO
+     * Suma a las filas leídas de la base de datos los deltas aún no volcados del buffer
      */
-    private EstadisticaDTO convertirADTO(Estadistica estadistica) {
-        return new EstadisticaDTO(
-            estadistica.getId(),
-            estadistica.getPista() != null ? estadistica.getPista().getNombre() : null,
-            estadistica.getPista() != null ? estadistica.getPista().getId() : null,
-            estadistica.getFecha(),
-            estadistica.getTotalVisitas(),
-            estadistica.getCompletacionesExitosas(),
-            estadistica.getCompletacionesFallidas()
-        );
+    private List<EstadisticaDTO> fusionarPendientes(List<EstadisticaDTO> filas, Predicate<DeltaEstadisticaDTO> filtro) {
+        List<DeltaEstadisticaDTO> deltas = estadisticaBuffer.obtenerPendientes().stream()
+                .filter(filtro)
+                .collect(Collectors.toList());
+        if (deltas.isEmpty()) {
+            return filas;
+        }
+
+        Map<String, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < filas.size(); i++) {
+            EstadisticaDTO fila = filas.get(i);
+            posiciones.put(fila.getPistaId() + "|" + fila.getFecha(), i);
+        }
+
+        List<EstadisticaDTO> resultado = new ArrayList<>(filas);
+        List<DeltaEstadisticaDTO> sinFila = new ArrayList<>();
+        for (DeltaEstadisticaDTO delta : deltas) {
+            Integer posicion = posiciones.get(delta.getPistaId() + "|" + delta.getFecha());
+            if (posicion == null) {
+                sinFila.add(delta);
+                continue;
+            }
+            EstadisticaDTO fila = resultado.get(posicion);
+            resultado.set(posicion, new EstadisticaDTO(
+                fila.getId(),
+                fila.getPista(),
+                fila.getPistaId(),
+                fila.getFecha(),
+                fila.getTotalVisitas() + delta.getVisitas(),
+                fila.getCompletacionesExitosas() + delta.getExitos(),
+                fila.getCompletacionesFallidas() + delta.getFallos()
+            ));
+        }
+
+        if (!sinFila.isEmpty()) {
+            // Pistas con actividad hoy que todavía no tienen fila en la tabla
+            Map<Integer, String> nombres = new HashMap<>();
+            pistaRepository.findAllById(sinFila.stream().map(DeltaEstadisticaDTO::getPistaId).collect(Collectors.toSet()))
+                    .forEach(pista -> nombres.put(pista.getId(), pista.getNombre()));
+            for (DeltaEstadisticaDTO delta : sinFila) {
+                resultado.add(new EstadisticaDTO(
+                    null,
+                    nombres.get(delta.getPistaId()),
+                    delta.getPistaId(),
+                    delta.getFecha(),
+                    delta.getVisitas(),
+                    delta.getExitos(),
+                    delta.getFallos()
+                ));
+            }
+        }
+        return resultado;
     }
-}
\ No newline at end of file
+}
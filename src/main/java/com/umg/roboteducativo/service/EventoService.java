@@ -0,0 +1,194 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
+import com.umg.roboteducativo.dto.EventoDTO;
+import com.umg.roboteducativo.dto.ResultadoEventosDTO;
+import com.umg.roboteducativo.repository.EstadisticaRepository;
+import com.umg.roboteducativo.repository.EventoProcesadoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ingesta por lotes de visitas, éxitos y fallos que el cliente acumuló (por ejemplo, sin conexión).
+ * Cada evento trae una clave de idempotencia: las claves ya procesadas se descartan, así que
+ * reintentar un lote nunca cuenta dos veces. Los eventos válidos se agrupan por (pista, fecha)
+ * y se aplican a estadistica en un solo lote, junto con sus claves, en la misma transacción.
+ * Las claves más antiguas que la retención se purgan en una tarea programada, fuera de las peticiones.
+ */
+@Service
+@Slf4j
+public class EventoService {
+
+    // Tolerancia a relojes de cliente adelantados
+    private static final Duration DESFASE_MAXIMO = Duration.ofMinutes(5);
+
+    private final EventoProcesadoRepository eventoProcesadoRepository;
+    private final EstadisticaRepository estadisticaRepository;
+    private final MotorRobotService motorRobotService;
+    private final PistaAleatoriaCache pistaAleatoriaCache;
+    private final IdempotenciaCache idempotenciaCache;
+    private final int maxLote;
+    private final int maxVisitasPorLote;
+    private final int retencionDias;
+
+    public EventoService(
+            EventoProcesadoRepository eventoProcesadoRepository,
+            EstadisticaRepository estadisticaRepository,
+            MotorRobotService motorRobotService,
+            PistaAleatoriaCache pistaAleatoriaCache,
+            IdempotenciaCache idempotenciaCache,
+            @Value("${robot.eventos.max-lote:1000}") int maxLote,
+            @Value("${robot.visitas.max-por-lote:50}") int maxVisitasPorLote,
+            @Value("${robot.eventos.retencion-dias:7}") int retencionDias) {
+        this.eventoProcesadoRepository = eventoProcesadoRepository;
+        this.estadisticaRepository = estadisticaRepository;
+        this.motorRobotService = motorRobotService;
+        this.pistaAleatoriaCache = pistaAleatoriaCache;
+        this.idempotenciaCache = idempotenciaCache;
+        this.maxLote = maxLote;
+        this.maxVisitasPorLote = maxVisitasPorLote;
+        this.retencionDias = retencionDias;
+    }
+
+    /**
+     * Registra el lote de eventos. En EXITO y FALLO el resultado lo decide el servidor
+     * ejecutando los movimientos, no el tipo que envía el cliente.
+     * @throws IllegalArgumentException si el lote excede el máximo de eventos o de visitas permitido
+     */
+    @Transactional
+    public ResultadoEventosDTO registrar(List<EventoDTO> eventos) {
+        if (eventos.size() > maxLote) {
+            throw new IllegalArgumentException("El lote no puede exceder " + maxLote + " eventos");
+        }
+        // Mismo tope que /visitas: las claves y fechas las elige el cliente, así que no frenan visitas infladas
+        long visitas = eventos.stream().filter(evento -> EventoDTO.VISITA.equals(evento.getTipo())).count();
+        if (visitas > maxVisitasPorLote) {
+            throw new IllegalArgumentException("El lote no puede sumar más de " + maxVisitasPorLote + " visitas");
+        }
+
+        // Repetidos dentro del mismo lote: se conserva el primero
+        Map<String, EventoDTO> porClave = new LinkedHashMap<>();
+        for (EventoDTO evento : eventos) {
+            porClave.putIfAbsent(evento.getIdempotencyKey(), evento);
+        }
+        Set<String> existentes = new HashSet<>(eventoProcesadoRepository.findClavesExistentes(porClave.keySet()));
+        // Un intento enviado a /exito o /fallo cuya respuesta se perdió llega aquí con la misma clave
+        porClave.values().stream()
+            .filter(this::yaEnviadoComoIntento)
+            .map(EventoDTO::getIdempotencyKey)
+            .forEach(existentes::add);
+        int duplicados = eventos.size() - porClave.size() + existentes.size();
+
+        Instant ahora = Instant.now();
+        Instant limiteFuturo = ahora.plus(DESFASE_MAXIMO);
+        Instant limitePasado = ahora.minus(Duration.ofDays(retencionDias));
+        ZoneId zona = ZoneId.systemDefault();
+
+        Map<ClaveDelta, DeltaEstadisticaDTO> deltas = new LinkedHashMap<>();
+        List<String> registradas = new ArrayList<>();
+        List<String> errores = new ArrayList<>();
+        for (EventoDTO evento : porClave.values()) {
+            String clave = evento.getIdempotencyKey();
+            if (existentes.contains(clave)) {
+                continue;
+            }
+            try {
+                // Más antiguo que la retención: su clave ya pudo purgarse y no se podría deduplicar
+                if (evento.getTimestamp().isAfter(limiteFuturo) || evento.getTimestamp().isBefore(limitePasado)) {
+                    throw new IllegalArgumentException("La fecha del evento está fuera del rango aceptado");
+                }
+                if (!pistaAleatoriaCache.esActiva(evento.getPistaId())) {
+                    throw new IllegalArgumentException("La pista no existe o no está activa");
+                }
+                LocalDate fecha = LocalDate.ofInstant(evento.getTimestamp(), zona);
+                // Se suma solo si el evento es válido: uno rechazado no deja un delta vacío
+                DeltaEstadisticaDTO incremento = new DeltaEstadisticaDTO(evento.getPistaId(), fecha, 0, 0, 0);
+                aplicar(evento, incremento);
+                deltas.merge(new ClaveDelta(evento.getPistaId(), fecha), incremento, EventoService::sumar);
+                registradas.add(clave);
+            } catch (IllegalArgumentException e) {
+                errores.add(clave + ": " + e.getMessage());
+            }
+        }
+
+        eventoProcesadoRepository.insertarLote(registradas, LocalDateTime.now());
+        if (!deltas.isEmpty()) {
+            // Directo a la base y no al buffer write-behind: respeta la fecha del evento
+            // y confirma los contadores junto con las claves
+            estadisticaRepository.aplicarDeltas(new ArrayList<>(deltas.values()));
+        }
+
+        return new ResultadoEventosDTO(eventos.size(), registradas.size(), duplicados, errores.size(), errores);
+    }
+
+    /**
+     * El cliente guarda el intento con el tipo de la ruta a la que lo envió (EXITO → /exito, FALLO → /fallo)
+     */
+    private boolean yaEnviadoComoIntento(EventoDTO evento) {
+        if (!EventoDTO.EXITO.equals(evento.getTipo()) && !EventoDTO.FALLO.equals(evento.getTipo())) {
+            return false;
+        }
+        String ruta = evento.getTipo().toLowerCase(Locale.ROOT);
+        return idempotenciaCache.contiene(
+            IdempotenciaCache.claveIntento(evento.getPistaId(), ruta, evento.getIdempotencyKey()));
+    }
+
+    private void aplicar(EventoDTO evento, DeltaEstadisticaDTO delta) {
+        switch (evento.getTipo()) {
+            case EventoDTO.VISITA -> delta.setVisitas(delta.getVisitas() + 1);
+            case EventoDTO.EXITO, EventoDTO.FALLO -> {
+                if (evento.getMovimientos() == null || evento.getMovimientos().isEmpty()) {
+                    throw new IllegalArgumentException("Los eventos " + evento.getTipo() + " requieren los movimientos");
+                }
+                if (motorRobotService.evaluar(evento.getPistaId(), evento.getMovimientos()).exito()) {
+                    delta.setExitos(delta.getExitos() + 1);
+                } else {
+                    delta.setFallos(delta.getFallos() + 1);
+                }
+            }
+            default -> throw new IllegalArgumentException("Tipo de evento inválido: " + evento.getTipo());
+        }
+    }
+
+    /**
+     * Elimina las claves más antiguas que la retención, en su propia transacción.
+     * Los eventos con esa antigüedad ya se rechazan en {@link #registrar}, así que no hace falta recordarlas.
+     * @return cantidad de claves eliminadas
+     */
+    @Scheduled(fixedDelayString = "${robot.eventos.purga-ms:3600000}",
+               initialDelayString = "${robot.eventos.purga-ms:3600000}")
+    @Transactional
+    public int purgarClavesVencidas() {
+        int eliminadas = eventoProcesadoRepository.eliminarAnteriores(LocalDateTime.now().minusDays(retencionDias));
+        if (eliminadas > 0) {
+            log.info("Claves de eventos purgadas: {}", eliminadas);
+        }
+        return eliminadas;
+    }
+
+    private static DeltaEstadisticaDTO sumar(DeltaEstadisticaDTO acumulado, DeltaEstadisticaDTO incremento) {
+        acumulado.setVisitas(acumulado.getVisitas() + incremento.getVisitas());
+        acumulado.setExitos(acumulado.getExitos() + incremento.getExitos());
+        acumulado.setFallos(acumulado.getFallos() + incremento.getFallos());
+        return acumulado;
+    }
+
+    private record ClaveDelta(Integer pistaId, LocalDate fecha) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.engine.CaminoBinario;
+import com.umg.roboteducativo.model.Pista;
+
+import java.util.Locale;
+
+/**
+ * Forma en que viaja el camino de una pista hacia el cliente
+ */
+public enum FormatoCamino {
+
+    /**
+     * configuracionJson completo, como lo esperan los clientes anteriores
+     */
+    JSON {
+        @Override
+        public PistaDTO aplicar(PistaDTO pista) {
+            if (pista.getConfiguracionJson() == null && pista.getCamino() != null) {
+                pista.setConfiguracionJson(CaminoBinario.aJson(pista.getCamino()));
+            }
+            pista.setCamino(null);
+            return pista;
+        }
+    },
+
+    /**
+     * Solo el camino binario (Base64); el JSON se omite si existe el binario
+     */
+    COMPACTO {
+        @Override
+        public PistaDTO aplicar(PistaDTO pista) {
+            if (pista.getCamino() != null) {
+                pista.setConfiguracionJson(null);
+            }
+            return pista;
+        }
+    },
+
+    /**
+     * Como COMPACTO en pistas pequeñas; en las grandes no se envía el camino y el
+     * cliente pide solo las regiones visibles a GET /api/pistas/{id}/tesela
+     */
+    TESELAS {
+        @Override
+        public PistaDTO aplicar(PistaDTO pista) {
+            COMPACTO.aplicar(pista);
+            if (dimension(pista.getAncho()) > LADO_MAXIMO_COMPLETO || dimension(pista.getAlto()) > LADO_MAXIMO_COMPLETO) {
+                pista.setCamino(null);
+                pista.setConfiguracionJson(null);
+            }
+            return pista;
+        }
+    };
+
+    // Lado máximo de cuadrícula que se envía completa con formato=teselas
+    public static final int LADO_MAXIMO_COMPLETO = 32;
+
+    private static int dimension(Integer valor) {
+        return valor != null ? valor : Pista.DIMENSION_PREDETERMINADA;
+    }
+
+    /**
+     * Deja en el DTO solo la representación del camino que corresponde al formato
+     */
+    public abstract PistaDTO aplicar(PistaDTO pista);
+
+    /**
+     * Interpreta el parámetro "formato" sin distinguir mayúsculas
+     */
+    public static FormatoCamino desde(String formato) {
+        try {
+            return valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato no soportado: " + formato + " (use json, compacto o teselas)");
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.GeneracionPistasDTO;
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.dto.ResultadoGeneracionDTO;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.engine.CaminoBinario;
+import com.umg.roboteducativo.engine.FormaCanonica;
+import com.umg.roboteducativo.engine.GeneradorCaminos;
+import com.umg.roboteducativo.engine.MetricasCamino;
+import com.umg.roboteducativo.engine.Solucionador;
+import com.umg.roboteducativo.engine.ValidadorCamino;
+import com.umg.roboteducativo.model.Pista;
+import com.umg.roboteducativo.repository.PistaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Generación procedural de pistas. Varios hilos producen caminos aleatorios
+ * válidos con la longitud y los giros pedidos; cada camino se reduce a su forma
+ * canónica (igual para rotaciones, reflejos y traslaciones) y solo se acepta si
+ * esa forma no existe ya en la base de datos ni entre los candidatos anteriores.
+ * Los sobrevivientes se guardan en una sola transacción, o solo se devuelven en
+ * modo simulación.
+ */
+@Service
+@Slf4j
+public class GeneradorPistasService {
+
+    // Intentos permitidos por pista pedida antes de rendirse
+    private static final int INTENTOS_POR_PISTA = 100;
+
+    private final PistaRepository pistaRepository;
+    private final PistaService pistaService;
+    private final int maxCantidad;
+    private final int maxLongitud;
+    private final long tiempoMaximoNanos;
+    private final int tamanioPool;
+    private final ThreadPoolExecutor executor;
+
+    public GeneradorPistasService(
+            PistaRepository pistaRepository,
+            PistaService pistaService,
+            @Value("${robot.generador.hilos:0}") int hilos,
+            @Value("${robot.generador.max-cantidad:1000}") int maxCantidad,
+            @Value("${robot.generador.max-longitud:10000}") int maxLongitud,
+            @Value("${robot.generador.tiempo-maximo-ms:10000}") long tiempoMaximoMs) {
+        this.pistaRepository = pistaRepository;
+        this.pistaService = pistaService;
+        this.maxCantidad = maxCantidad;
+        this.maxLongitud = maxLongitud;
+        this.tiempoMaximoNanos = TimeUnit.MILLISECONDS.toNanos(tiempoMaximoMs);
+        this.tamanioPool = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger contador = new AtomicInteger();
+        // Si varias generaciones llenan la cola, el hilo de la petición ejecuta la tarea (contrapresión)
+        this.executor = new ThreadPoolExecutor(
+            tamanioPool, tamanioPool, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(tamanioPool * 2),
+            runnable -> {
+                Thread hilo = new Thread(runnable, "generador-" + contador.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdown();
+    }
+
+    /**
+     * Genera las pistas pedidas; en modo simulación no se guarda nada.
+     * Si se cumple el tiempo máximo, devuelve las que alcanzó a generar.
+     * @throws IllegalArgumentException si los parámetros no permiten generar caminos válidos
+     */
+    public ResultadoGeneracionDTO generar(GeneracionPistasDTO peticion, String username) throws InterruptedException {
+        Parametros parametros = validar(peticion);
+        long limite = System.nanoTime() + tiempoMaximoNanos;
+
+        // Formas ya usadas por las pistas guardadas
+        Set<Long> formas = ConcurrentHashMap.newKeySet();
+        for (byte[] caminoBinario : pistaRepository.findCaminosBinarios()) {
+            try {
+                formas.add(FormaCanonica.calcular(CaminoBinario.decodificar(caminoBinario)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Se ignora un camino binario ilegible al comparar formas: {}", e.getMessage());
+            }
+        }
+
+        int cantidad = parametros.cantidad();
+        int presupuesto = cantidad * INTENTOS_POR_PISTA;
+        AtomicReferenceArray<Camino> aceptados = new AtomicReferenceArray<>(cantidad);
+        AtomicInteger totalAceptados = new AtomicInteger();
+        AtomicInteger intentos = new AtomicInteger();
+        AtomicInteger duplicadas = new AtomicInteger();
+        AtomicBoolean tiempoAgotado = new AtomicBoolean();
+
+        SplittableRandom azar = peticion.getSemilla() != null
+                ? new SplittableRandom(peticion.getSemilla())
+                : new SplittableRandom();
+        List<Callable<Void>> tareas = new ArrayList<>(tamanioPool);
+        for (int t = 0; t < tamanioPool; t++) {
+            // Cada hilo usa su propio generador; SplittableRandom no es seguro entre hilos
+            SplittableRandom azarHilo = azar.split();
+            tareas.add(() -> {
+                while (totalAceptados.get() < cantidad && intentos.incrementAndGet() <= presupuesto) {
+                    if (System.nanoTime() - limite >= 0) {
+                        tiempoAgotado.set(true);
+                        break;
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                    int longitud = azarHilo.nextInt(parametros.longitudMinima(), parametros.longitudMaxima() + 1);
+                    Camino camino = GeneradorCaminos.generar(azarHilo, parametros.ancho(), parametros.alto(), longitud,
+                        parametros.girosMinimos(), Math.min(parametros.girosMaximos(), longitud - 2));
+                    if (camino == null) {
+                        continue;
+                    }
+                    if (!formas.add(FormaCanonica.calcular(camino))) {
+                        duplicadas.incrementAndGet();
+                        continue;
+                    }
+                    int posicion = totalAceptados.getAndIncrement();
+                    if (posicion >= cantidad) {
+                        break;
+                    }
+                    aceptados.set(posicion, camino);
+                }
+                return null;
+            });
+        }
+        List<Future<Void>> enviadas = new ArrayList<>(tareas.size());
+        try {
+            for (Callable<Void> tarea : tareas) {
+                enviadas.add(executor.submit(tarea));
+            }
+            for (Future<Void> tarea : enviadas) {
+                tarea.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al generar caminos", e.getCause());
+        } finally {
+            // Si una tarea falló (o la petición se interrumpió), las demás dejan de generar
+            enviadas.forEach(tarea -> tarea.cancel(true));
+        }
+
+        List<Camino> caminos = new ArrayList<>(cantidad);
+        for (int i = 0; i < Math.min(totalAceptados.get(), cantidad); i++) {
+            caminos.add(aceptados.get(i));
+        }
+        List<String> nombres = asignarNombres(peticion.getPrefijoNombre().trim(), caminos.size());
+
+        boolean simulacion = Boolean.TRUE.equals(peticion.getSimulacion());
+        List<PistaDTO> pistas = simulacion
+                ? describirCandidatos(caminos, nombres, parametros)
+                : pistaService.crearPistasGeneradas(crearEntidades(caminos, nombres, parametros), username);
+
+        return new ResultadoGeneracionDTO(
+            cantidad,
+            caminos.size(),
+            duplicadas.get(),
+            Math.min(intentos.get(), presupuesto),
+            tiempoAgotado.get(),
+            simulacion,
+            pistas
+        );
+    }
+
+    private Parametros validar(GeneracionPistasDTO peticion) {
+        int cantidad = peticion.getCantidad();
+        if (cantidad < 1 || cantidad > maxCantidad) {
+            throw new IllegalArgumentException("La cantidad debe estar entre 1 y " + maxCantidad);
+        }
+        int ancho = peticion.getAncho() != null ? peticion.getAncho() : Pista.DIMENSION_PREDETERMINADA;
+        int alto = peticion.getAlto() != null ? peticion.getAlto() : Pista.DIMENSION_PREDETERMINADA;
+
+        int longitudMinima = peticion.getLongitudMinima();
+        int longitudMaxima = peticion.getLongitudMaxima();
+        if (longitudMinima < 2 || longitudMinima > longitudMaxima) {
+            throw new IllegalArgumentException("La longitud mínima debe ser al menos 2 y no mayor que la máxima");
+        }
+        if (longitudMaxima > maxLongitud) {
+            throw new IllegalArgumentException("La longitud máxima no puede exceder " + maxLongitud + " celdas");
+        }
+        if (longitudMaxima > ancho * alto) {
+            throw new IllegalArgumentException("La longitud máxima no puede exceder las " + ancho * alto
+                + " celdas de la cuadrícula");
+        }
+
+        int girosMinimos = peticion.getGirosMinimos() != null ? peticion.getGirosMinimos() : 0;
+        int girosMaximos = peticion.getGirosMaximos() != null ? peticion.getGirosMaximos() : longitudMaxima - 2;
+        if (girosMinimos < 0 || girosMinimos > girosMaximos) {
+            throw new IllegalArgumentException("Los giros mínimos deben ser al menos 0 y no mayores que los máximos");
+        }
+        // Un camino de n celdas tiene a lo sumo n - 2 giros
+        longitudMinima = Math.max(longitudMinima, girosMinimos + 2);
+        if (longitudMinima > longitudMaxima) {
+            throw new IllegalArgumentException("Un camino de " + longitudMaxima + " celdas no puede tener "
+                + girosMinimos + " giros");
+        }
+        return new Parametros(cantidad, ancho, alto, longitudMinima, longitudMaxima, girosMinimos, girosMaximos);
+    }
+
+    /**
+     * Nombres "prefijo #n" que aún no existen, empezando por el número libre más bajo
+     */
+    private List<String> asignarNombres(String prefijo, int cantidad) {
+        Set<String> existentes = new HashSet<>(pistaRepository.findNombresConPrefijo(prefijo));
+        List<String> nombres = new ArrayList<>(cantidad);
+        for (int numero = 1; nombres.size() < cantidad; numero++) {
+            String nombre = prefijo + " #" + numero;
+            if (!existentes.contains(nombre)) {
+                nombres.add(nombre);
+            }
+        }
+        return nombres;
+    }
+
+    private List<PistaDTO> describirCandidatos(List<Camino> caminos, List<String> nombres, Parametros parametros) {
+        List<PistaDTO> pistas = new ArrayList<>(caminos.size());
+        for (int i = 0; i < caminos.size(); i++) {
+            Camino camino = caminos.get(i);
+            MetricasCamino metricas = ValidadorCamino.validar(camino, parametros.ancho(), parametros.alto());
+
+            PistaDTO dto = new PistaDTO();
+            dto.setNombre(nombres.get(i));
+            dto.setConfiguracionJson(CaminoBinario.aJson(camino));
+            dto.setActiva(true);
+            dto.setAncho(parametros.ancho());
+            dto.setAlto(parametros.alto());
+            dto.setLongitud(metricas.longitud());
+            dto.setGiros(metricas.giros());
+            dto.setProgramaMinimo(Solucionador.resolver(camino).programaOptimo().length);
+            pistas.add(dto);
+        }
+        return pistas;
+    }
+
+    private List<Pista> crearEntidades(List<Camino> caminos, List<String> nombres, Parametros parametros) {
+        List<Pista> pistas = new ArrayList<>(caminos.size());
+        for (int i = 0; i < caminos.size(); i++) {
+            Pista pista = new Pista();
+            pista.setNombre(nombres.get(i));
+            pista.setCaminoBinario(CaminoBinario.codificar(caminos.get(i)));
+            pista.setAncho(parametros.ancho());
+            pista.setAlto(parametros.alto());
+            pistas.add(pista);
+        }
+        return pistas;
+    }
+
+    private record Parametros(int cantidad, int ancho, int alto, int longitudMinima, int longitudMaxima,
+                              int girosMinimos, int girosMaximos) {
+    }
+}
@@ -0,0 +1,385 @@
+package com.umg.roboteducativo.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claves Idempotency-Key ya vistas en los endpoints públicos de estadística.
+ * Guarda una huella de 64 bits por clave junto con el resultado codificado de su petición
+ * (o {@link #EN_CURSO} mientras se procesa), en dos generaciones de tamaño fijo
+ * (tablas long[] con sondeo lineal): cuando la actual cumple la ventana o se llena,
+ * la anterior se vacía y pasa a ser la actual. Así la memoria no crece y una clave
+ * se recuerda al menos una ventana (menos solo si llegan más claves que la capacidad).
+ * Se guarda una instantánea en disco de las claves terminadas para que un reinicio no las olvide.
+ */
+@Component
+@Slf4j
+public class IdempotenciaCache {
+
+    /** Resultado de {@link #reservar} para una clave que no se había visto */
+    public static final long NUEVA = -1L;
+    /** Resultado de {@link #reservar} para una clave cuya petición todavía se está procesando */
+    public static final long EN_CURSO = -2L;
+
+    private static final int FORMATO_INSTANTANEA = 0x49444D32; // "IDM2"
+    private static final long VACIO = 0L;
+
+    private final int capacidad;
+    private final long ventanaMs;
+    private final Path archivo;
+    private final long intervaloInstantaneaMs;
+
+    private Generacion actual;
+    private Generacion anterior;
+    private boolean modificada;
+
+    private ScheduledExecutorService executor;
+
+    public IdempotenciaCache(
+            @Value("${robot.idempotencia.capacidad:100000}") int capacidad,
+            @Value("${robot.idempotencia.ventana-minutos:60}") long ventanaMinutos,
+            @Value("${robot.idempotencia.archivo:}") String archivo,
+            @Value("${robot.idempotencia.instantanea-segundos:30}") long intervaloInstantaneaSegundos) {
+        this.capacidad = capacidad;
+        this.ventanaMs = TimeUnit.MINUTES.toMillis(ventanaMinutos);
+        this.archivo = archivo.isBlank() ? null : Path.of(archivo).toAbsolutePath();
+        this.intervaloInstantaneaMs = TimeUnit.SECONDS.toMillis(intervaloInstantaneaSegundos);
+
+        long ahora = System.currentTimeMillis();
+        this.actual = new Generacion(capacidad, ahora);
+        this.anterior = new Generacion(capacidad, ahora);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (archivo == null) {
+            return;
+        }
+        cargarInstantanea();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread hilo = new Thread(runnable, "idempotencia-instantanea");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        executor.scheduleWithFixedDelay(this::guardarInstantanea,
+            intervaloInstantaneaMs, intervaloInstantaneaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Guarda la última instantánea antes de apagar la aplicación
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        guardarInstantanea();
+    }
+
+    /**
+     * Clave de un intento enviado a /api/pistas/{pistaId}/{ruta}: la misma Idempotency-Key
+     * en otra pista u otra ruta es otro intento y no repite el resultado guardado
+     */
+    public static String claveIntento(Integer pistaId, String ruta, String clave) {
+        return pistaId + "/" + ruta + ":" + clave;
+    }
+
+    /**
+     * Reserva la clave como {@link #EN_CURSO} si no se había visto.
+     * Quien la reserva debe llamar después a {@link #completar} o a {@link #olvidar}.
+     * @return {@link #NUEVA} si se reservó; {@link #EN_CURSO} si otra petición la está procesando;
+     *         si no, el resultado guardado al completarla (siempre &gt;= 0)
+     */
+    public synchronized long reservar(String clave) {
+        long ahora = System.currentTimeMillis();
+        rotarSiCorresponde(ahora);
+        long huella = huella(clave);
+        long guardado = buscar(huella);
+        if (guardado != NUEVA) {
+            return guardado;
+        }
+        if (actual.tamanio >= capacidad) {
+            rotar(ahora);
+        }
+        actual.agregar(huella, EN_CURSO);
+        return NUEVA;
+    }
+
+    /**
+     * Guarda el resultado de una clave reservada, para devolverlo a los reintentos
+     * @param resultado resultado codificado, mayor o igual que 0
+     */
+    public synchronized void completar(String clave, long resultado) {
+        if (resultado < 0) {
+            throw new IllegalArgumentException("El resultado codificado no puede ser negativo");
+        }
+        long huella = huella(clave);
+        if (!actual.asignar(huella, resultado) && !anterior.asignar(huella, resultado)) {
+            // La reserva se descartó al rotar durante una petición muy larga
+            if (actual.tamanio >= capacidad) {
+                rotar(System.currentTimeMillis());
+            }
+            actual.agregar(huella, resultado);
+        }
+        modificada = true;
+    }
+
+    /**
+     * Indica si la clave ya se vio dentro de la ventana (terminada o en curso), sin marcarla
+     */
+    public synchronized boolean contiene(String clave) {
+        rotarSiCorresponde(System.currentTimeMillis());
+        return buscar(huella(clave)) != NUEVA;
+    }
+
+    /**
+     * Olvida una clave reservada cuyo registro falló, para que el reintento del cliente se procese
+     */
+    public synchronized void olvidar(String clave) {
+        long huella = huella(clave);
+        if (actual.eliminar(huella) | anterior.eliminar(huella)) {
+            modificada = true;
+        }
+    }
+
+    private long buscar(long huella) {
+        long valor = actual.valor(huella);
+        return valor != NUEVA ? valor : anterior.valor(huella);
+    }
+
+    private void rotarSiCorresponde(long ahora) {
+        if (ahora - actual.inicio >= ventanaMs) {
+            // Sin actividad durante dos ventanas, ninguna de las claves sigue vigente
+            boolean ambasVencidas = ahora - actual.inicio >= 2 * ventanaMs;
+            rotar(ahora);
+            if (ambasVencidas) {
+                anterior.reiniciar(ahora);
+            }
+        }
+    }
+
+    private void rotar(long ahora) {
+        Generacion liberada = anterior;
+        anterior = actual;
+        actual = liberada;
+        actual.reiniciar(ahora);
+        modificada = true;
+    }
+
+    /**
+     * Formato: [formato] y por generación, la anterior primero, [inicio][cantidad][huella, resultado...].
+     * Las claves en curso no se guardan: si la aplicación se reinicia, el reintento se procesa.
+     */
+    private void guardarInstantanea() {
+        long[][] entradas = new long[2][];
+        long[] inicios = new long[2];
+        synchronized (this) {
+            if (!modificada) {
+                return;
+            }
+            entradas[0] = anterior.terminadas();
+            inicios[0] = anterior.inicio;
+            entradas[1] = actual.terminadas();
+            inicios[1] = actual.inicio;
+            modificada = false;
+        }
+        try {
+            Path directorio = archivo.toAbsolutePath().getParent();
+            Files.createDirectories(directorio);
+            Path temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), ".tmp");
+            try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                salida.writeInt(FORMATO_INSTANTANEA);
+                for (int g = 0; g < 2; g++) {
+                    salida.writeLong(inicios[g]);
+                    salida.writeInt(entradas[g].length / 2);
+                    for (long valor : entradas[g]) {
+                        salida.writeLong(valor);
+                    }
+                }
+            }
+            // Reemplazo atómico: un apagado a mitad de la escritura no deja un archivo truncado
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            synchronized (this) {
+                modificada = true;
+            }
+            log.warn("No se pudo guardar la instantánea de claves de idempotencia: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void cargarInstantanea() {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (entrada.readInt() != FORMATO_INSTANTANEA) {
+                log.warn("Formato desconocido en {}; se empieza sin claves de idempotencia", archivo);
+                return;
+            }
+            Generacion[] generaciones = {anterior, actual};
+            for (Generacion generacion : generaciones) {
+                generacion.reiniciar(entrada.readLong());
+                int cantidad = entrada.readInt();
+                for (int i = 0; i < cantidad; i++) {
+                    long huella = entrada.readLong();
+                    long resultado = entrada.readLong();
+                    // Si la capacidad configurada bajó, se conservan las que quepan
+                    if (generacion.tamanio < capacidad) {
+                        generacion.agregar(huella, resultado);
+                    }
+                }
+            }
+            rotarSiCorresponde(System.currentTimeMillis());
+            log.info("Claves de idempotencia restauradas: {}", actual.tamanio + anterior.tamanio);
+        } catch (NoSuchFileException e) {
+            // Primer arranque
+        } catch (IOException e) {
+            long ahora = System.currentTimeMillis();
+            actual.reiniciar(ahora);
+            anterior.reiniciar(ahora);
+            log.warn("No se pudo leer la instantánea de claves de idempotencia: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre los caracteres, con la mezcla final de MurmurHash3 para repartir
+     * bien los bits bajos que usa la tabla. 0 marca una celda vacía y nunca es una huella.
+     */
+    static long huella(String clave) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < clave.length(); i++) {
+            hash ^= clave.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == VACIO ? 1L : hash;
+    }
+
+    /**
+     * Huellas con direccionamiento abierto y el resultado de cada una en la misma posición
+     * de un arreglo paralelo; la tabla se llena como mucho a la mitad
+     */
+    private static final class Generacion {
+
+        private final long[] tabla;
+        private final long[] valores;
+        private final int mascara;
+        private int tamanio;
+        private long inicio;
+
+        Generacion(int capacidad, long inicio) {
+            int celdas = Integer.highestOneBit(Math.max(2, capacidad) * 2 - 1) << 1;
+            this.tabla = new long[celdas];
+            this.valores = new long[celdas];
+            this.mascara = celdas - 1;
+            this.inicio = inicio;
+        }
+
+        private int posicion(long huella) {
+            for (int i = (int) huella & mascara; tabla[i] != VACIO; i = (i + 1) & mascara) {
+                if (tabla[i] == huella) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Resultado guardado de la huella, o {@link #NUEVA} si no está
+         */
+        long valor(long huella) {
+            int i = posicion(huella);
+            return i < 0 ? NUEVA : valores[i];
+        }
+
+        boolean asignar(long huella, long valor) {
+            int i = posicion(huella);
+            if (i < 0) {
+                return false;
+            }
+            valores[i] = valor;
+            return true;
+        }
+
+        void agregar(long huella, long valor) {
+            int i = (int) huella & mascara;
+            while (tabla[i] != VACIO) {
+                if (tabla[i] == huella) {
+                    valores[i] = valor;
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = huella;
+            valores[i] = valor;
+            tamanio++;
+        }
+
+        /**
+         * Borra con desplazamiento hacia atrás, sin marcas de borrado que degraden las búsquedas
+         */
+        boolean eliminar(long huella) {
+            int i = (int) huella & mascara;
+            while (tabla[i] != huella) {
+                if (tabla[i] == VACIO) {
+                    return false;
+                }
+                i = (i + 1) & mascara;
+            }
+            int hueco = i;
+            for (int j = (i + 1) & mascara; tabla[j] != VACIO; j = (j + 1) & mascara) {
+                int ideal = (int) tabla[j] & mascara;
+                // Se mueve si su posición ideal no está entre el hueco (exclusive) y j (inclusive)
+                if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                    tabla[hueco] = tabla[j];
+                    valores[hueco] = valores[j];
+                    hueco = j;
+                }
+            }
+            tabla[hueco] = VACIO;
+            tamanio--;
+            return true;
+        }
+
+        /**
+         * Pares huella, resultado de las claves terminadas (sin las que siguen en curso)
+         */
+        long[] terminadas() {
+            long[] resultado = new long[tamanio * 2];
+            int n = 0;
+            for (int i = 0; i < tabla.length; i++) {
+                if (tabla[i] != VACIO && valores[i] != EN_CURSO) {
+                    resultado[n++] = tabla[i];
+                    resultado[n++] = valores[i];
+                }
+            }
+            return Arrays.copyOf(resultado, n);
+        }
+
+        void reiniciar(long nuevoInicio) {
+            Arrays.fill(tabla, VACIO);
+            tamanio = 0;
+            inicio = nuevoInicio;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.dto.ResumenImportacionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importación masiva de pistas desde el archivo que genera la exportación del panel
+ * (arreglo JSON o el NDJSON de GET /api/pistas/exportar, con o sin gzip).
+ * El archivo se lee en streaming, una pista a la vez, sin construir el árbol JSON
+ * completo; luego PistaService valida y guarda todo en una sola transacción.
+ */
+@Service
+public class ImportacionPistasService {
+
+    private final PistaService pistaService;
+    private final ObjectMapper objectMapper;
+    private final int maxPistas;
+
+    public ImportacionPistasService(
+            PistaService pistaService,
+            ObjectMapper objectMapper,
+            @Value("${robot.importacion.max-pistas:5000}") int maxPistas) {
+        this.pistaService = pistaService;
+        this.objectMapper = objectMapper;
+        this.maxPistas = maxPistas;
+    }
+
+    /**
+     * @param entrada una pista, un arreglo de pistas o una pista por línea (NDJSON), opcionalmente con gzip
+     * @throws IllegalArgumentException si el archivo no tiene el formato esperado o excede el máximo
+     * @throws IOException si no se puede leer la entrada o no es un JSON válido
+     */
+    public ResumenImportacionDTO importar(InputStream entrada, String username) throws IOException {
+        List<PistaDTO> pistas = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(descomprimirSiHaceFalta(entrada))) {
+            JsonToken inicio = parser.nextToken();
+            boolean arreglo = inicio == JsonToken.START_ARRAY;
+            if (!arreglo && inicio != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("El archivo debe contener una pista o un arreglo de pistas");
+            }
+            // En NDJSON cada pista es un valor JSON independiente; el parser los lee uno tras otro
+            JsonToken token = arreglo ? parser.nextToken() : inicio;
+            while (token == JsonToken.START_OBJECT) {
+                if (pistas.size() == maxPistas) {
+                    throw new IllegalArgumentException("El archivo excede " + maxPistas + " pistas");
+                }
+                pistas.add(parser.readValueAs(PistaDTO.class));
+                token = parser.nextToken();
+            }
+            if (token != (arreglo ? JsonToken.END_ARRAY : null)) {
+                throw new IllegalArgumentException("Cada elemento del archivo debe ser una pista");
+            }
+        }
+        if (pistas.isEmpty()) {
+            throw new IllegalArgumentException("El archivo no contiene pistas");
+        }
+        return pistaService.importarPistas(pistas, username);
+    }
+
+    /**
+     * Reconoce un archivo .gz (exportado con gzip=true) por sus dos primeros bytes
+     */
+    private InputStream descomprimirSiHaceFalta(InputStream entrada) throws IOException {
+        BufferedInputStream datos = new BufferedInputStream(entrada);
+        datos.mark(2);
+        int primero = datos.read();
+        int segundo = datos.read();
+        datos.reset();
+        boolean gzip = primero == (GZIPInputStream.GZIP_MAGIC & 0xFF) && segundo == (GZIPInputStream.GZIP_MAGIC >>> 8);
+        return gzip ? new GZIPInputStream(datos) : datos;
+    }
+}
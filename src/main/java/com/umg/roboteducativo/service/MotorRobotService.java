@@ -0,0 +1,215 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.dto.ResultadoProgramaDTO;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.engine.CaminoBinario;
+import com.umg.roboteducativo.engine.CompiladorPrograma;
+import com.umg.roboteducativo.engine.EjecutorPrograma;
+import com.umg.roboteducativo.engine.ResultadoEjecucion;
+import com.umg.roboteducativo.model.Pista;
+import com.umg.roboteducativo.repository.PistaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ejecuta en el servidor los programas enviados por el juego y registra el veredicto,
+ * en lugar de confiar en el resultado que calcula el navegador
+ */
+@Service
+public class MotorRobotService {
+
+    private final PistaAleatoriaCache pistaAleatoriaCache;
+    private final PistaRepository pistaRepository;
+    private final EstadisticaService estadisticaService;
+    private final CacheVeredictos cacheVeredictos;
+    private final ObjectMapper objectMapper;
+    private final int maxMovimientos;
+    private final int maxPasos;
+
+    // Último camino decodificado de cada pista; se reemplaza cuando cambia su versión
+    private final Map<Integer, PistaCompilada> caminos = new ConcurrentHashMap<>();
+
+    public MotorRobotService(
+            PistaAleatoriaCache pistaAleatoriaCache,
+            PistaRepository pistaRepository,
+            EstadisticaService estadisticaService,
+            CacheVeredictos cacheVeredictos,
+            ObjectMapper objectMapper,
+            @Value("${robot.motor.max-movimientos:500}") int maxMovimientos,
+            @Value("${robot.motor.max-pasos:1000}") int maxPasos) {
+        this.pistaAleatoriaCache = pistaAleatoriaCache;
+        this.pistaRepository = pistaRepository;
+        this.estadisticaService = estadisticaService;
+        this.cacheVeredictos = cacheVeredictos;
+        this.objectMapper = objectMapper;
+        this.maxMovimientos = maxMovimientos;
+        this.maxPasos = maxPasos;
+    }
+
+    /**
+     * Ejecuta el programa sobre la pista y registra éxito o fallo según el resultado
+     */
+    public ResultadoProgramaDTO registrarIntento(Integer pistaId, List<String> movimientos) {
+        ResultadoEjecucion resultado = evaluar(pistaId, movimientos);
+        if (resultado.exito()) {
+            estadisticaService.registrarExito(pistaId);
+        } else {
+            estadisticaService.registrarFallo(pistaId);
+        }
+        return convertirADTO(resultado);
+    }
+
+    /**
+     * Compila y ejecuta el programa sobre el camino de la pista, sin registrar nada.
+     * Si el mismo programa ya se evaluó sobre esta versión de la pista, reutiliza el veredicto.
+     * @throws IllegalArgumentException si el programa o el camino no son válidos
+     */
+    public ResultadoEjecucion evaluar(Integer pistaId, List<String> movimientos) {
+        byte[] programa = compilar(movimientos);
+        PistaCompilada pista = obtenerCamino(pistaId);
+        return cacheVeredictos.obtenerOCalcular(pistaId, pista.fechaModificacion(), programa,
+            () -> EjecutorPrograma.ejecutar(pista.camino(), programa, maxPasos));
+    }
+
+    /**
+     * Compila y ejecuta el programa sobre una pista ya parseada (se puede compartir entre hilos)
+     * @throws IllegalArgumentException si el programa no es válido
+     */
+    public ResultadoEjecucion ejecutar(PistaCompilada pista, List<String> movimientos) {
+        byte[] programa = compilar(movimientos);
+        return cacheVeredictos.obtenerOCalcular(pista.id(), pista.fechaModificacion(), programa,
+            () -> EjecutorPrograma.ejecutar(pista.camino(), programa, maxPasos));
+    }
+
+    /**
+     * Obtiene el camino decodificado de una pista; solo se decodifica otra vez si la pista cambió
+     */
+    public PistaCompilada obtenerCamino(Integer pistaId) {
+        DatosPista datos = obtenerDatos(pistaId);
+        PistaCompilada compilada = caminos.get(pistaId);
+        if (compilada != null && compilada.fechaModificacion().equals(datos.fechaModificacion())) {
+            return compilada;
+        }
+        compilada = new PistaCompilada(pistaId, datos.fechaModificacion(),
+                leerCamino(datos.caminoBinario(), datos.configuracionJson()), datos.ancho(), datos.alto());
+        caminos.put(pistaId, compilada);
+        return compilada;
+    }
+
+    /**
+     * Descarta el camino decodificado de una pista modificada o eliminada
+     */
+    public void olvidarCamino(Integer pistaId) {
+        caminos.remove(pistaId);
+    }
+
+    /**
+     * Obtiene el Camino de una pista desde su forma binaria o, si aún no la tiene, desde el JSON
+     */
+    public Camino leerCamino(byte[] caminoBinario, String configuracionJson) {
+        return caminoBinario != null
+                ? CaminoBinario.decodificar(caminoBinario)
+                : parsearCamino(configuracionJson);
+    }
+
+    /**
+     * Convierte el configuracionJson de una pista ([{"x":0,"y":0}, ...]) en un Camino
+     */
+    public Camino parsearCamino(String configuracionJson) {
+        JsonNode puntos;
+        try {
+            puntos = objectMapper.readTree(configuracionJson);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("La configuración de la pista no es un JSON válido");
+        }
+        if (puntos == null || !puntos.isArray()) {
+            throw new IllegalArgumentException("La configuración de la pista debe ser un arreglo de puntos");
+        }
+
+        int[] xs = new int[puntos.size()];
+        int[] ys = new int[puntos.size()];
+        for (int i = 0; i < puntos.size(); i++) {
+            JsonNode punto = puntos.get(i);
+            if (!punto.path("x").canConvertToInt() || !punto.path("y").canConvertToInt()) {
+                throw new IllegalArgumentException("Punto inválido en la posición " + i + " del camino");
+            }
+            xs[i] = punto.get("x").asInt();
+            ys[i] = punto.get("y").asInt();
+        }
+        return new Camino(xs, ys);
+    }
+
+    private byte[] compilar(List<String> movimientos) {
+        if (movimientos.size() > maxMovimientos) {
+            throw new IllegalArgumentException("El programa excede " + maxMovimientos + " movimientos");
+        }
+        return CompiladorPrograma.compilar(movimientos);
+    }
+
+    /**
+     * Camino y versión de la pista: del snapshot de pistas activas o, si está inactiva, de la base de datos
+     */
+    private DatosPista obtenerDatos(Integer pistaId) {
+        return pistaAleatoriaCache.obtenerPorId(pistaId)
+                .map(pista -> new DatosPista(pista.getCamino(), pista.getConfiguracionJson(),
+                        pista.getFechaModificacion(), pista.getAncho(), pista.getAlto()))
+                .orElseGet(() -> pistaRepository.findById(pistaId)
+                        .map(pista -> new DatosPista(pista.getCaminoBinario(), pista.getConfiguracionJson(),
+                                pista.getFechaModificacion(), pista.getAncho(), pista.getAlto()))
+                        .orElseThrow(() -> new RuntimeException("Pista no encontrada con ID: " + pistaId)));
+    }
+
+    /**
+     * Codifica el veredicto en un long no negativo (motivo en la parte alta, pasos en la baja),
+     * para guardarlo junto a su Idempotency-Key y repetir la misma respuesta a los reintentos
+     */
+    public static long codificarResultado(ResultadoProgramaDTO resultado) {
+        long motivo = ResultadoEjecucion.Motivo.valueOf(resultado.getMotivo()).ordinal();
+        return motivo << 32 | (resultado.getPasos() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Inverso de {@link #codificarResultado}
+     */
+    public static ResultadoProgramaDTO decodificarResultado(long codigo) {
+        ResultadoEjecucion.Motivo motivo = ResultadoEjecucion.Motivo.values()[(int) (codigo >>> 32)];
+        return new ResultadoProgramaDTO(
+            motivo == ResultadoEjecucion.Motivo.COMPLETADO,
+            motivo.name(),
+            motivo.getMensaje(),
+            (int) codigo
+        );
+    }
+
+    private ResultadoProgramaDTO convertirADTO(ResultadoEjecucion resultado) {
+        return new ResultadoProgramaDTO(
+            resultado.exito(),
+            resultado.motivo().name(),
+            resultado.motivo().getMensaje(),
+            resultado.pasos()
+        );
+    }
+
+    /**
+     * Camino ya parseado de una pista, junto con la versión de la que proviene y sus dimensiones
+     */
+    public record PistaCompilada(Integer id, LocalDateTime fechaModificacion, Camino camino, int ancho, int alto) {
+    }
+
+    private record DatosPista(byte[] caminoBinario, String configuracionJson, LocalDateTime fechaModificacion,
+                              Integer ancho, Integer alto) {
+
+        DatosPista {
+            ancho = ancho != null ? ancho : Pista.DIMENSION_PREDETERMINADA;
+            alto = alto != null ? alto : Pista.DIMENSION_PREDETERMINADA;
+        }
+    }
+}
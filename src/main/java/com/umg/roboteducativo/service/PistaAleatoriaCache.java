@@ -0,0 +1,149 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.dto.PaquetePistasDTO;
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.repository.PistaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot en memoria de las pistas activas para la selección aleatoria.
+ * Se reemplaza completo después de cada commit que modifica pistas, de modo que
+ * GET /api/pistas/aleatoria no consulta la base de datos. Junto al snapshot se arma
+ * el paquete para selección en el cliente y su versión (hash del contenido).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PistaAleatoriaCache {
+
+    private final PistaRepository pistaRepository;
+    private final ObjectMapper objectMapper;
+
+    // Inmutable; se reemplaza la referencia completa en cada recarga
+    private volatile Snapshot snapshot;
+
+    /**
+     * Obtiene una pista activa al azar desde el snapshot
+     */
+    public Optional<PistaDTO> obtenerAleatoria() {
+        List<PistaDTO> pistas = obtenerSnapshot().pistas();
+        if (pistas.isEmpty()) {
+            return Optional.empty();
+        }
+        PistaDTO pista = pistas.get(ThreadLocalRandom.current().nextInt(pistas.size()));
+        return Optional.of(copiar(pista));
+    }
+
+    /**
+     * Obtiene todas las pistas activas desde el snapshot
+     */
+    public List<PistaDTO> obtenerActivas() {
+        return obtenerSnapshot().pistas().stream()
+                .map(this::copiar)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Busca una pista activa por ID en el snapshot (vacío si no existe o está inactiva)
+     */
+    public Optional<PistaDTO> obtenerPorId(Integer id) {
+        return Optional.ofNullable(obtenerSnapshot().porId().get(id)).map(this::copiar);
+    }
+
+    /**
+     * Indica si la pista está activa, sin copiar su DTO
+     */
+    public boolean esActiva(Integer id) {
+        return obtenerSnapshot().porId().containsKey(id);
+    }
+
+    /**
+     * Paquete con todas las pistas activas en formato teselas. Es compartido e
+     * inmutable mientras dure el snapshot; no debe modificarse.
+     */
+    public PaquetePistasDTO obtenerPaquete() {
+        return obtenerSnapshot().paquete();
+    }
+
+    /**
+     * Reconstruye el snapshot con las pistas activas confirmadas en la base de datos.
+     * Se invoca después del commit, por eso necesita su propia transacción.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void recargar() {
+        cargar();
+    }
+
+    private Snapshot obtenerSnapshot() {
+        Snapshot actual = snapshot;
+        return actual != null ? actual : cargar();
+    }
+
+    private synchronized Snapshot cargar() {
+        List<PistaDTO> pistas = List.copyOf(pistaRepository.findActivasComoDTO());
+        Map<Integer, PistaDTO> porId = pistas.stream()
+                .collect(Collectors.toUnmodifiableMap(PistaDTO::getId, Function.identity()));
+        Snapshot nuevo = new Snapshot(pistas, porId, armarPaquete(pistas));
+        snapshot = nuevo;
+        log.debug("Snapshot de pistas activas recargado: {} pistas", pistas.size());
+        return nuevo;
+    }
+
+    /**
+     * Paquete en formato teselas; la versión es el SHA-256 del contenido serializado,
+     * así dos recargas sin cambios reales conservan el mismo ETag
+     */
+    private PaquetePistasDTO armarPaquete(List<PistaDTO> pistas) {
+        List<PistaDTO> compactas = pistas.stream()
+                .map(pista -> FormatoCamino.TESELAS.aplicar(copiar(pista)))
+                .collect(Collectors.toUnmodifiableList());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(compactas));
+            return new PaquetePistasDTO(HexFormat.of().formatHex(hash, 0, 16), compactas);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el paquete de pistas", e);
+        }
+    }
+
+    /**
+     * Devuelve una copia para que nadie modifique el DTO compartido del snapshot
+     */
+    private PistaDTO copiar(PistaDTO pista) {
+        return new PistaDTO(
+            pista.getId(),
+            pista.getNombre(),
+            pista.getConfiguracionJson(),
+            pista.getCreadoPor(),
+            pista.getFechaCreacion(),
+            pista.getFechaModificacion(),
+            pista.getActiva(),
+            pista.getCamino(),
+            pista.getAncho(),
+            pista.getAlto(),
+            pista.getLongitud(),
+            pista.getGiros(),
+            pista.getProgramaMinimo()
+        );
+    }
+
+    private record Snapshot(List<PistaDTO> pistas, Map<Integer, PistaDTO> porId, PaquetePistasDTO paquete) {
+    }
+}
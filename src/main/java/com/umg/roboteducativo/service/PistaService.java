@@ -1,44 +1,108 @@
 package com.umg.roboteducativo.service;
 
+import com.umg.roboteducativo.dto.GrupoDuplicadosDTO;
+import com.umg.roboteducativo.dto.PaquetePistasDTO;
 import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.dto.ResultadoImportacionDTO;
+import com.umg.roboteducativo.dto.ResumenImportacionDTO;
+import com.umg.roboteducativo.dto.TeselaDTO;
+import com.umg.roboteducativo.dto.VersionCatalogoDTO;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.engine.CaminoBinario;
+import com.umg.roboteducativo.engine.MetricasCamino;
+import com.umg.roboteducativo.engine.Solucion;
+import com.umg.roboteducativo.engine.Solucionador;
+import com.umg.roboteducativo.engine.ValidadorCamino;
 import com.umg.roboteducativo.model.Administrador;
 import com.umg.roboteducativo.model.Pista;
 import com.umg.roboteducativo.repository.AdministradorRepository;
 import com.umg.roboteducativo.repository.PistaRepository;
+import com.umg.roboteducativo.service.EscritorExportacion.FormatoExportacion;
+import com.umg.roboteducativo.service.MotorRobotService.PistaCompilada;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class PistaService {
 
+    // Cambia cuando cambian las columnas exportadas, para que el ETag no valide archivos de otro formato
+    private static final int VERSION_EXPORTACION = 2;
+
+    // Lado máximo de la región que devuelve una tesela
+    private static final int LADO_MAXIMO_TESELA = 64;
+
+    // Máximo de pistas por consulta de dificultad
+    private static final int LIMITE_MAXIMO_DIFICULTAD = 200;
+
+    // Límites de la entidad Pista y de PistaDTO, revisados a mano en la importación
+    private static final int LARGO_MAXIMO_NOMBRE = 100;
+    private static final int DIMENSION_MAXIMA = 1000;
+
+    // Se agrega al nombre de una pista importada si ya existe otra con ese nombre
+    private static final String SUFIJO_IMPORTADA = " (importada";
+
+    private static final List<String> COLUMNAS_EXPORTACION = List.of(
+        "id", "nombre", "creadoPor", "fechaCreacion", "fechaModificacion", "activa",
+        "ancho", "alto", "longitud", "giros", "programaMinimo", "configuracionJson", "camino"
+    );
+
     private final PistaRepository pistaRepository;
     private final AdministradorRepository administradorRepository;
     private final BitacoraService bitacoraService;
+    private final PistaAleatoriaCache pistaAleatoriaCache;
+    private final CacheVeredictos cacheVeredictos;
+    private final SolucionadorService solucionadorService;
+    private final MotorRobotService motorRobotService;
+    private final EscritorExportacion escritorExportacion;
 
     /**
      * Obtiene una pista aleatoria activa
      * Método principal para cargar pistas en el juego
+     * Se resuelve desde el snapshot en memoria, sin consultar la base de datos
      */
-    @Transactional(readOnly = true)
     public PistaDTO obtenerPistaAleatoria() {
-        return pistaRepository.obtenerPistaAleatoria()
-                .map(this::convertirADTO)
+        return pistaAleatoriaCache.obtenerAleatoria()
                 .orElseThrow(() -> new RuntimeException("No hay pistas activas disponibles"));
     }
 
+    /**
+     * Obtiene el paquete de pistas activas para que el cliente las elija localmente
+     * Se arma junto con el snapshot en memoria; la versión sirve de ETag
+     */
+    public PaquetePistasDTO obtenerPaquete() {
+        return pistaAleatoriaCache.obtenerPaquete();
+    }
+
     /**
      * Obtiene todas las pistas activas
+     * Se resuelve desde el snapshot en memoria, igual que la pista aleatoria
      */
-    @Transactional(readOnly = true)
     public List<PistaDTO> obtenerPistasActivas() {
-        return pistaRepository.findByActivaTrue().stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return pistaAleatoriaCache.obtenerActivas();
     }
 
     /**
@@ -74,6 +138,10 @@ public class PistaService {
         Pista pista = new Pista();
         pista.setNombre(pistaDTO.getNombre());
         pista.setConfiguracionJson(pistaDTO.getConfiguracionJson());
+        pista.setAncho(pistaDTO.getAncho() != null ? pistaDTO.getAncho() : Pista.DIMENSION_PREDETERMINADA);
+        pista.setAlto(pistaDTO.getAlto() != null ? pistaDTO.getAlto() : Pista.DIMENSION_PREDETERMINADA);
+        Solucion solucion = prepararCamino(pista);
+        verificarCaminoUnico(pista, null);
         pista.setActiva(true);
 
         // Buscar el administrador si se proporciona username
@@ -84,6 +152,8 @@ public class PistaService {
         }
 
         Pista pistaGuardada = pistaRepository.save(pista);
+        solucionadorService.guardar(pistaGuardada, solucion);
+        recargarCacheAlConfirmar();
 
         // Registrar en bitácora
         if (username != null) {
@@ -98,6 +168,142 @@ public class PistaService {
         return convertirADTO(pistaGuardada);
     }
 
+    /**
+     * Guarda en una sola transacción, con INSERT por lotes, las pistas producidas por el generador.
+     * Cada camino pasa por la misma validación que una pista creada a mano.
+     */
+    @Transactional
+    public List<PistaDTO> crearPistasGeneradas(List<Pista> pistas, String username) {
+        Administrador admin = username != null
+                ? administradorRepository.findByUsername(username).orElse(null)
+                : null;
+
+        List<Solucion> soluciones = new ArrayList<>(pistas.size());
+        for (Pista pista : pistas) {
+            soluciones.add(prepararCamino(pista));
+            pista.setActiva(true);
+            pista.setCreadoPor(admin);
+        }
+        Map<Long, List<Pista>> existentes = buscarPorHuella(pistas);
+        for (Pista pista : pistas) {
+            Pista igual = buscarIgual(existentes.get(pista.getHashContenido()), pista.getCaminoBinario());
+            if (igual != null) {
+                throw new RuntimeException("Ya existe una pista con el mismo camino: " + igual.getNombre());
+            }
+        }
+
+        pistaRepository.insertarLote(pistas);
+        solucionadorService.guardarNuevas(pistas, soluciones);
+        recargarCacheAlConfirmar();
+
+        // Un solo registro en bitácora para todo el lote
+        if (username != null) {
+            bitacoraService.registrarAccion(
+                username,
+                "GENERAR_PISTAS",
+                "Pistas generadas: " + pistas.size(),
+                null
+            );
+        }
+
+        return pistas.stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Importa un archivo de pistas en una sola transacción.
+     * Primero se valida todo en memoria; luego una consulta busca los caminos repetidos,
+     * otra los nombres usados, y las pistas nuevas se insertan en un lote JDBC.
+     * Las pistas con error o con un camino que ya existe se informan y se omiten.
+     */
+    @Transactional
+    public ResumenImportacionDTO importarPistas(List<PistaDTO> pistasDTO, String username) {
+        ResultadoImportacionDTO[] resultados = new ResultadoImportacionDTO[pistasDTO.size()];
+        List<Pista> validas = new ArrayList<>();
+        List<Solucion> solucionesValidas = new ArrayList<>();
+        List<Integer> indicesValidos = new ArrayList<>();
+
+        for (int i = 0; i < pistasDTO.size(); i++) {
+            PistaDTO dto = pistasDTO.get(i);
+            try {
+                Pista pista = crearPistaImportada(dto);
+                solucionesValidas.add(prepararCamino(pista));
+                validas.add(pista);
+                indicesValidos.add(i);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = new ResultadoImportacionDTO(i, dto.getNombre(), ResultadoImportacionDTO.ERROR, null, e.getMessage());
+            }
+        }
+
+        // Caminos repetidos, contra la base de datos y dentro del mismo archivo
+        Map<Long, List<Pista>> existentes = buscarPorHuella(validas);
+        Map<Long, List<Pista>> delArchivo = new HashMap<>();
+        List<Pista> nuevas = new ArrayList<>();
+        List<Solucion> soluciones = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (int k = 0; k < validas.size(); k++) {
+            Pista pista = validas.get(k);
+            int indice = indicesValidos.get(k);
+            Pista igual = buscarIgual(existentes.get(pista.getHashContenido()), pista.getCaminoBinario());
+            if (igual != null) {
+                resultados[indice] = new ResultadoImportacionDTO(indice, pista.getNombre(), ResultadoImportacionDTO.DUPLICADA,
+                    igual.getId(), "Ya existe una pista con el mismo camino: " + igual.getNombre());
+                continue;
+            }
+            igual = buscarIgual(delArchivo.get(pista.getHashContenido()), pista.getCaminoBinario());
+            if (igual != null) {
+                resultados[indice] = new ResultadoImportacionDTO(indice, pista.getNombre(), ResultadoImportacionDTO.DUPLICADA,
+                    null, "El archivo repite el camino de: " + igual.getNombre());
+                continue;
+            }
+            delArchivo.computeIfAbsent(pista.getHashContenido(), hash -> new ArrayList<>()).add(pista);
+            nuevas.add(pista);
+            soluciones.add(solucionesValidas.get(k));
+            indices.add(indice);
+        }
+
+        asignarNombresImportados(nuevas);
+        Administrador admin = username != null
+                ? administradorRepository.findByUsername(username).orElse(null)
+                : null;
+        nuevas.forEach(pista -> pista.setCreadoPor(admin));
+
+        pistaRepository.insertarLote(nuevas);
+        solucionadorService.guardarNuevas(nuevas, soluciones);
+        for (int k = 0; k < nuevas.size(); k++) {
+            Pista pista = nuevas.get(k);
+            resultados[indices.get(k)] = new ResultadoImportacionDTO(indices.get(k), pista.getNombre(),
+                ResultadoImportacionDTO.IMPORTADA, pista.getId(), null);
+        }
+        if (!nuevas.isEmpty()) {
+            recargarCacheAlConfirmar();
+        }
+
+        int duplicadas = 0;
+        int fallidas = 0;
+        for (ResultadoImportacionDTO resultado : resultados) {
+            if (ResultadoImportacionDTO.DUPLICADA.equals(resultado.getEstado())) {
+                duplicadas++;
+            } else if (ResultadoImportacionDTO.ERROR.equals(resultado.getEstado())) {
+                fallidas++;
+            }
+        }
+
+        // Un solo registro en bitácora para todo el archivo
+        if (username != null) {
+            bitacoraService.registrarAccion(
+                username,
+                "IMPORTAR_PISTAS",
+                "Pistas importadas: " + nuevas.size() + " de " + resultados.length
+                    + " (duplicadas: " + duplicadas + ", con error: " + fallidas + ")",
+                null
+            );
+        }
+
+        return new ResumenImportacionDTO(resultados.length, nuevas.size(), duplicadas, fallidas, Arrays.asList(resultados));
+    }
+
     /**
      * Actualiza una pista existente
      */
@@ -112,13 +318,39 @@ public class PistaService {
             throw new RuntimeException("Ya existe una pista con el nombre: " + pistaDTO.getNombre());
         }
 
+        // Se compara el camino binario: el JSON de la pista ya no se guarda
+        byte[] caminoNuevo = codificarCamino(pistaDTO.getConfiguracionJson());
+        boolean caminoCambio = !Arrays.equals(pista.getCaminoBinario(), caminoNuevo);
+
+        boolean dimensionesCambiaron = (pistaDTO.getAncho() != null && !pistaDTO.getAncho().equals(pista.getAncho()))
+                || (pistaDTO.getAlto() != null && !pistaDTO.getAlto().equals(pista.getAlto()));
+
         pista.setNombre(pistaDTO.getNombre());
-        pista.setConfiguracionJson(pistaDTO.getConfiguracionJson());
+        if (caminoCambio) {
+            pista.setCaminoBinario(caminoNuevo);
+        }
+        if (pistaDTO.getAncho() != null) {
+            pista.setAncho(pistaDTO.getAncho());
+        }
+        if (pistaDTO.getAlto() != null) {
+            pista.setAlto(pistaDTO.getAlto());
+        }
+        // Solo se revalida si cambió el camino o la cuadrícula (ej. activar/desactivar no lo toca)
+        Solucion solucion = caminoCambio || dimensionesCambiaron ? prepararCamino(pista) : null;
+        if (caminoCambio) {
+            verificarCaminoUnico(pista, id);
+        }
         if (pistaDTO.getActiva() != null) {
             pista.setActiva(pistaDTO.getActiva());
         }
 
-        Pista pistaActualizada = pistaRepository.save(pista);
+        // Flush para que @PreUpdate actualice fechaModificacion antes de calcular la solución
+        Pista pistaActualizada = pistaRepository.saveAndFlush(pista);
+        recargarCacheAlConfirmar();
+        if (caminoCambio) {
+            solucionadorService.guardar(pistaActualizada, solucion);
+            invalidarVeredictosAlConfirmar(id);
+        }
 
         // Registrar en bitácora
         if (username != null) {
@@ -143,6 +375,7 @@ public class PistaService {
 
         pista.setActiva(false);
         pistaRepository.save(pista);
+        recargarCacheAlConfirmar();
 
         // Registrar en bitácora
         if (username != null) {
@@ -164,7 +397,10 @@ public class PistaService {
                 .orElseThrow(() -> new RuntimeException("Pista no encontrada con ID: " + id));
 
         String nombrePista = pista.getNombre();
+        solucionadorService.eliminar(id);
         pistaRepository.deleteById(id);
+        recargarCacheAlConfirmar();
+        invalidarVeredictosAlConfirmar(id);
 
         // Registrar en bitácora
         if (username != null) {
@@ -187,6 +423,108 @@ public class PistaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene las celdas del camino dentro de una región de la pista, sin enviar el camino completo.
+     * Si no se indica la esquina de la región, se centra en la posición inicial del robot.
+     */
+    public TeselaDTO obtenerTesela(Integer id, Integer x, Integer y, int ancho, int alto) {
+        if (ancho < 1 || alto < 1 || ancho > LADO_MAXIMO_TESELA || alto > LADO_MAXIMO_TESELA) {
+            throw new IllegalArgumentException("La región debe medir entre 1 y " + LADO_MAXIMO_TESELA + " celdas por lado");
+        }
+        PistaCompilada pista = motorRobotService.obtenerCamino(id);
+        Camino camino = pista.camino();
+
+        // Recortar la región a la cuadrícula de la pista
+        int anchoRegion = Math.min(ancho, pista.ancho());
+        int altoRegion = Math.min(alto, pista.alto());
+        int desdeX = x != null ? x : camino.inicioX() - anchoRegion / 2;
+        int desdeY = y != null ? y : camino.inicioY() - altoRegion / 2;
+        desdeX = Math.max(0, Math.min(desdeX, pista.ancho() - anchoRegion));
+        desdeY = Math.max(0, Math.min(desdeY, pista.alto() - altoRegion));
+
+        return new TeselaDTO(
+            id,
+            desdeX,
+            desdeY,
+            anchoRegion,
+            altoRegion,
+            pista.ancho(),
+            pista.alto(),
+            camino.inicioX(),
+            camino.inicioY(),
+            camino.direccionInicial(),
+            camino.finX(),
+            camino.finY(),
+            camino.celdasEnRegion(desdeX, desdeY, anchoRegion, altoRegion)
+        );
+    }
+
+    /**
+     * Obtiene las pistas activas por dificultad (largo del programa mínimo), con una consulta indexada
+     */
+    @Transactional(readOnly = true)
+    public List<PistaDTO> obtenerPorDificultad(int minimo, int maximo, int limite) {
+        if (minimo > maximo) {
+            throw new IllegalArgumentException("El mínimo no puede ser mayor que el máximo");
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO_DIFICULTAD) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_DIFICULTAD);
+        }
+        return pistaRepository.findActivasPorDificultad(minimo, maximo, PageRequest.of(0, limite));
+    }
+
+    /**
+     * Obtiene los grupos de pistas que tienen exactamente el mismo camino
+     */
+    @Transactional(readOnly = true)
+    public List<GrupoDuplicadosDTO> obtenerDuplicados() {
+        Map<Long, List<PistaDTO>> grupos = new LinkedHashMap<>();
+        for (Pista pista : pistaRepository.findConCaminoRepetido()) {
+            grupos.computeIfAbsent(pista.getHashContenido(), hash -> new ArrayList<>()).add(convertirADTO(pista));
+        }
+        return grupos.entrySet().stream()
+                .map(grupo -> new GrupoDuplicadosDTO(Long.toHexString(grupo.getKey()), grupo.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * ETag de la exportación de pistas. Cambia al crear, modificar, desactivar o eliminar
+     * una pista; se calcula con una consulta agregada, sin leer las filas.
+     * @param variante formato, camino y compresión (cada combinación es un archivo distinto)
+     */
+    @Transactional(readOnly = true)
+    public String calcularEtagExportacion(String variante) {
+        VersionCatalogoDTO version = pistaRepository.obtenerVersionCatalogo();
+        return "\"pistas-v" + VERSION_EXPORTACION + "-" + version.getTotalPistas() + "-" + version.getUltimaModificacion() + "-" + variante + "\"";
+    }
+
+    /**
+     * Exporta todas las pistas directamente al flujo de salida, fila por fila
+     * @return cantidad de pistas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportar(FormatoExportacion formato, FormatoCamino formatoCamino, boolean gzip,
+                         OutputStream salida) throws IOException {
+        try (Stream<PistaDTO> filas = pistaRepository.streamParaExportar()) {
+            return escritorExportacion.escribir(filas.map(formatoCamino::aplicar), formato, gzip, salida,
+                COLUMNAS_EXPORTACION, fila -> new Object[] {
+                    fila.getId(),
+                    fila.getNombre(),
+                    fila.getCreadoPor(),
+                    fila.getFechaCreacion(),
+                    fila.getFechaModificacion(),
+                    fila.getActiva(),
+                    fila.getAncho(),
+                    fila.getAlto(),
+                    fila.getLongitud(),
+                    fila.getGiros(),
+                    fila.getProgramaMinimo(),
+                    fila.getConfiguracionJson(),
+                    fila.getCamino() != null ? Base64.getEncoder().encodeToString(fila.getCamino()) : null
+                });
+        }
+    }
+
     /**
      * Cuenta las pistas activas
      */
@@ -195,6 +533,242 @@ public class PistaService {
         return pistaRepository.countByActivaTrue();
     }
 
+    /**
+     * Programa la recarga del snapshot de pistas activas para cuando la transacción confirme
+     */
+    private void recargarCacheAlConfirmar() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pistaAleatoriaCache.recargar();
+            }
+        });
+    }
+
+    /**
+     * Descarta los veredictos en caché de la pista cuando la transacción confirme
+     */
+    private void invalidarVeredictosAlConfirmar(Integer pistaId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheVeredictos.invalidarPista(pistaId);
+                motorRobotService.olvidarCamino(pistaId);
+            }
+        });
+    }
+
+    /**
+     * Genera el camino binario de las pistas guardadas antes de existir esa columna
+     * @return cantidad de pistas completadas
+     */
+    @Transactional
+    public int completarCaminosBinarios() {
+        int completadas = 0;
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Pista pista : pistaRepository.findByCaminoBinarioIsNull()) {
+            try {
+                pistaRepository.actualizarCaminoBinario(pista.getId(), codificarCamino(pista.getConfiguracionJson()), ahora);
+                completadas++;
+            } catch (IllegalArgumentException e) {
+                // Se sigue leyendo desde el JSON
+                log.warn("No se pudo codificar el camino de la pista {}: {}", pista.getId(), e.getMessage());
+            }
+        }
+        if (completadas > 0) {
+            recargarCacheAlConfirmar();
+        }
+        return completadas;
+    }
+
+    /**
+     * Calcula la huella del camino de las pistas guardadas antes de existir esa columna
+     * @return cantidad de pistas completadas
+     */
+    @Transactional
+    public int completarHashes() {
+        List<Pista> pistas = pistaRepository.findByHashContenidoIsNullAndCaminoBinarioIsNotNull();
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Pista pista : pistas) {
+            pistaRepository.actualizarHashContenido(pista.getId(), CaminoBinario.huella(pista.getCaminoBinario()), ahora);
+        }
+        return pistas.size();
+    }
+
+    /**
+     * Calcula las métricas de dificultad de las pistas guardadas antes de existir esas columnas.
+     * Las pistas cuyo camino no pasa la validación quedan sin métricas (no aparecen al filtrar por dificultad).
+     * @return cantidad de pistas completadas
+     */
+    @Transactional
+    public int completarMetricas() {
+        int completadas = 0;
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Pista pista : pistaRepository.findByProgramaMinimoIsNull()) {
+            try {
+                Camino camino = motorRobotService.leerCamino(pista.getCaminoBinario(), pista.getConfiguracionJson());
+                MetricasCamino metricas = ValidadorCamino.validar(camino, pista.getAncho(), pista.getAlto());
+                int programaMinimo = Solucionador.resolver(camino).programaOptimo().length;
+                pistaRepository.actualizarMetricas(pista.getId(), metricas.longitud(), metricas.giros(), programaMinimo, ahora);
+                completadas++;
+            } catch (IllegalArgumentException e) {
+                log.warn("La pista {} tiene un camino inválido: {}", pista.getId(), e.getMessage());
+            }
+        }
+        if (completadas > 0) {
+            recargarCacheAlConfirmar();
+        }
+        return completadas;
+    }
+
+    /**
+     * @throws IllegalArgumentException si el JSON no es un camino válido
+     */
+    private byte[] codificarCamino(String configuracionJson) {
+        return CaminoBinario.codificar(motorRobotService.parsearCamino(configuracionJson));
+    }
+
+    /**
+     * Valida el camino de la pista (binario o, si no lo tiene, JSON) y completa su forma binaria
+     * y sus métricas de dificultad. Solo se guarda el binario: el JSON de un camino largo no cabe
+     * en la columna y se genera al enviarlo. Todo es proporcional a la longitud del camino;
+     * devuelve la solución para guardarla junto a la pista.
+     * @throws IllegalArgumentException si no es un camino válido (continuo, sin repetir celdas y dentro de la cuadrícula)
+     */
+    private Solucion prepararCamino(Pista pista) {
+        Camino camino = motorRobotService.leerCamino(pista.getCaminoBinario(), pista.getConfiguracionJson());
+        MetricasCamino metricas = ValidadorCamino.validar(camino, pista.getAncho(), pista.getAlto());
+        Solucion solucion = Solucionador.resolver(camino);
+
+        pista.setConfiguracionJson(null);
+        pista.setCaminoBinario(CaminoBinario.codificar(camino));
+        pista.setHashContenido(CaminoBinario.huella(pista.getCaminoBinario()));
+        pista.setLongitud(metricas.longitud());
+        pista.setGiros(metricas.giros());
+        pista.setProgramaMinimo(solucion.programaOptimo().length);
+        return solucion;
+    }
+
+    /**
+     * Pista nueva (sin guardar) a partir de una entrada del archivo de importación
+     * @throws IllegalArgumentException si faltan datos o están fuera de rango
+     */
+    private Pista crearPistaImportada(PistaDTO dto) {
+        String nombre = dto.getNombre() != null ? dto.getNombre().trim() : "";
+        if (nombre.isEmpty()) {
+            throw new IllegalArgumentException("El nombre de la pista es obligatorio");
+        }
+        if (nombre.length() > LARGO_MAXIMO_NOMBRE) {
+            throw new IllegalArgumentException("El nombre no puede exceder " + LARGO_MAXIMO_NOMBRE + " caracteres");
+        }
+        // Los archivos exportados con formato compacto traen solo el camino binario
+        String configuracionJson = dto.getConfiguracionJson();
+        boolean conJson = configuracionJson != null && !configuracionJson.isBlank();
+        if (!conJson && dto.getCamino() == null) {
+            throw new IllegalArgumentException("La configuración JSON es obligatoria");
+        }
+        int ancho = dto.getAncho() != null ? dto.getAncho() : Pista.DIMENSION_PREDETERMINADA;
+        int alto = dto.getAlto() != null ? dto.getAlto() : Pista.DIMENSION_PREDETERMINADA;
+        if (ancho < 1 || alto < 1 || ancho > DIMENSION_MAXIMA || alto > DIMENSION_MAXIMA) {
+            throw new IllegalArgumentException("El ancho y el alto deben estar entre 1 y " + DIMENSION_MAXIMA);
+        }
+
+        Pista pista = new Pista();
+        pista.setNombre(nombre);
+        if (conJson) {
+            pista.setConfiguracionJson(configuracionJson);
+        } else {
+            pista.setCaminoBinario(dto.getCamino());
+        }
+        pista.setAncho(ancho);
+        pista.setAlto(alto);
+        pista.setActiva(true);
+        return pista;
+    }
+
+    /**
+     * Deja los nombres de las pistas importadas únicos; si ya existe, agrega " (importada)",
+     * " (importada 2)", etc. Una consulta para todos los nombres y otra solo por cada choque.
+     * Los nombres se comparan con {@link #claveNombre}, como los compara el índice UNIQUE.
+     */
+    private void asignarNombresImportados(List<Pista> pistas) {
+        if (pistas.isEmpty()) {
+            return;
+        }
+        Set<String> usados = new HashSet<>();
+        pistaRepository.findNombresExistentes(pistas.stream().map(Pista::getNombre).collect(Collectors.toSet()))
+                .forEach(nombre -> usados.add(claveNombre(nombre)));
+        for (Pista pista : pistas) {
+            String nombre = pista.getNombre();
+            if (usados.contains(claveNombre(nombre))) {
+                pistaRepository.findNombresConPrefijo(recortar(nombre, SUFIJO_IMPORTADA) + SUFIJO_IMPORTADA)
+                        .forEach(existente -> usados.add(claveNombre(existente)));
+                String sufijo = SUFIJO_IMPORTADA + ")";
+                for (int numero = 2; usados.contains(claveNombre(recortar(pista.getNombre(), sufijo) + sufijo)); numero++) {
+                    sufijo = SUFIJO_IMPORTADA + " " + numero + ")";
+                }
+                nombre = recortar(pista.getNombre(), sufijo) + sufijo;
+            }
+            pista.setNombre(nombre);
+            usados.add(claveNombre(nombre));
+        }
+    }
+
+    /**
+     * Nombre como lo compara la intercalación de MariaDB (utf8mb4_general_ci): sin distinguir
+     * mayúsculas ni tildes e ignorando los espacios finales. Así "abc" choca con "ABC" o "Ábc "
+     * aquí, y no en el INSERT por lotes, que desharía toda la importación.
+     */
+    private static String claveNombre(String nombre) {
+        String sinTildes = Normalizer.normalize(nombre.stripTrailing(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    private static String recortar(String nombre, String sufijo) {
+        return nombre.substring(0, Math.min(nombre.length(), LARGO_MAXIMO_NOMBRE - sufijo.length()));
+    }
+
+    /**
+     * Pistas guardadas con alguna de las huellas de las pistas dadas, agrupadas por huella (una consulta)
+     */
+    private Map<Long, List<Pista>> buscarPorHuella(List<Pista> pistas) {
+        if (pistas.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> hashes = pistas.stream().map(Pista::getHashContenido).collect(Collectors.toSet());
+        return pistaRepository.findByHashContenidoIn(hashes).stream()
+                .collect(Collectors.groupingBy(Pista::getHashContenido));
+    }
+
+    /**
+     * Primera pista de la lista con exactamente el mismo camino, o null.
+     * Los bytes se comparan para descartar colisiones de la huella.
+     */
+    private static Pista buscarIgual(List<Pista> candidatas, byte[] caminoBinario) {
+        if (candidatas != null) {
+            for (Pista candidata : candidatas) {
+                if (Arrays.equals(candidata.getCaminoBinario(), caminoBinario)) {
+                    return candidata;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rechaza el camino si otra pista ya tiene exactamente el mismo.
+     * Una búsqueda por la huella indexada; los bytes se comparan solo para descartar colisiones.
+     * @param idActual ID de la pista que se actualiza (null al crear)
+     */
+    private void verificarCaminoUnico(Pista pista, Integer idActual) {
+        for (Pista otra : pistaRepository.findByHashContenido(pista.getHashContenido())) {
+            if (!otra.getId().equals(idActual) && Arrays.equals(otra.getCaminoBinario(), pista.getCaminoBinario())) {
+                throw new RuntimeException("Ya existe una pista con el mismo camino: " + otra.getNombre());
+            }
+        }
+    }
+
     /**
      * Convierte una entidad Pista a PistaDTO
      */
@@ -206,6 +780,12 @@ public class PistaService {
         dto.setFechaCreacion(pista.getFechaCreacion());
         dto.setFechaModificacion(pista.getFechaModificacion());
         dto.setActiva(pista.getActiva());
+        dto.setCamino(pista.getCaminoBinario());
+        dto.setAncho(pista.getAncho());
+        dto.setAlto(pista.getAlto());
+        dto.setLongitud(pista.getLongitud());
+        dto.setGiros(pista.getGiros());
+        dto.setProgramaMinimo(pista.getProgramaMinimo());
         
         if (pista.getCreadoPor() != null) {
             dto.setCreadoPor(pista.getCreadoPor().getNombre());
@@ -0,0 +1,245 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.dto.DistanciaCeldaDTO;
+import com.umg.roboteducativo.dto.SolucionPistaDTO;
+import com.umg.roboteducativo.dto.SugerenciaDTO;
+import com.umg.roboteducativo.engine.Instruccion;
+import com.umg.roboteducativo.engine.Solucion;
+import com.umg.roboteducativo.engine.Solucionador;
+import com.umg.roboteducativo.model.Pista;
+import com.umg.roboteducativo.model.SolucionPista;
+import com.umg.roboteducativo.repository.PistaRepository;
+import com.umg.roboteducativo.repository.SolucionPistaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calcula y guarda la solución óptima de cada pista al guardarla, y responde
+ * sugerencias ("mejor siguiente movimiento") desde la tabla precalculada
+ */
+@Service
+@Slf4j
+public class SolucionadorService {
+
+    private final SolucionPistaRepository solucionPistaRepository;
+    private final PistaRepository pistaRepository;
+    private final MotorRobotService motorRobotService;
+    private final ObjectMapper objectMapper;
+
+    // Tablas ya decodificadas por pista; se descartan cuando la pista cambia o al llenarse
+    private final Map<Integer, Solucion> soluciones = new ConcurrentHashMap<>();
+    private final int capacidadMaxima;
+
+    // Cambia en cada invalidación; evita guardar una tabla leída antes de invalidar
+    private final AtomicLong generacion = new AtomicLong();
+
+    public SolucionadorService(
+            SolucionPistaRepository solucionPistaRepository,
+            PistaRepository pistaRepository,
+            MotorRobotService motorRobotService,
+            ObjectMapper objectMapper,
+            @Value("${robot.soluciones.cache.max:1000}") int capacidadMaxima) {
+        this.solucionPistaRepository = solucionPistaRepository;
+        this.pistaRepository = pistaRepository;
+        this.motorRobotService = motorRobotService;
+        this.objectMapper = objectMapper;
+        this.capacidadMaxima = capacidadMaxima;
+    }
+
+    /**
+     * Resuelve el camino de la pista y guarda la solución junto a ella.
+     * Si el camino no se puede interpretar, elimina la solución anterior.
+     */
+    @Transactional
+    public void calcularYGuardar(Pista pista) {
+        Solucion solucion;
+        try {
+            solucion = Solucionador.resolver(
+                motorRobotService.leerCamino(pista.getCaminoBinario(), pista.getConfiguracionJson()));
+        } catch (IllegalArgumentException e) {
+            log.warn("No se pudo resolver la pista {}: {}", pista.getId(), e.getMessage());
+            solucionPistaRepository.deleteById(pista.getId());
+            invalidarAlConfirmar(pista.getId());
+            return;
+        }
+        guardar(pista, solucion);
+    }
+
+    /**
+     * Guarda una solución ya calculada (ej. durante la validación de la pista)
+     */
+    @Transactional
+    public void guardar(Pista pista, Solucion solucion) {
+        SolucionPista entidad = solucionPistaRepository.findById(pista.getId()).orElseGet(SolucionPista::new);
+        byte[] programa = solucion.programaOptimo();
+        entidad.setPista(pista);
+        entidad.setFechaModificacionPista(pista.getFechaModificacion());
+        entidad.setProgramaOptimo(programa == null ? null : convertirAJson(programa));
+        entidad.setLongitudOptima(programa == null ? null : programa.length);
+        entidad.setTablaMovimientos(solucion.serializar());
+        entidad.setFechaCalculo(LocalDateTime.now());
+        solucionPistaRepository.save(entidad);
+
+        invalidarAlConfirmar(pista.getId());
+    }
+
+    /**
+     * Guarda en un solo lote JDBC las soluciones de pistas recién insertadas (ej. importación)
+     * @param pistas pistas ya insertadas, con ID
+     * @param soluciones solución de cada pista, en el mismo orden
+     */
+    @Transactional
+    public void guardarNuevas(List<Pista> pistas, List<Solucion> soluciones) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<SolucionPista> entidades = new ArrayList<>(pistas.size());
+        for (int i = 0; i < pistas.size(); i++) {
+            Pista pista = pistas.get(i);
+            byte[] programa = soluciones.get(i).programaOptimo();
+            SolucionPista entidad = new SolucionPista();
+            entidad.setPistaId(pista.getId());
+            entidad.setFechaModificacionPista(pista.getFechaModificacion());
+            entidad.setProgramaOptimo(programa == null ? null : convertirAJson(programa));
+            entidad.setLongitudOptima(programa == null ? null : programa.length);
+            entidad.setTablaMovimientos(soluciones.get(i).serializar());
+            entidad.setFechaCalculo(ahora);
+            entidades.add(entidad);
+            invalidarAlConfirmar(pista.getId());
+        }
+        solucionPistaRepository.insertarLote(entidades);
+    }
+
+    /**
+     * Calcula la solución de las pistas que todavía no la tienen (ej. creadas antes de esta tabla)
+     */
+    @Transactional
+    public int completarFaltantes() {
+        List<Pista> pendientes = pistaRepository.findSinSolucion();
+        pendientes.forEach(this::calcularYGuardar);
+        return pendientes.size();
+    }
+
+    /**
+     * Elimina la solución de una pista que se va a borrar
+     */
+    @Transactional
+    public void eliminar(Integer pistaId) {
+        solucionPistaRepository.deleteById(pistaId);
+        invalidarAlConfirmar(pistaId);
+    }
+
+    /**
+     * Mejor siguiente movimiento desde el estado (x, y, dirección), en O(1)
+     * @throws IllegalArgumentException si la posición no pertenece al camino
+     */
+    public SugerenciaDTO obtenerSugerencia(Integer pistaId, int x, int y, int direccion) {
+        Solucion solucion = obtenerSolucion(pistaId);
+        byte movimiento = solucion.siguienteMovimiento(x, y, direccion);
+        int distancia = solucion.distancia(x, y, direccion);
+        return new SugerenciaDTO(
+            movimiento == Solucion.NINGUNO ? null : Instruccion.nombre(movimiento),
+            distancia == Solucion.INALCANZABLE ? null : distancia,
+            distancia == 0
+        );
+    }
+
+    /**
+     * Programa óptimo y distancia mínima de cada celda al final
+     */
+    public SolucionPistaDTO obtenerSolucionDTO(Integer pistaId) {
+        Solucion solucion = obtenerSolucion(pistaId);
+        byte[] programa = solucion.programaOptimo();
+
+        List<DistanciaCeldaDTO> distancias = new ArrayList<>(solucion.cantidadCeldas());
+        for (int i = 0; i < solucion.cantidadCeldas(); i++) {
+            int distancia = solucion.distanciaCelda(i);
+            distancias.add(new DistanciaCeldaDTO(
+                solucion.x(i), solucion.y(i), distancia == Solucion.INALCANZABLE ? null : distancia));
+        }
+
+        return new SolucionPistaDTO(
+            pistaId,
+            programa == null ? null : convertirANombres(programa),
+            programa == null ? null : programa.length,
+            distancias
+        );
+    }
+
+    private Solucion obtenerSolucion(Integer pistaId) {
+        Solucion solucion = soluciones.get(pistaId);
+        if (solucion != null) {
+            return solucion;
+        }
+        long generacionInicial = generacion.get();
+        solucion = solucionPistaRepository.findById(pistaId)
+                .map(entidad -> Solucion.deserializar(entidad.getTablaMovimientos()))
+                // Pista sin solución guardada: se resuelve en memoria
+                .orElseGet(() -> Solucionador.resolver(motorRobotService.obtenerCamino(pistaId).camino()));
+        if (generacion.get() == generacionInicial) {
+            if (soluciones.size() >= capacidadMaxima) {
+                descartarAlgunas();
+            }
+            soluciones.put(pistaId, solucion);
+        }
+        return solucion;
+    }
+
+    /**
+     * Libera espacio descartando tablas arbitrarias (igual que CacheVeredictos al llenarse).
+     * /sugerencia es público: sin este límite cada ID consultado quedaría en memoria.
+     */
+    private void descartarAlgunas() {
+        int objetivo = capacidadMaxima - Math.max(1, capacidadMaxima / 10);
+        Iterator<Integer> ids = soluciones.keySet().iterator();
+        while (soluciones.size() > objetivo && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+        }
+    }
+
+    /**
+     * Tablas decodificadas que hay en memoria
+     */
+    int tamanioCache() {
+        return soluciones.size();
+    }
+
+    private void invalidarAlConfirmar(Integer pistaId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generacion.incrementAndGet();
+                soluciones.remove(pistaId);
+            }
+        });
+    }
+
+    private List<String> convertirANombres(byte[] programa) {
+        List<String> movimientos = new ArrayList<>(programa.length);
+        for (byte instruccion : programa) {
+            movimientos.add(Instruccion.nombre(instruccion));
+        }
+        return movimientos;
+    }
+
+    private String convertirAJson(byte[] programa) {
+        try {
+            return objectMapper.writeValueAsString(convertirANombres(programa));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el programa óptimo", e);
+        }
+    }
+}
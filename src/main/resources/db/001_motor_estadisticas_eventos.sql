@@ -0,0 +1,50 @@
+-- Cambios de esquema del motor de pistas, las soluciones precalculadas y la ingesta de eventos.
+-- Aplicar a mano antes de desplegar (fuera de dev Hibernate solo valida el esquema).
+-- Se puede ejecutar más de una vez: solo crea lo que falta (MariaDB 10.5+).
+
+-- Dimensiones, camino binario, huella y métricas de dificultad de cada pista.
+-- camino_binario, hash_contenido y las métricas los completa la aplicación al arrancar.
+ALTER TABLE pista
+    ADD COLUMN IF NOT EXISTS camino_binario BLOB NULL,
+    ADD COLUMN IF NOT EXISTS hash_contenido BIGINT NULL,
+    ADD COLUMN IF NOT EXISTS ancho INT NOT NULL DEFAULT 5,
+    ADD COLUMN IF NOT EXISTS alto INT NOT NULL DEFAULT 5,
+    ADD COLUMN IF NOT EXISTS longitud INT NULL,
+    ADD COLUMN IF NOT EXISTS giros INT NULL,
+    ADD COLUMN IF NOT EXISTS programa_minimo INT NULL;
+
+-- El camino se guarda solo en camino_binario: el JSON de un camino largo no cabe en TEXT (64 KB),
+-- así que las pistas nuevas lo dejan en null y se genera al enviarlo.
+ALTER TABLE pista MODIFY COLUMN configuracion_json TEXT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_pista_activa_programa_minimo ON pista (activa, programa_minimo, id);
+CREATE INDEX IF NOT EXISTS idx_pista_activa_longitud ON pista (activa, longitud, id);
+CREATE INDEX IF NOT EXISTS idx_pista_activa_giros ON pista (activa, giros, id);
+CREATE INDEX IF NOT EXISTS idx_pista_hash_contenido ON pista (hash_contenido);
+CREATE INDEX IF NOT EXISTS idx_pista_fecha_modificacion ON pista (fecha_modificacion);
+
+-- Paginación por cursor de la bitácora
+CREATE INDEX IF NOT EXISTS idx_bitacora_fecha_id ON bitacora (fecha_hora, id);
+CREATE INDEX IF NOT EXISTS idx_bitacora_accion_fecha_id ON bitacora (accion, fecha_hora, id);
+CREATE INDEX IF NOT EXISTS idx_bitacora_admin_fecha_id ON bitacora (administrador_id, fecha_hora, id);
+
+-- Solución óptima y tabla de sugerencias de cada pista
+CREATE TABLE IF NOT EXISTS solucion_pista (
+    pista_id INT NOT NULL,
+    fecha_modificacion_pista DATETIME(6) NOT NULL,
+    programa_optimo TEXT NULL,
+    longitud_optima INT NULL,
+    tabla_movimientos MEDIUMBLOB NOT NULL,
+    fecha_calculo DATETIME(6) NOT NULL,
+    PRIMARY KEY (pista_id),
+    CONSTRAINT fk_solucion_pista_pista FOREIGN KEY (pista_id) REFERENCES pista (id)
+) ENGINE = InnoDB;
+
+-- Claves de idempotencia de los lotes de eventos ya aplicados
+CREATE TABLE IF NOT EXISTS evento_procesado (
+    clave VARCHAR(64) NOT NULL,
+    fecha_recepcion DATETIME(6) NOT NULL,
+    PRIMARY KEY (clave)
+) ENGINE = InnoDB;
+
+CREATE INDEX IF NOT EXISTS idx_evento_procesado_fecha_recepcion ON evento_procesado (fecha_recepcion);
@@ -453,15 +453,15 @@ async function exportarPista(id) {
  */
 async function exportarTodasLasPistas() {
     try {
-        const response = await fetchWithAuth(`${API_BASE_URL}/pistas/todas`);
-        const data = await response.json();
+        // NDJSON comprimido; si el catálogo no cambió, el navegador lo revalida con el ETag (304)
+        const response = await fetchWithAuth(`${API_BASE_URL}/pistas/exportar`);
 
-        if (data.success) {
-            const blob = new Blob([JSON.stringify(data.data, null, 2)], { type: 'application/json' });
+        if (response.ok) {
+            const blob = await response.blob();
             const url = URL.createObjectURL(blob);
             const a = document.createElement('a');
             a.href = url;
-            a.download = `pistas-backup-${new Date().toISOString().split('T')[0]}.json`;
+            a.download = `pistas-backup-${new Date().toISOString().split('T')[0]}.ndjson.gz`;
             a.click();
             URL.revokeObjectURL(url);
             
@@ -501,42 +501,35 @@ document.getElementById('formImportar').addEventListener('submit', async (e) =>
     }
 
     try {
-        const texto = await archivo.text();
-        const pistas = JSON.parse(texto);
         const username = getUsername();
 
-        // Verificar si es un array o un objeto individual
-        const pistasArray = Array.isArray(pistas) ? pistas : [pistas];
-
-        let exitosos = 0;
-        let fallidos = 0;
-
-        for (const pista of pistasArray) {
-            try {
-                const response = await fetchWithAuth(
-                    `${API_BASE_URL}/pistas?username=${username}`,
-                    {
-                        method: 'POST',
-                        body: JSON.stringify({
-                            nombre: pista.nombre + ' (importada)',
-                            configuracionJson: pista.configuracionJson,
-                            activa: true
-                        })
-                    }
-                );
-
-                const data = await response.json();
-                if (data.success) {
-                    exitosos++;
-                } else {
-                    fallidos++;
-                }
-            } catch (error) {
-                fallidos++;
+        // El servidor lee el archivo completo (JSON, NDJSON o .gz), lo valida y lo guarda en una sola transacción
+        const response = await fetchWithAuth(
+            `${API_BASE_URL}/pistas/importar?username=${username}`,
+            {
+                method: 'POST',
+                body: archivo
             }
+        );
+        const data = await response.json();
+
+        if (!data.success) {
+            alert('Error al importar: ' + data.message);
+            return;
         }
 
-        alert(`Importación completada:\n✅ Exitosas: ${exitosos}\n❌ Fallidas: ${fallidos}`);
+        const resumen = data.data;
+        const errores = resumen.resultados
+            .filter(r => r.estado !== 'IMPORTADA')
+            .slice(0, 10)
+            .map(r => `• ${r.nombre || 'Pista ' + (r.indice + 1)}: ${r.mensaje}`);
+
+        let mensaje = `Importación completada:\n✅ Exitosas: ${resumen.importadas}\n` +
+            `🔁 Duplicadas: ${resumen.duplicadas}\n❌ Fallidas: ${resumen.fallidas}`;
+        if (errores.length > 0) {
+            mensaje += '\n\n' + errores.join('\n');
+        }
+        alert(mensaje);
         cerrarModalImportar();
         cargarPistas();
 
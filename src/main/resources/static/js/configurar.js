@@ -4,9 +4,12 @@
 //const API_BASE_URL = 'http://localhost:8080/api';
 //const API_BASE_URL = 'http://52.15.106.18:8080/api';
 const API_BASE_URL = 'http://ec2-52-15-106-18.us-east-2.compute.amazonaws.com:8080/api';
-const GRID_SIZE = 5;
+const TAMANIO_PREDETERMINADO = 5; // Cuadrícula de las pistas nuevas
+const TAMANIO_MAXIMO_EDITABLE = 32; // Las pistas más grandes no se editan celda por celda
 
 let caminoActual = [];
+let anchoActual = TAMANIO_PREDETERMINADO;
+let altoActual = TAMANIO_PREDETERMINADO;
 let pistaActualId = null;
 
 /**
@@ -28,15 +31,19 @@ document.addEventListener('DOMContentLoaded', async () => {
 /**
  * Inicializa el tablero configurable
  */
-function inicializarConfiguracion() {
+function inicializarConfiguracion(ancho = TAMANIO_PREDETERMINADO, alto = TAMANIO_PREDETERMINADO) {
+    anchoActual = ancho;
+    altoActual = alto;
+
     const tablero = document.getElementById('tablero');
     tablero.innerHTML = '';
-    tablero.style.gridTemplateColumns = `repeat(${GRID_SIZE}, 1fr)`;
-    tablero.style.gridTemplateRows = `repeat(${GRID_SIZE}, 1fr)`;
+    tablero.style.gridTemplateColumns = `repeat(${ancho}, 1fr)`;
+    tablero.style.gridTemplateRows = `repeat(${alto}, 1fr)`;
+    tablero.classList.toggle('grande', ancho > 8 || alto > 8);
 
     // Crear cuadrícula configurable
-    for (let y = 0; y < GRID_SIZE; y++) {
-        for (let x = 0; x < GRID_SIZE; x++) {
+    for (let y = 0; y < alto; y++) {
+        for (let x = 0; x < ancho; x++) {
             const celda = document.createElement('div');
             celda.className = 'celda configurable';
             celda.dataset.x = x;
@@ -89,9 +96,7 @@ function toggleCelda(x, y) {
 function limpiarTablero() {
     caminoActual = [];
     pistaActualId = null;
-    document.querySelectorAll('.celda').forEach(celda => {
-        celda.classList.remove('camino');
-    });
+    inicializarConfiguracion();
 }
 
 /**
@@ -135,6 +140,8 @@ async function guardarPista() {
             body: JSON.stringify({
                 nombre: nombre,
                 configuracionJson: configuracionJson,
+                ancho: anchoActual,
+                alto: altoActual,
                 activa: true
             })
         });
@@ -251,15 +258,20 @@ async function cargarPista(id) {
 
         if (data.success) {
             const pista = data.data;
+            const ancho = pista.ancho || TAMANIO_PREDETERMINADO;
+            const alto = pista.alto || TAMANIO_PREDETERMINADO;
+
+            if (ancho > TAMANIO_MAXIMO_EDITABLE || alto > TAMANIO_MAXIMO_EDITABLE) {
+                alert(`❌ La pista "${pista.nombre}" mide ${ancho}x${alto} y no se puede editar celda por celda`);
+                return;
+            }
             
             // IMPORTANTE: Establecer el ID de la pista actual
             pistaActualId = pista.id;
             caminoActual = JSON.parse(pista.configuracionJson);
             
-            // Limpiar tablero
-            document.querySelectorAll('.celda').forEach(celda => {
-                celda.classList.remove('camino');
-            });
+            // Tablero limpio con las dimensiones de la pista
+            inicializarConfiguracion(ancho, alto);
             
             // Marcar camino
             caminoActual.forEach(punto => {
@@ -4,12 +4,20 @@
 //const API_BASE_URL = 'http://localhost:8080/api';
 //const API_BASE_URL = 'http://52.15.106.18:8080/api';
 const API_BASE_URL = 'http://ec2-52-15-106-18.us-east-2.compute.amazonaws.com:8080/api';
-const GRID_SIZE = 5;
+const VISTA_MAXIMA = 15; // Celdas por lado que se muestran de una pista grande
+const PAQUETE_REVISION_MS = 5 * 60 * 1000; // Cada cuánto se revalida el paquete de pistas con el servidor
+const VISITAS_ENVIO_MS = 60 * 1000; // Antigüedad máxima de las visitas acumuladas antes de enviarlas
+const VISITAS_LOTE_MAXIMO = 20; // Se envían antes si se acumulan tantas
+const VISITAS_ENVIO_MAXIMO = 50; // Visitas que acepta el servidor por petición; el resto queda para el próximo envío
+const EVENTOS_PENDIENTES_MAXIMO = 500; // Intentos sin conexión que se conservan para reenviar
+const REINTENTO_ESPERA_MAXIMA_MS = 5000; // Tope de espera (Retry-After) antes de reintentar un intento
 
 let pistaActual = null;
+let vista = null; // Región visible de una pista grande ({x, y, ancho, alto}); null si se ve completa
 let robot = new Robot();
 let movimientosManager = new MovimientosManager();
 let ejecutorMovimientos = null;
+let pausasEnvio = {}; // Hasta cuándo no se reenvía a cada endpoint tras un 429 (Retry-After)
 
 /**
  * Inicialización al cargar la página
@@ -18,6 +26,10 @@ document.addEventListener('DOMContentLoaded', () => {
     inicializarJuego();
     configurarEventListeners();
     verificarSiEstaLogueado();
+    setInterval(() => {
+        enviarVisitas();
+        enviarEventosPendientes();
+    }, VISITAS_ENVIO_MS);
 });
 
 /**
@@ -65,27 +77,49 @@ function configurarEventListeners() {
 }
 
 /**
- * Carga una pista aleatoria desde el backend
+ * Elige una pista aleatoria del paquete local; si no hay paquete, la pide al backend
  */
 async function cargarPistaAleatoria() {
     try {
-        const response = await fetch(`${API_BASE_URL}/pistas/aleatoria`);
-        const data = await response.json();
+        let data;
+        const pistas = await obtenerPaquete();
+        if (pistas.length > 0) {
+            data = { success: true, data: elegirPista(pistas) };
+            registrarVisitaLocal(data.data.id);
+        } else {
+            const response = await fetch(`${API_BASE_URL}/pistas/aleatoria?formato=teselas`);
+            data = await response.json();
+        }
 
         if (data.success) {
             pistaActual = data.data;
-            const camino = JSON.parse(pistaActual.configuracionJson);
-            
-            // Configurar robot
-            robot.setCamino(camino);
-            
+            sessionStorage.setItem('ultimaPista', pistaActual.id);
+            document.getElementById('nombrePista').textContent = pistaActual.nombre;
+
+            if (pistaActual.camino || pistaActual.configuracionJson) {
+                const camino = pistaActual.camino
+                    ? decodificarCamino(pistaActual.camino)
+                    : JSON.parse(pistaActual.configuracionJson);
+
+                // Configurar robot y renderizar la cuadrícula completa
+                vista = null;
+                robot.setCamino(camino);
+                renderizarTablero(camino);
+            } else {
+                // Pista grande: solo se descarga la región visible alrededor del robot
+                const tesela = await cargarVista(null, null);
+                robot.setExtremos(
+                    { x: tesela.inicioX, y: tesela.inicioY },
+                    { x: tesela.finX, y: tesela.finY },
+                    tesela.direccionInicial
+                );
+                robot.agregarCeldas(tesela.celdas);
+                dibujarRegion(vista, robot.celdas);
+            }
+
             // Configurar ejecutor
             ejecutorMovimientos = new EjecutorMovimientos(robot, verificarMovimiento);
             
-            // Renderizar
-            document.getElementById('nombrePista').textContent = pistaActual.nombre;
-            renderizarTablero(camino);
-            
         } else {
             throw new Error(data.message);
         }
@@ -96,24 +130,315 @@ async function cargarPistaAleatoria() {
 }
 
 /**
- * Renderiza el tablero con la pista
+ * Obtiene las pistas activas del paquete guardado en la sesión.
+ * Se revalida cada PAQUETE_REVISION_MS con If-None-Match; si no cambió, el servidor responde 304 sin cuerpo.
+ * Devuelve [] si no se pudo obtener (se usa /aleatoria como respaldo).
+ */
+async function obtenerPaquete() {
+    const guardado = JSON.parse(sessionStorage.getItem('paquetePistas') || 'null');
+    if (guardado && Date.now() - guardado.revisado < PAQUETE_REVISION_MS) {
+        return guardado.pistas;
+    }
+
+    try {
+        const headers = guardado ? { 'If-None-Match': `"${guardado.version}"` } : {};
+        const response = await fetch(`${API_BASE_URL}/pistas/paquete`, { headers });
+        let paquete = guardado;
+        if (response.status !== 304) {
+            const data = await response.json();
+            if (!data.success) {
+                throw new Error(data.message);
+            }
+            paquete = { version: data.data.version, pistas: data.data.pistas };
+        }
+        paquete.revisado = Date.now();
+        sessionStorage.setItem('paquetePistas', JSON.stringify(paquete));
+        return paquete.pistas;
+    } catch (error) {
+        console.error('Error al obtener paquete de pistas:', error);
+        return guardado ? guardado.pistas : [];
+    }
+}
+
+/**
+ * Elige una pista al azar, evitando repetir la anterior si hay más de una
+ */
+function elegirPista(pistas) {
+    const ultima = Number(sessionStorage.getItem('ultimaPista'));
+    const candidatas = pistas.length > 1 ? pistas.filter(p => p.id !== ultima) : pistas;
+    return candidatas[Math.floor(Math.random() * candidatas.length)];
+}
+
+/**
+ * Acumula la visita en localStorage; se envía en lote cuando hay suficientes o la más vieja ya esperó VISITAS_ENVIO_MS
+ */
+function registrarVisitaLocal(pistaId) {
+    const pendientes = JSON.parse(localStorage.getItem('visitasPendientes') || '{"visitas":{}}');
+    pendientes.visitas[pistaId] = (pendientes.visitas[pistaId] || 0) + 1;
+    pendientes.desde = pendientes.desde || Date.now();
+    localStorage.setItem('visitasPendientes', JSON.stringify(pendientes));
+
+    const total = Object.values(pendientes.visitas).reduce((suma, cantidad) => suma + cantidad, 0);
+    if (total >= VISITAS_LOTE_MAXIMO || Date.now() - pendientes.desde >= VISITAS_ENVIO_MS) {
+        enviarVisitas();
+    }
+}
+
+/**
+ * Un 429 (límite de tasa), un 409 (intento aún en curso), un 408 o un 5xx pueden
+ * salir bien más tarde; cualquier otro 4xx es un rechazo definitivo
+ */
+function esReintentable(response) {
+    return response.status === 408 || response.status === 409 || response.status === 429 || response.status >= 500;
+}
+
+/**
+ * Milisegundos que pide esperar el encabezado Retry-After (en segundos), o porDefecto si no viene
+ */
+function esperaReintento(response, porDefecto) {
+    const segundos = Number(response.headers.get('Retry-After'));
+    return Number.isFinite(segundos) && segundos > 0 ? segundos * 1000 : porDefecto;
+}
+
+/**
+ * Tras un 429 no se vuelve a enviar a ese endpoint hasta que pase el Retry-After
+ */
+function pausarEnvio(endpoint, response) {
+    if (response.status === 429) {
+        pausasEnvio[endpoint] = Date.now() + esperaReintento(response, VISITAS_ENVIO_MS);
+    }
+}
+
+function envioPausado(endpoint) {
+    return Date.now() < (pausasEnvio[endpoint] || 0);
+}
+
+/**
+ * Envía hasta VISITAS_ENVIO_MAXIMO visitas acumuladas en una sola petición; el resto queda pendiente,
+ * y si falla la red o el servidor pide reintentar (429, 5xx), las enviadas se conservan para el próximo envío
+ */
+async function enviarVisitas() {
+    const pendientes = JSON.parse(localStorage.getItem('visitasPendientes') || 'null');
+    if (!pendientes || envioPausado('visitas')) {
+        return;
+    }
+    const visitas = [];
+    let disponibles = VISITAS_ENVIO_MAXIMO;
+    for (const [pistaId, cantidad] of Object.entries(pendientes.visitas)) {
+        if (disponibles === 0) {
+            break;
+        }
+        const enviadas = Math.min(cantidad, disponibles);
+        visitas.push({ pistaId: Number(pistaId), cantidad: enviadas });
+        disponibles -= enviadas;
+        if (enviadas === cantidad) {
+            delete pendientes.visitas[pistaId];
+        } else {
+            pendientes.visitas[pistaId] = cantidad - enviadas;
+        }
+    }
+    if (Object.keys(pendientes.visitas).length === 0) {
+        localStorage.removeItem('visitasPendientes');
+    } else {
+        localStorage.setItem('visitasPendientes', JSON.stringify(pendientes));
+    }
+
+    try {
+        const response = await fetch(`${API_BASE_URL}/pistas/visitas`, {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ visitas })
+        });
+        if (!response.ok && esReintentable(response)) {
+            console.error('El servidor no aceptó las visitas todavía:', response.status);
+            pausarEnvio('visitas', response);
+            devolverVisitas(visitas, pendientes.desde);
+        }
+    } catch (error) {
+        console.error('Error al enviar visitas:', error);
+        devolverVisitas(visitas, pendientes.desde);
+    }
+}
+
+/**
+ * Vuelve a sumar las visitas no enviadas a las que se acumularon mientras tanto
+ */
+function devolverVisitas(visitas, desde) {
+    const actuales = JSON.parse(localStorage.getItem('visitasPendientes') || '{"visitas":{}}');
+    visitas.forEach(v => {
+        actuales.visitas[v.pistaId] = (actuales.visitas[v.pistaId] || 0) + v.cantidad;
+    });
+    actuales.desde = Math.min(actuales.desde || Date.now(), desde);
+    localStorage.setItem('visitasPendientes', JSON.stringify(actuales));
+}
+
+/**
+ * Clave única por intento; crypto.randomUUID solo existe en contextos seguros (https)
+ */
+function nuevaClaveIdempotencia() {
+    return window.crypto && crypto.randomUUID
+        ? crypto.randomUUID()
+        : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}-${Math.random().toString(36).slice(2)}`;
+}
+
+/**
+ * Guarda un intento que no se pudo enviar; se reenvía por lotes a /pistas/eventos
+ */
+function guardarEventoPendiente(tipo, movimientos, idempotencyKey) {
+    const pendientes = JSON.parse(localStorage.getItem('eventosPendientes') || '[]');
+    pendientes.push({
+        pistaId: pistaActual.id,
+        tipo,
+        timestamp: new Date().toISOString(),
+        idempotencyKey,
+        movimientos
+    });
+    localStorage.setItem('eventosPendientes', JSON.stringify(pendientes.slice(-EVENTOS_PENDIENTES_MAXIMO)));
+}
+
+/**
+ * Reenvía los intentos pendientes; el servidor ignora las claves ya procesadas,
+ * así que se pueden reintentar sin contar dos veces
+ */
+async function enviarEventosPendientes() {
+    const eventos = JSON.parse(localStorage.getItem('eventosPendientes') || '[]');
+    if (eventos.length === 0 || envioPausado('eventos')) {
+        return;
+    }
+    try {
+        const respuesta = await fetch(`${API_BASE_URL}/pistas/eventos`, {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ eventos })
+        });
+        // 429 y 5xx se reintentan en el próximo envío; un lote rechazado (otro 4xx) no mejoraría
+        if (esReintentable(respuesta)) {
+            console.error('El servidor no aceptó los eventos todavía:', respuesta.status);
+            pausarEnvio('eventos', respuesta);
+        } else {
+            const enviadas = new Set(eventos.map(e => e.idempotencyKey));
+            const actuales = JSON.parse(localStorage.getItem('eventosPendientes') || '[]');
+            localStorage.setItem('eventosPendientes',
+                JSON.stringify(actuales.filter(e => !enviadas.has(e.idempotencyKey))));
+        }
+    } catch (error) {
+        console.error('Error al enviar eventos pendientes:', error);
+    }
+}
+
+/**
+ * Decodifica el camino compacto (Base64) que envía el servidor con formato=compacto
+ * Formato: [modo][cantidad][x inicial][y inicial][pasos...] con enteros varint/zigzag;
+ * modo 1 = una dirección de 2 bits por paso, modo 2 = deltas (dx, dy) por paso
+ */
+function decodificarCamino(base64) {
+    const bytes = Uint8Array.from(atob(base64), c => c.charCodeAt(0));
+    const DX = [0, 1, 0, -1];
+    const DY = [-1, 0, 1, 0];
+    let pos = 0;
+
+    const leerVarint = () => {
+        let valor = 0;
+        let desplazamiento = 0;
+        let b;
+        do {
+            b = bytes[pos++];
+            valor |= (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while (b & 0x80);
+        return valor >>> 0;
+    };
+    const leerZigzag = () => {
+        const v = leerVarint();
+        return (v >>> 1) ^ -(v & 1);
+    };
+
+    const modo = bytes[pos++];
+    const cantidad = leerVarint();
+    const camino = [{ x: leerZigzag(), y: leerZigzag() }];
+    let actual = 0;
+
+    for (let i = 1; i < cantidad; i++) {
+        const anterior = camino[i - 1];
+        if (modo === 1) {
+            const desplazamiento = ((i - 1) & 3) << 1;
+            if (desplazamiento === 0) {
+                actual = bytes[pos++];
+            }
+            const direccion = (actual >> desplazamiento) & 3;
+            camino.push({ x: anterior.x + DX[direccion], y: anterior.y + DY[direccion] });
+        } else {
+            const dx = leerZigzag();
+            const dy = leerZigzag();
+            camino.push({ x: anterior.x + dx, y: anterior.y + dy });
+        }
+    }
+    return camino;
+}
+
+/**
+ * Renderiza el tablero con la pista completa
  */
 function renderizarTablero(camino) {
+    const celdas = new Set(camino.map(p => `${p.x},${p.y}`));
+    dibujarRegion({ x: 0, y: 0, ancho: pistaActual.ancho || 5, alto: pistaActual.alto || 5 }, celdas);
+}
+
+/**
+ * Pide al backend las celdas del camino de la región visible de una pista grande
+ * Sin coordenadas, la región se centra en la posición inicial del robot
+ */
+async function cargarVista(x, y) {
+    const params = new URLSearchParams({ ancho: VISTA_MAXIMA, alto: VISTA_MAXIMA });
+    if (x !== null) {
+        params.set('x', x);
+        params.set('y', y);
+    }
+    const response = await fetch(`${API_BASE_URL}/pistas/${pistaActual.id}/tesela?${params}`);
+    const data = await response.json();
+    if (!data.success) {
+        throw new Error(data.message);
+    }
+    const tesela = data.data;
+    vista = { x: tesela.x, y: tesela.y, ancho: tesela.ancho, alto: tesela.alto };
+    return tesela;
+}
+
+/**
+ * En pistas grandes, mueve la región visible si el robot salió de ella
+ */
+async function asegurarRobotVisible() {
+    if (!vista) return;
+    const dentro = robot.x >= vista.x && robot.x < vista.x + vista.ancho &&
+                   robot.y >= vista.y && robot.y < vista.y + vista.alto;
+    if (dentro) return;
+
+    const mitad = Math.floor(VISTA_MAXIMA / 2);
+    const tesela = await cargarVista(robot.x - mitad, robot.y - mitad);
+    robot.agregarCeldas(tesela.celdas);
+    dibujarRegion(vista, robot.celdas);
+}
+
+/**
+ * Dibuja la cuadrícula de la región indicada marcando las celdas del camino ("x,y")
+ */
+function dibujarRegion(region, celdas) {
     const tablero = document.getElementById('tablero');
     tablero.innerHTML = '';
-    tablero.style.gridTemplateColumns = `repeat(${GRID_SIZE}, 1fr)`;
-    tablero.style.gridTemplateRows = `repeat(${GRID_SIZE}, 1fr)`;
+    tablero.style.gridTemplateColumns = `repeat(${region.ancho}, 1fr)`;
+    tablero.style.gridTemplateRows = `repeat(${region.alto}, 1fr)`;
+    tablero.classList.toggle('grande', region.ancho > 8 || region.alto > 8);
 
     // Crear cuadrícula
-    for (let y = 0; y < GRID_SIZE; y++) {
-        for (let x = 0; x < GRID_SIZE; x++) {
+    for (let y = region.y; y < region.y + region.alto; y++) {
+        for (let x = region.x; x < region.x + region.ancho; x++) {
             const celda = document.createElement('div');
             celda.className = 'celda';
             celda.dataset.x = x;
             celda.dataset.y = y;
 
             // Marcar camino
-            if (camino.some(p => p.x === x && p.y === y)) {
+            if (celdas.has(`${x},${y}`)) {
                 celda.classList.add('camino');
             }
 
@@ -226,6 +551,7 @@ async function ejecutarMovimientos() {
 
     // Reiniciar robot
     robot.reiniciar();
+    await asegurarRobotVisible();
     actualizarRobotEnTablero();
 
     // Ejecutar
@@ -248,8 +574,9 @@ async function ejecutarMovimientos() {
 /**
  * Verifica si el movimiento es válido
  */
-function verificarMovimiento(indice, tipo) {
+async function verificarMovimiento(indice, tipo) {
     // Actualizar visualización
+    await asegurarRobotVisible();
     actualizarRobotEnTablero();
 
     // Solo verificar si es un movimiento adelante
@@ -268,37 +595,64 @@ function verificarMovimiento(indice, tipo) {
 /**
  * Reinicia el juego
  */
-function reiniciarJuego() {
+async function reiniciarJuego() {
     movimientosManager.limpiar();
     renderizarListaMovimientos();
     robot.reiniciar();
+    await asegurarRobotVisible();
     actualizarRobotEnTablero();
 }
 
+/**
+ * Programa enviado al backend: el servidor lo vuelve a ejecutar y decide el resultado
+ */
+function programaActual() {
+    return { movimientos: movimientosManager.obtener().map(mov => mov.tipo) };
+}
+
 /**
  * Registra un éxito en el backend
  */
 async function registrarExito() {
-    try {
-        await fetch(`${API_BASE_URL}/pistas/${pistaActual.id}/exito`, {
-            method: 'POST'
-        });
-    } catch (error) {
-        console.error('Error al registrar éxito:', error);
-    }
+    await registrarIntento('exito', 'EXITO');
 }
 
 /**
  * Registra un fallo en el backend
  */
 async function registrarFallo() {
-    try {
-        await fetch(`${API_BASE_URL}/pistas/${pistaActual.id}/fallo`, {
-            method: 'POST'
-        });
-    } catch (error) {
-        console.error('Error al registrar fallo:', error);
+    await registrarIntento('fallo', 'FALLO');
+}
+
+/**
+ * Envía el intento con una Idempotency-Key; si la red falla o el servidor pide reintentar
+ * (429, 409, 5xx) se reintenta una vez con la misma clave (el servidor no lo cuenta dos veces)
+ * respetando Retry-After y, si sigue sin aceptarse, queda pendiente
+ */
+async function registrarIntento(ruta, tipo) {
+    const programa = programaActual();
+    const clave = nuevaClaveIdempotencia();
+    for (let intento = 0; intento < 2; intento++) {
+        let espera = 1000;
+        try {
+            const response = await fetch(`${API_BASE_URL}/pistas/${pistaActual.id}/${ruta}`, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json', 'Idempotency-Key': clave },
+                body: JSON.stringify(programa)
+            });
+            if (response.ok || !esReintentable(response)) {
+                return;
+            }
+            console.error(`El servidor no aceptó el ${ruta} todavía:`, response.status);
+            espera = Math.min(esperaReintento(response, espera), REINTENTO_ESPERA_MAXIMA_MS);
+        } catch (error) {
+            console.error(`Error al registrar ${ruta}:`, error);
+        }
+        if (intento === 0) {
+            await new Promise(resolve => setTimeout(resolve, espera));
+        }
     }
+    guardarEventoPendiente(tipo, programa.movimientos, clave);
 }
 
 /**
@@ -7,6 +7,9 @@ class Robot {
         this.y = 0;
         this.direccion = 0; // 0=arriba, 1=derecha, 2=abajo, 3=izquierda
         this.camino = [];
+        this.celdas = new Set(); // Celdas conocidas del camino ("x,y")
+        this.final = null;
+        this.direccionInicial = null; // Dada por el servidor en pistas grandes
         this.posicionInicial = { x: 0, y: 0 };
     }
 
@@ -15,18 +18,46 @@ class Robot {
      */
     setCamino(camino) {
         this.camino = camino;
+        this.celdas = new Set(camino.map(punto => `${punto.x},${punto.y}`));
+        this.direccionInicial = null;
         if (camino.length > 0) {
             this.posicionInicial = { x: camino[0].x, y: camino[0].y };
+            this.final = camino[camino.length - 1];
             this.x = camino[0].x;
             this.y = camino[0].y;
             this.calcularDireccionInicial();
         }
     }
 
+    /**
+     * Prepara el robot para una pista grande, cuyo camino llega por teselas
+     */
+    setExtremos(inicio, fin, direccionInicial) {
+        this.camino = [];
+        this.celdas = new Set();
+        this.posicionInicial = { x: inicio.x, y: inicio.y };
+        this.final = { x: fin.x, y: fin.y };
+        this.direccionInicial = direccionInicial;
+        this.reiniciar();
+    }
+
+    /**
+     * Agrega las celdas de una tesela (pares x,y) a las celdas conocidas del camino
+     */
+    agregarCeldas(celdas) {
+        for (let i = 0; i < celdas.length; i += 2) {
+            this.celdas.add(`${celdas[i]},${celdas[i + 1]}`);
+        }
+    }
+
     /**
      * Calcula la dirección inicial del robot basada en el segundo punto del camino
      */
     calcularDireccionInicial() {
+        if (this.direccionInicial !== null) {
+            this.direccion = this.direccionInicial;
+            return;
+        }
         if (this.camino.length < 2) {
             this.direccion = 0; // Arriba por defecto
             return;
@@ -85,16 +116,15 @@ class Robot {
      * Verifica si el robot está en el camino válido
      */
     estaEnCamino() {
-        return this.camino.some(punto => punto.x === this.x && punto.y === this.y);
+        return this.celdas.has(`${this.x},${this.y}`);
     }
 
     /**
      * Verifica si el robot llegó al final del camino
      */
     llegoAlFinal() {
-        if (this.camino.length === 0) return false;
-        const ultimoPunto = this.camino[this.camino.length - 1];
-        return this.x === ultimoPunto.x && this.y === ultimoPunto.y;
+        if (!this.final) return false;
+        return this.x === this.final.x && this.y === this.final.y;
     }
 
     /**
@@ -225,7 +255,7 @@ class EjecutorMovimientos {
             
             // Notificar al callback
             if (this.callback) {
-                const resultado = this.callback(i, mov.tipo);
+                const resultado = await this.callback(i, mov.tipo);
                 if (!resultado.exito) {
                     this.ejecutando = false;
                     return { exito: false, mensaje: resultado.mensaje };
@@ -0,0 +1,149 @@
+package com.umg.roboteducativo.controller;
+
+import com.umg.roboteducativo.model.Estadistica;
+import com.umg.roboteducativo.model.Pista;
+import com.umg.roboteducativo.repository.EstadisticaRepository;
+import com.umg.roboteducativo.repository.PistaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fija la cantidad de sentencias SQL por endpoint de estadísticas,
+ * para detectar regresiones N+1 al cargar la pista de cada fila
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@WithMockUser
+class EstadisticaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PistaRepository pistaRepository;
+
+    @Autowired
+    private EstadisticaRepository estadisticaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Integer pistaId;
+
+    @BeforeEach
+    void preparar() {
+        LocalDate hoy = LocalDate.now();
+        // Varias pistas con varios días cada una: con N+1 habría una consulta extra por pista
+        for (int i = 0; i < 3; i++) {
+            Pista pista = new Pista();
+            pista.setNombre("Pista " + i);
+            pista.setConfiguracionJson("[{\"x\":0,\"y\":0},{\"x\":1,\"y\":0}]");
+            pista.setActiva(true);
+            pista = pistaRepository.save(pista);
+            pistaId = pista.getId();
+
+            for (int dia = 0; dia < 3; dia++) {
+                Estadistica estadistica = new Estadistica();
+                estadistica.setPista(pista);
+                estadistica.setFecha(hoy.minusDays(dia));
+                estadistica.setTotalVisitas(10);
+                estadistica.setCompletacionesExitosas(4);
+                estadistica.setCompletacionesFallidas(2);
+                estadisticaRepository.save(estadistica);
+            }
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void limpiar() {
+        estadisticaRepository.deleteAll();
+        pistaRepository.deleteAll();
+    }
+
+    @Test
+    void estadisticasHoyEjecutaUnaSentencia() throws Exception {
+        mockMvc.perform(get("/api/estadisticas/hoy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(3))
+                .andExpect(jsonPath("$.data[0].pista").isNotEmpty());
+        assertSentencias(1);
+    }
+
+    @Test
+    void estadisticasPorPistaEjecutaUnaSentencia() throws Exception {
+        mockMvc.perform(get("/api/estadisticas/pista/{pistaId}", pistaId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(3));
+        assertSentencias(1);
+    }
+
+    @Test
+    void estadisticasPorRangoEjecutaUnaSentencia() throws Exception {
+        LocalDate hoy = LocalDate.now();
+        mockMvc.perform(get("/api/estadisticas/rango")
+                        .param("fechaInicio", hoy.minusDays(90).toString())
+                        .param("fechaFin", hoy.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(9));
+        assertSentencias(1);
+    }
+
+    @Test
+    void resumenGeneralEjecutaCincoSentencias() throws Exception {
+        mockMvc.perform(get("/api/estadisticas/resumen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalVisitas").value(90));
+        // Tres sumas de contadores más los conteos de pistas y administradores activos
+        assertSentencias(5);
+    }
+
+    @Test
+    void resumenPorPistaEjecutaUnaSentencia() throws Exception {
+        mockMvc.perform(get("/api/estadisticas/por-pista"))
+                .andExpect(status().isOk());
+        assertSentencias(1);
+    }
+
+    @Test
+    void rankingsEjecutanUnaSentenciaCadaUno() throws Exception {
+        mockMvc.perform(get("/api/estadisticas/mas-visitadas"))
+                .andExpect(status().isOk());
+        assertSentencias(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/estadisticas/mejor-tasa-exito"))
+                .andExpect(status().isOk());
+        assertSentencias(1);
+    }
+
+    private void assertSentencias(long esperadas) {
+        assertEquals(esperadas, statistics.getPrepareStatementCount(), "Cantidad de sentencias SQL");
+    }
+}
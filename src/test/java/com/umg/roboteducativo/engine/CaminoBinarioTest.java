@@ -0,0 +1,145 @@
+package com.umg.roboteducativo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica la ida y vuelta de los dos modos de codificación y la huella del contenido
+ */
+class CaminoBinarioTest {
+
+    private static final int MODO_DIRECCIONES = 1;
+    private static final int MODO_DELTAS = 2;
+
+    @Test
+    void unCaminoContiguoUsaDosBitsPorPaso() {
+        Camino camino = serpiente(20, 1000);
+
+        byte[] datos = CaminoBinario.codificar(camino);
+
+        assertEquals(MODO_DIRECCIONES, datos[0]);
+        // modo + cantidad (varint de 2 bytes) + inicio (1 + 1) + 999 pasos a 4 por byte
+        assertEquals(1 + 2 + 2 + (camino.longitud() - 1 + 3) / 4, datos.length);
+        assertMismoCamino(camino, CaminoBinario.decodificar(datos));
+    }
+
+    @Test
+    void pasosQueNoTerminanEnUnByteCompletoSeDecodificanIgual() {
+        for (int longitud = 2; longitud <= 9; longitud++) {
+            Camino camino = serpiente(3, longitud);
+            assertMismoCamino(camino, CaminoBinario.decodificar(CaminoBinario.codificar(camino)));
+        }
+    }
+
+    @Test
+    void unCaminoConSaltosUsaDeltasVarintConSigno() {
+        // Coordenadas negativas, saltos largos y un retroceso
+        Camino camino = new Camino(new int[]{-3, 200, 200, -70000, 5}, new int[]{4, 4, -1, 90000, 5});
+
+        byte[] datos = CaminoBinario.codificar(camino);
+
+        assertEquals(MODO_DELTAS, datos[0]);
+        assertMismoCamino(camino, CaminoBinario.decodificar(datos));
+    }
+
+    @Test
+    void unCaminoDeUnSoloPuntoSeConserva() {
+        Camino camino = new Camino(new int[]{7}, new int[]{9});
+
+        assertMismoCamino(camino, CaminoBinario.decodificar(CaminoBinario.codificar(camino)));
+    }
+
+    @Test
+    void elJsonGeneradoDescribeLasMismasCeldas() {
+        Camino camino = new Camino(new int[]{0, 1, 1}, new int[]{0, 0, -1});
+
+        assertEquals("[{\"x\":0,\"y\":0},{\"x\":1,\"y\":0},{\"x\":1,\"y\":-1}]",
+            CaminoBinario.aJson(CaminoBinario.codificar(camino)));
+        assertEquals(CaminoBinario.aJson(camino), CaminoBinario.aJson(CaminoBinario.codificar(camino)));
+    }
+
+    @Test
+    void laHuellaDependeSoloDeLasCeldas() {
+        Camino camino = serpiente(5, 12);
+        Camino mismasCeldas = new Camino(xs(camino), ys(camino));
+        Camino otro = serpiente(6, 12);
+
+        long huella = CaminoBinario.huella(CaminoBinario.codificar(camino));
+
+        assertEquals(huella, CaminoBinario.huella(CaminoBinario.codificar(mismasCeldas)));
+        assertNotEquals(huella, CaminoBinario.huella(CaminoBinario.codificar(otro)));
+        assertNotEquals(huella, CaminoBinario.huella(CaminoBinario.codificar(invertir(camino))));
+    }
+
+    @Test
+    void laHuellaEsFnv1aDe64Bits() {
+        // Vectores de referencia de FNV-1a de 64 bits
+        assertEquals(0xcbf29ce484222325L, CaminoBinario.huella(new byte[0]));
+        assertEquals(0xaf63dc4c8601ec8cL, CaminoBinario.huella(new byte[]{'a'}));
+    }
+
+    @Test
+    void rechazaDatosCorruptos() {
+        byte[] datos = CaminoBinario.codificar(serpiente(4, 10));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> CaminoBinario.decodificar(Arrays.copyOf(datos, datos.length - 1)));
+        byte[] modoDesconocido = datos.clone();
+        modoDesconocido[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> CaminoBinario.decodificar(modoDesconocido));
+        assertThrows(IllegalArgumentException.class, () -> CaminoBinario.decodificar(new byte[]{MODO_DIRECCIONES, 0}));
+        assertThrows(IllegalArgumentException.class,
+            () -> CaminoBinario.decodificar(new byte[]{MODO_DIRECCIONES, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}));
+    }
+
+    /**
+     * Recorre la cuadrícula fila por fila, alternando el sentido, hasta juntar la cantidad de celdas
+     */
+    static Camino serpiente(int ancho, int cantidad) {
+        int[] xs = new int[cantidad];
+        int[] ys = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            int fila = i / ancho;
+            int columna = i % ancho;
+            xs[i] = fila % 2 == 0 ? columna : ancho - 1 - columna;
+            ys[i] = fila;
+        }
+        return new Camino(xs, ys);
+    }
+
+    private static Camino invertir(Camino camino) {
+        int n = camino.longitud();
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = camino.x(n - 1 - i);
+            ys[i] = camino.y(n - 1 - i);
+        }
+        return new Camino(xs, ys);
+    }
+
+    private static int[] xs(Camino camino) {
+        int[] xs = new int[camino.longitud()];
+        Arrays.setAll(xs, camino::x);
+        return xs;
+    }
+
+    private static int[] ys(Camino camino) {
+        int[] ys = new int[camino.longitud()];
+        Arrays.setAll(ys, camino::y);
+        return ys;
+    }
+
+    private static void assertMismoCamino(Camino esperado, Camino obtenido) {
+        assertEquals(esperado.longitud(), obtenido.longitud());
+        for (int i = 0; i < esperado.longitud(); i++) {
+            assertEquals(esperado.x(i), obtenido.x(i), "x del punto " + i);
+            assertEquals(esperado.y(i), obtenido.y(i), "y del punto " + i);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.umg.roboteducativo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica la traducción de movimientos a instrucciones, incluida la expansión de bucles
+ * con las mismas reglas que MovimientosManager.expandirBucles en robot.js
+ */
+class CompiladorProgramaTest {
+
+    private static final byte A = Instruccion.ADELANTE;
+    private static final byte I = Instruccion.GIRAR_IZQUIERDA;
+    private static final byte D = Instruccion.GIRAR_DERECHA;
+
+    @Test
+    void traduceCadaMovimientoAUnaInstruccion() {
+        byte[] programa = CompiladorPrograma.compilar(List.of("adelante", "girar-izquierda", "girar-derecha"));
+
+        assertArrayEquals(new byte[]{A, I, D}, programa);
+    }
+
+    @Test
+    void unBucleCerradoSeEjecutaDosVeces() {
+        byte[] programa = CompiladorPrograma.compilar(
+            List.of("adelante", "bucle", "adelante", "girar-derecha", "bucle", "girar-izquierda"));
+
+        assertArrayEquals(new byte[]{A, A, D, A, D, I}, programa);
+    }
+
+    @Test
+    void unBucleAbiertoAlFinalSeCierraSiTieneContenido() {
+        assertArrayEquals(new byte[]{A, D, D},
+            CompiladorPrograma.compilar(List.of("adelante", "bucle", "girar-derecha")));
+        assertArrayEquals(new byte[]{A},
+            CompiladorPrograma.compilar(List.of("adelante", "bucle")));
+    }
+
+    @Test
+    void unBucleVacioNoAgregaInstrucciones() {
+        assertArrayEquals(new byte[]{A}, CompiladorPrograma.compilar(List.of("bucle", "bucle", "adelante")));
+    }
+
+    @Test
+    void rechazaMovimientosDesconocidos() {
+        assertThrows(IllegalArgumentException.class, () -> CompiladorPrograma.compilar(List.of("saltar")));
+        assertThrows(IllegalArgumentException.class,
+            () -> CompiladorPrograma.compilar(java.util.Arrays.asList("adelante", null)));
+    }
+}
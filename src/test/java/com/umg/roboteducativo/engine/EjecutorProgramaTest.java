@@ -0,0 +1,85 @@
+package com.umg.roboteducativo.engine;
+
+import com.umg.roboteducativo.engine.ResultadoEjecucion.Motivo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica el veredicto del motor y el límite fijo de pasos
+ */
+class EjecutorProgramaTest {
+
+    // (0,0) -> (0,1) -> (1,1) -> (2,1): empieza mirando hacia abajo y gira a la izquierda
+    private static final Camino CAMINO = new Camino(new int[]{0, 0, 1, 2}, new int[]{0, 1, 1, 1});
+
+    private static final int SIN_LIMITE = 1000;
+
+    private static ResultadoEjecucion ejecutar(int limite, String... movimientos) {
+        return EjecutorPrograma.ejecutar(CAMINO, CompiladorPrograma.compilar(List.of(movimientos)), limite);
+    }
+
+    @Test
+    void completaElCaminoCuandoTerminaEnElUltimoPunto() {
+        ResultadoEjecucion resultado = ejecutar(SIN_LIMITE, "adelante", "girar-izquierda", "adelante", "adelante");
+
+        assertTrue(resultado.exito());
+        assertEquals(Motivo.COMPLETADO, resultado.motivo());
+        assertEquals(4, resultado.pasos());
+        assertEquals(2, resultado.x());
+        assertEquals(1, resultado.y());
+    }
+
+    @Test
+    void losBuclesCuentanComoPasosExpandidos() {
+        ResultadoEjecucion resultado = ejecutar(SIN_LIMITE, "adelante", "girar-izquierda", "bucle", "adelante", "bucle");
+
+        assertTrue(resultado.exito());
+        assertEquals(4, resultado.pasos());
+    }
+
+    @Test
+    void fallaAlSalirDelCamino() {
+        ResultadoEjecucion resultado = ejecutar(SIN_LIMITE, "adelante", "adelante");
+
+        assertFalse(resultado.exito());
+        assertEquals(Motivo.FUERA_DEL_CAMINO, resultado.motivo());
+        assertEquals(2, resultado.pasos());
+    }
+
+    @Test
+    void fallaSiNoLlegaAlFinal() {
+        ResultadoEjecucion resultado = ejecutar(SIN_LIMITE, "adelante");
+
+        assertEquals(Motivo.NO_LLEGO_AL_FINAL, resultado.motivo());
+    }
+
+    @Test
+    void rechazaProgramasQueExcedenElLimiteSinEjecutarlos() {
+        ResultadoEjecucion resultado = ejecutar(3, "adelante", "girar-izquierda", "adelante", "adelante");
+
+        assertFalse(resultado.exito());
+        assertEquals(Motivo.LIMITE_DE_PASOS, resultado.motivo());
+        assertEquals(0, resultado.pasos());
+    }
+
+    @Test
+    void girosDeMasNoImpidenCompletarUnCaminoCorto() {
+        // robot.js no limita los pasos: el navegador muestra este programa como completado,
+        // así que el servidor tampoco debe contarlo como fallo (4 giros dejan la misma dirección)
+        List<String> programa = new ArrayList<>(List.of("adelante", "girar-izquierda", "bucle"));
+        programa.addAll(Collections.nCopies(492, "girar-derecha"));
+        programa.addAll(List.of("bucle", "adelante", "adelante"));
+
+        ResultadoEjecucion resultado = ejecutar(SIN_LIMITE, programa.toArray(String[]::new));
+
+        assertTrue(resultado.exito());
+        assertEquals(2 + 2 * 492 + 2, resultado.pasos());
+    }
+}
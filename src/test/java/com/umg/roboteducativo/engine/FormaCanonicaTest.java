@@ -0,0 +1,89 @@
+package com.umg.roboteducativo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Verifica que la forma canónica es la misma para las 8 simetrías del cuadrado y las traslaciones
+ */
+class FormaCanonicaTest {
+
+    // Forma de "L" asimétrica: sus 8 transformaciones son distintas entre sí
+    private static final int[] XS = {0, 0, 0, 1, 2, 2};
+    private static final int[] YS = {0, 1, 2, 2, 2, 3};
+
+    @Test
+    void lasOchoSimetriasTienenLaMismaForma() {
+        long forma = FormaCanonica.calcular(new Camino(XS, YS));
+
+        Set<String> transformados = new HashSet<>();
+        for (int transformacion = 0; transformacion < 8; transformacion++) {
+            Camino camino = transformar(transformacion, 0, 0);
+            transformados.add(Arrays.toString(coordenadas(camino)));
+            assertEquals(forma, FormaCanonica.calcular(camino), "Transformación " + transformacion);
+        }
+        assertEquals(8, transformados.size(), "Las transformaciones deben ser caminos distintos");
+    }
+
+    @Test
+    void unaTraslacionNoCambiaLaForma() {
+        assertEquals(FormaCanonica.calcular(new Camino(XS, YS)),
+            FormaCanonica.calcular(transformar(0, 37, -12)));
+    }
+
+    @Test
+    void formasDistintasTienenHuellasDistintas() {
+        long forma = FormaCanonica.calcular(new Camino(XS, YS));
+
+        // Mismo largo, pero con el último giro hacia el otro lado respecto del primero
+        assertNotEquals(forma, FormaCanonica.calcular(
+            new Camino(new int[]{0, 0, 0, 1, 2, 3}, new int[]{0, 1, 2, 2, 2, 2})));
+        // Un punto más en la misma dirección
+        assertNotEquals(forma, FormaCanonica.calcular(
+            new Camino(new int[]{0, 0, 0, 1, 2, 2, 2}, new int[]{0, 1, 2, 2, 2, 3, 4})));
+    }
+
+    @Test
+    void recorrerElCaminoAlRevesEsLaMismaFormaSoloSiEsSimetrico() {
+        // Una recta recorrida al revés es una rotación de 180 grados de sí misma
+        Camino recta = new Camino(new int[]{0, 1, 2}, new int[]{0, 0, 0});
+        Camino rectaAlReves = new Camino(new int[]{2, 1, 0}, new int[]{0, 0, 0});
+
+        assertEquals(FormaCanonica.calcular(recta), FormaCanonica.calcular(rectaAlReves));
+    }
+
+    /**
+     * Aplica al camino base el reflejo horizontal (t >= 4) y t % 4 rotaciones de 90 grados, y luego traslada
+     */
+    private static Camino transformar(int transformacion, int desplazamientoX, int desplazamientoY) {
+        int[] xs = new int[XS.length];
+        int[] ys = new int[YS.length];
+        for (int i = 0; i < XS.length; i++) {
+            int x = transformacion >= 4 ? -XS[i] : XS[i];
+            int y = YS[i];
+            for (int r = 0; r < (transformacion & 3); r++) {
+                int anterior = x;
+                x = -y;
+                y = anterior;
+            }
+            xs[i] = x + desplazamientoX;
+            ys[i] = y + desplazamientoY;
+        }
+        return new Camino(xs, ys);
+    }
+
+    private static int[] coordenadas(Camino camino) {
+        int[] resultado = new int[camino.longitud() * 2];
+        for (int i = 0; i < camino.longitud(); i++) {
+            resultado[2 * i] = camino.x(i);
+            resultado[2 * i + 1] = camino.y(i);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,123 @@
+package com.umg.roboteducativo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica el bitset disperso por bloques de 8x8 y la consulta por regiones (teselas)
+ */
+class OcupacionDispersaTest {
+
+    @Test
+    void agregarIndicaSiLaCeldaEraNueva() {
+        OcupacionDispersa ocupacion = new OcupacionDispersa(4);
+
+        assertTrue(ocupacion.agregar(3, 3));
+        assertFalse(ocupacion.agregar(3, 3));
+        assertTrue(ocupacion.agregar(4, 3));
+        assertTrue(ocupacion.contiene(3, 3));
+        assertFalse(ocupacion.contiene(3, 4));
+    }
+
+    @Test
+    void distingueCeldasEnLosBordesDeLosBloquesYNegativas() {
+        int[] xs = {7, 8, -1, -8, -9, 0};
+        int[] ys = {0, 0, -1, 7, 8, -8};
+        OcupacionDispersa ocupacion = new OcupacionDispersa(xs, ys);
+
+        for (int i = 0; i < xs.length; i++) {
+            assertTrue(ocupacion.contiene(xs[i], ys[i]), "(" + xs[i] + ", " + ys[i] + ")");
+        }
+        assertFalse(ocupacion.contiene(0, 0));
+        assertFalse(ocupacion.contiene(-1, 0));
+        assertFalse(ocupacion.contiene(-8, 8));
+        assertFalse(ocupacion.contiene(8, -1));
+    }
+
+    @Test
+    void celdasMuyLejanasNoOcupanLaCuadriculaCompleta() {
+        int[] xs = {0, 1_000_000, -1_000_000, 123_456};
+        int[] ys = {0, 1_000_000, 5, -987_654};
+        OcupacionDispersa ocupacion = new OcupacionDispersa(xs, ys);
+
+        for (int i = 0; i < xs.length; i++) {
+            assertTrue(ocupacion.contiene(xs[i], ys[i]));
+        }
+        assertFalse(ocupacion.contiene(999_999, 1_000_000));
+        assertArrayEquals(new int[]{1_000_000, 1_000_000},
+            ocupacion.celdasEnRegion(999_990, 999_990, 20, 20));
+    }
+
+    @Test
+    void lasRegionesCoincidenConUnRecorridoCeldaPorCelda() {
+        Random azar = new Random(42);
+        int[] xs = new int[2000];
+        int[] ys = new int[2000];
+        Set<Long> celdas = new HashSet<>();
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = azar.nextInt(200) - 50;
+            ys[i] = azar.nextInt(200) - 50;
+            celdas.add(empaquetar(xs[i], ys[i]));
+        }
+        OcupacionDispersa ocupacion = new OcupacionDispersa(xs, ys);
+
+        for (int consulta = 0; consulta < 200; consulta++) {
+            int x = azar.nextInt(220) - 60;
+            int y = azar.nextInt(220) - 60;
+            int ancho = 1 + azar.nextInt(40);
+            int alto = 1 + azar.nextInt(40);
+
+            Set<Long> esperadas = new HashSet<>();
+            for (int cy = y; cy < y + alto; cy++) {
+                for (int cx = x; cx < x + ancho; cx++) {
+                    if (celdas.contains(empaquetar(cx, cy))) {
+                        esperadas.add(empaquetar(cx, cy));
+                    }
+                }
+            }
+            assertEquals(esperadas, aConjunto(ocupacion.celdasEnRegion(x, y, ancho, alto)),
+                "Región " + x + "," + y + " de " + ancho + "x" + alto);
+        }
+    }
+
+    @Test
+    void laRegionDelCaminoSeRecortaASusLimites() {
+        // Camino recto de (10,5) a (19,5)
+        int[] xs = new int[10];
+        int[] ys = new int[10];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 10 + i;
+            ys[i] = 5;
+        }
+        Camino camino = new Camino(xs, ys);
+
+        assertArrayEquals(new int[]{18, 5, 19, 5}, camino.celdasEnRegion(18, 0, 100, 100));
+        assertEquals(0, camino.celdasEnRegion(0, 0, 10, 5).length);
+        assertEquals(0, camino.celdasEnRegion(10, 5, 0, 3).length);
+        assertEquals(20, camino.celdasEnRegion(Integer.MIN_VALUE / 2, 0, Integer.MAX_VALUE, 10).length);
+    }
+
+    private static Set<Long> aConjunto(int[] pares) {
+        List<Long> lista = new ArrayList<>(pares.length / 2);
+        for (int i = 0; i < pares.length; i += 2) {
+            lista.add(empaquetar(pares[i], pares[i + 1]));
+        }
+        Set<Long> conjunto = new HashSet<>(lista);
+        assertEquals(lista.size(), conjunto.size(), "Celdas repetidas en la región");
+        return conjunto;
+    }
+
+    private static long empaquetar(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,111 @@
+package com.umg.roboteducativo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica la BFS hacia atrás desde la meta: programa óptimo, distancias y sugerencias
+ */
+class SolucionadorTest {
+
+    private static final int ARRIBA = 0;
+    private static final int DERECHA = 1;
+    private static final int ABAJO = 2;
+
+    // (0,0) -> (0,1) -> (1,1) -> (2,1): empieza mirando hacia abajo y gira a la izquierda
+    private static final Camino CAMINO_EN_L = new Camino(new int[]{0, 0, 1, 2}, new int[]{0, 1, 1, 1});
+
+    @Test
+    void elProgramaOptimoSigueElCaminoConLosGirosNecesarios() {
+        Solucion solucion = Solucionador.resolver(CAMINO_EN_L);
+
+        assertArrayEquals(new byte[]{
+            Instruccion.ADELANTE, Instruccion.GIRAR_IZQUIERDA, Instruccion.ADELANTE, Instruccion.ADELANTE
+        }, solucion.programaOptimo());
+        assertTrue(ejecutar(CAMINO_EN_L, solucion.programaOptimo()).exito());
+    }
+
+    @Test
+    void usaAtajosEntreCeldasVecinasDelCamino() {
+        // Forma de U: el inicio (0,0) y el final (0,1) son vecinos
+        Camino enU = new Camino(new int[]{0, 1, 1, 0}, new int[]{0, 0, 1, 1});
+
+        Solucion solucion = Solucionador.resolver(enU);
+
+        assertArrayEquals(new byte[]{Instruccion.GIRAR_DERECHA, Instruccion.ADELANTE}, solucion.programaOptimo());
+        assertEquals(2, solucion.distancia(0, 0, DERECHA));
+        assertTrue(ejecutar(enU, solucion.programaOptimo()).exito());
+    }
+
+    @Test
+    void lasDistanciasCuentanGirosYAvances() {
+        Solucion solucion = Solucionador.resolver(CAMINO_EN_L);
+
+        assertEquals(4, solucion.distancia(0, 0, ABAJO));
+        // Mirando al revés hacen falta dos giros más
+        assertEquals(6, solucion.distancia(0, 0, ARRIBA));
+        assertEquals(1, solucion.distancia(1, 1, DERECHA));
+        assertEquals(Instruccion.GIRAR_IZQUIERDA, solucion.siguienteMovimiento(0, 1, ABAJO));
+    }
+
+    @Test
+    void enLaMetaNoHayMovimientoEnNingunaDireccion() {
+        Solucion solucion = Solucionador.resolver(CAMINO_EN_L);
+
+        for (int direccion = 0; direccion < 4; direccion++) {
+            assertEquals(0, solucion.distancia(2, 1, direccion));
+            assertEquals(Solucion.NINGUNO, solucion.siguienteMovimiento(2, 1, direccion));
+        }
+    }
+
+    @Test
+    void unFinalInalcanzableNoTieneProgramaOptimo() {
+        // Puntos no contiguos: no hay forma de avanzar de uno al otro
+        Solucion solucion = Solucionador.resolver(new Camino(new int[]{0, 2}, new int[]{0, 0}));
+
+        assertNull(solucion.programaOptimo());
+        assertEquals(Solucion.INALCANZABLE, solucion.distancia(0, 0, DERECHA));
+        assertEquals(Solucion.NINGUNO, solucion.siguienteMovimiento(0, 0, DERECHA));
+    }
+
+    @Test
+    void rechazaPosicionesFueraDelCamino() {
+        Solucion solucion = Solucionador.resolver(CAMINO_EN_L);
+
+        assertThrows(IllegalArgumentException.class, () -> solucion.distancia(3, 3, ARRIBA));
+        assertThrows(IllegalArgumentException.class, () -> solucion.siguienteMovimiento(0, 0, 4));
+    }
+
+    @Test
+    void laTablaSerializadaConservaDistanciasYPrograma() {
+        Solucion original = Solucionador.resolver(CAMINO_EN_L);
+
+        Solucion copia = Solucion.deserializar(original.serializar());
+
+        assertArrayEquals(original.programaOptimo(), copia.programaOptimo());
+        assertEquals(original.cantidadCeldas(), copia.cantidadCeldas());
+        for (int i = 0; i < original.cantidadCeldas(); i++) {
+            assertEquals(original.distanciaCelda(i), copia.distanciaCelda(i));
+            for (int direccion = 0; direccion < 4; direccion++) {
+                assertEquals(original.distancia(original.x(i), original.y(i), direccion),
+                    copia.distancia(copia.x(i), copia.y(i), direccion));
+            }
+        }
+    }
+
+    private static ResultadoEjecucion ejecutar(Camino camino, byte[] programa) {
+        List<String> movimientos = new ArrayList<>(programa.length);
+        for (byte instruccion : programa) {
+            movimientos.add(Instruccion.nombre(instruccion));
+        }
+        return EjecutorPrograma.ejecutar(camino, CompiladorPrograma.compilar(movimientos), 1000);
+    }
+}
@@ -0,0 +1,79 @@
+package com.umg.roboteducativo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica las reglas del camino (continuo, sin repetir celdas, dentro de la cuadrícula) y sus métricas
+ */
+class ValidadorCaminoTest {
+
+    @Test
+    void calculaLongitudYGiros() {
+        // Abajo, derecha, derecha, arriba: dos cambios de dirección
+        Camino camino = new Camino(new int[]{0, 0, 1, 2, 2}, new int[]{0, 1, 1, 1, 0});
+
+        MetricasCamino metricas = ValidadorCamino.validar(camino, 5, 5);
+
+        assertEquals(5, metricas.longitud());
+        assertEquals(2, metricas.giros());
+    }
+
+    @Test
+    void unCaminoRectoNoTieneGiros() {
+        Camino camino = new Camino(new int[]{0, 1, 2, 3, 4}, new int[]{2, 2, 2, 2, 2});
+
+        assertEquals(0, ValidadorCamino.validar(camino, 5, 5).giros());
+    }
+
+    @Test
+    void rechazaCaminosDeMenosDeDosCeldas() {
+        Camino camino = new Camino(new int[]{0}, new int[]{0});
+
+        assertMensaje("al menos 2 celdas", () -> ValidadorCamino.validar(camino, 5, 5));
+    }
+
+    @Test
+    void rechazaCeldasFueraDeLaCuadricula() {
+        assertMensaje("se sale de la cuadrícula",
+            () -> ValidadorCamino.validar(new Camino(new int[]{3, 4, 5}, new int[]{0, 0, 0}), 5, 5));
+        assertMensaje("se sale de la cuadrícula",
+            () -> ValidadorCamino.validar(new Camino(new int[]{0, 0}, new int[]{0, -1}), 5, 5));
+    }
+
+    @Test
+    void rechazaSaltosYDiagonales() {
+        assertMensaje("no es continuo",
+            () -> ValidadorCamino.validar(new Camino(new int[]{0, 2}, new int[]{0, 0}), 5, 5));
+        assertMensaje("no es continuo",
+            () -> ValidadorCamino.validar(new Camino(new int[]{0, 1}, new int[]{0, 1}), 5, 5));
+    }
+
+    @Test
+    void rechazaCaminosQueSeCruzan() {
+        // Da la vuelta a un cuadrado de 2x2 y vuelve al inicio
+        Camino camino = new Camino(new int[]{0, 1, 1, 0, 0}, new int[]{0, 0, 1, 1, 0});
+
+        assertMensaje("dos veces por la celda (0, 0)", () -> ValidadorCamino.validar(camino, 5, 5));
+    }
+
+    @Test
+    void validaCaminosLargosEnCuadriculasGrandes() {
+        // 50.000 celdas en una cuadrícula de 1000x1000: el costo depende del camino, no del área
+        Camino camino = CaminoBinarioTest.serpiente(1000, 50_000);
+
+        MetricasCamino metricas = ValidadorCamino.validar(camino, 1000, 1000);
+
+        assertEquals(50_000, metricas.longitud());
+        // Dos giros por cada cambio de fila
+        assertEquals(2 * 49, metricas.giros());
+    }
+
+    private static void assertMensaje(String fragmento, Runnable validacion) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, validacion::run);
+        assertTrue(error.getMessage().contains(fragmento), error.getMessage());
+    }
+}
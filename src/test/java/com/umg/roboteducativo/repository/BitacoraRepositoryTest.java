@@ -0,0 +1,147 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.dto.BitacoraDTO;
+import com.umg.roboteducativo.model.Administrador;
+import com.umg.roboteducativo.model.Bitacora;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que los listados de bitácora se resuelven con una sola sentencia SQL (sin N+1)
+ * y que la paginación por cursor recorre todas las entradas
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class BitacoraRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BitacoraRepository bitacoraRepository;
+
+    // Cursor de la primera página: posterior a cualquier entrada
+    private static final LocalDateTime INICIO = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private Statistics statistics;
+
+    private Integer administradorId;
+
+    @BeforeEach
+    void preparar() {
+        // Varios administradores distintos: con N+1 habría una consulta extra por cada uno
+        for (int i = 0; i < 3; i++) {
+            Administrador admin = new Administrador(
+                null, "admin" + i, "secreto123", "Administrador " + i, "admin" + i + "@robot.edu", null, true
+            );
+            entityManager.persist(admin);
+            administradorId = admin.getId();
+
+            for (int j = 0; j < 2; j++) {
+                entityManager.persist(new Bitacora(null, admin, "LOGIN", "Inicio de sesión " + j, null, "127.0.0.1"));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listarTodaLaBitacoraEjecutaUnaSentencia() {
+        List<BitacoraDTO> bitacora = contarSentencias(
+            () -> bitacoraRepository.findPagina(INICIO, Integer.MAX_VALUE, PageRequest.of(0, 10))
+        );
+        assertEquals(6, bitacora.size());
+        assertNotNull(bitacora.get(0).getAdministrador());
+        assertNotNull(bitacora.get(0).getUsername());
+    }
+
+    @Test
+    void recorrerPaginasNoRepiteNiOmiteEntradas() {
+        Set<Integer> vistas = new HashSet<>();
+        LocalDateTime fechaCursor = INICIO;
+        Integer idCursor = Integer.MAX_VALUE;
+        List<BitacoraDTO> pagina;
+        do {
+            pagina = bitacoraRepository.findPagina(fechaCursor, idCursor, PageRequest.of(0, 4));
+            for (BitacoraDTO entrada : pagina) {
+                assertTrue(vistas.add(entrada.getId()), "Entrada repetida entre páginas");
+            }
+            if (!pagina.isEmpty()) {
+                BitacoraDTO ultima = pagina.get(pagina.size() - 1);
+                fechaCursor = ultima.getFechaHora();
+                idCursor = ultima.getId();
+            }
+        } while (!pagina.isEmpty());
+        assertEquals(6, vistas.size());
+    }
+
+    @Test
+    void listarUltimasEjecutaUnaSentencia() {
+        List<BitacoraDTO> bitacora = contarSentencias(() -> bitacoraRepository.findUltimas(PageRequest.of(0, 4)));
+        assertEquals(4, bitacora.size());
+    }
+
+    @Test
+    void listarPorAdministradorEjecutaUnaSentencia() {
+        List<BitacoraDTO> bitacora = contarSentencias(() -> bitacoraRepository.findPaginaPorAdministrador(
+            administradorId, INICIO, Integer.MAX_VALUE, PageRequest.of(0, 10)
+        ));
+        assertEquals(2, bitacora.size());
+    }
+
+    @Test
+    void listarPorAccionEjecutaUnaSentencia() {
+        List<BitacoraDTO> bitacora = contarSentencias(() -> bitacoraRepository.findPaginaPorAccion(
+            "LOGIN", INICIO, Integer.MAX_VALUE, PageRequest.of(0, 10)
+        ));
+        assertEquals(6, bitacora.size());
+    }
+
+    @Test
+    void listarPorRangoEjecutaUnaSentencia() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<BitacoraDTO> bitacora = contarSentencias(() -> bitacoraRepository.findPaginaPorRango(
+            ahora.minusHours(1), ahora.plusHours(1), INICIO, Integer.MAX_VALUE, PageRequest.of(0, 10)
+        ));
+        assertEquals(6, bitacora.size());
+    }
+
+    @Test
+    void buscarPorDescripcionEjecutaUnaSentencia() {
+        List<BitacoraDTO> bitacora = contarSentencias(() -> bitacoraRepository.buscarPaginaPorDescripcion(
+            "sesión 1", INICIO, Integer.MAX_VALUE, PageRequest.of(0, 10)
+        ));
+        assertEquals(3, bitacora.size());
+    }
+
+    private <T> T contarSentencias(Supplier<T> consulta) {
+        T resultado = consulta.get();
+        assertEquals(1, statistics.getPrepareStatementCount(), "Se esperaba una sola sentencia SQL");
+        return resultado;
+    }
+}
@@ -0,0 +1,77 @@
+package com.umg.roboteducativo.repository;
+
+import com.umg.roboteducativo.dto.VersionCatalogoDTO;
+import com.umg.roboteducativo.model.Pista;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Verifica que las actualizaciones masivas de arranque cambian la versión del catálogo
+ * (y con ella el ETag de la exportación)
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PistaRepositoryTest {
+
+    private static final LocalDateTime DESPUES = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PistaRepository pistaRepository;
+
+    private Integer pistaId;
+    private VersionCatalogoDTO versionInicial;
+
+    @BeforeEach
+    void preparar() {
+        Pista pista = new Pista();
+        pista.setNombre("Antigua");
+        pista.setConfiguracionJson("[{\"x\":0,\"y\":0},{\"x\":0,\"y\":1}]");
+        entityManager.persist(pista);
+        entityManager.flush();
+        entityManager.clear();
+        pistaId = pista.getId();
+        versionInicial = pistaRepository.obtenerVersionCatalogo();
+    }
+
+    @Test
+    void completarElCaminoBinarioCambiaLaVersion() {
+        pistaRepository.actualizarCaminoBinario(pistaId, new byte[]{1, 2, 0, 0, 2}, DESPUES);
+
+        assertVersionCambio();
+    }
+
+    @Test
+    void completarLaHuellaCambiaLaVersion() {
+        pistaRepository.actualizarHashContenido(pistaId, 123L, DESPUES);
+
+        assertVersionCambio();
+    }
+
+    @Test
+    void completarLasMetricasCambiaLaVersion() {
+        pistaRepository.actualizarMetricas(pistaId, 2, 0, 1, DESPUES);
+
+        assertVersionCambio();
+    }
+
+    private void assertVersionCambio() {
+        entityManager.clear();
+        VersionCatalogoDTO version = pistaRepository.obtenerVersionCatalogo();
+        assertEquals(versionInicial.getTotalPistas(), version.getTotalPistas());
+        assertNotEquals(versionInicial.getUltimaModificacion(), version.getUltimaModificacion());
+        assertEquals(DESPUES, version.getUltimaModificacion());
+    }
+}
@@ -0,0 +1,102 @@
+package com.umg.roboteducativo.security;
+
+import com.umg.roboteducativo.dto.MetricasLimiteDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica la ráfaga, el 429 con Retry-After, la recarga, la IP detrás de proxies confiables
+ * y la expulsión de cubetas cuando se llena el mapa de clientes
+ */
+class LimiteTasaFilterTest {
+
+    private static final String EXITO = "/api/pistas/7/exito";
+
+    @Test
+    void despuesDeLaRafagaResponde429ConRetryAfter() throws Exception {
+        LimiteTasaFilter filtro = filtro(100, "/api/pistas/*/exito=2:60");
+
+        assertEquals(200, enviar(filtro, EXITO, "1.1.1.1", null).getStatus());
+        assertEquals(200, enviar(filtro, EXITO, "1.1.1.1", null).getStatus());
+        MockHttpServletResponse rechazada = enviar(filtro, EXITO, "1.1.1.1", null);
+
+        assertEquals(429, rechazada.getStatus());
+        assertNotNull(rechazada.getHeader("Retry-After"));
+        assertTrue(Integer.parseInt(rechazada.getHeader("Retry-After")) >= 1);
+        // Otra IP y otra ruta tienen su propia cubeta
+        assertEquals(200, enviar(filtro, EXITO, "2.2.2.2", null).getStatus());
+        assertEquals(200, enviar(filtro, "/api/pistas/7/solucion", "1.1.1.1", null).getStatus());
+        assertEquals(1L, filtro.obtenerMetricas().getRechazadas());
+    }
+
+    @Test
+    void laCubetaSeRecargaConElTiempo() throws Exception {
+        // Una ficha cada 10 ms
+        LimiteTasaFilter filtro = filtro(100, "/api/pistas/*/exito=1:6000");
+
+        assertEquals(200, enviar(filtro, EXITO, "1.1.1.1", null).getStatus());
+        assertEquals(429, enviar(filtro, EXITO, "1.1.1.1", null).getStatus());
+        Thread.sleep(50);
+
+        assertEquals(200, enviar(filtro, EXITO, "1.1.1.1", null).getStatus());
+    }
+
+    @Test
+    void detrasDeUnProxyConfiableUsaLaIpQueEsteReenvia() throws Exception {
+        LimiteTasaFilter filtro = new LimiteTasaFilter(
+            true, 100, new String[]{"/api/pistas/*/exito=1:60"}, new String[]{"10.0.0.0/8"});
+
+        // Dos alumnos detrás del mismo proxy no comparten cubeta
+        assertEquals(200, enviar(filtro, EXITO, "10.0.0.5", "192.168.1.10").getStatus());
+        assertEquals(200, enviar(filtro, EXITO, "10.0.0.5", "192.168.1.11").getStatus());
+        // Lo que el cliente escribe a la izquierda no cambia su cubeta
+        assertEquals(429, enviar(filtro, EXITO, "10.0.0.5", "9.9.9.9, 192.168.1.10").getStatus());
+        // Varios proxies confiables encadenados
+        assertEquals(429, enviar(filtro, EXITO, "10.0.0.5", "192.168.1.11, 10.0.0.9").getStatus());
+    }
+
+    @Test
+    void sinProxyConfiableIgnoraXForwardedFor() throws Exception {
+        LimiteTasaFilter filtro = filtro(100, "/api/pistas/*/exito=1:60");
+
+        assertEquals(200, enviar(filtro, EXITO, "1.1.1.1", "3.3.3.3").getStatus());
+        assertEquals(429, enviar(filtro, EXITO, "1.1.1.1", "4.4.4.4").getStatus());
+    }
+
+    @Test
+    void conElMapaLlenoExpulsaCubetasEnVezDeRechazarClientesNuevos() throws Exception {
+        int maxClientes = 10;
+        LimiteTasaFilter filtro = filtro(maxClientes, "/api/pistas/*/exito=5:1");
+
+        for (int i = 0; i < 3 * maxClientes; i++) {
+            assertEquals(200, enviar(filtro, EXITO, "1.1.1." + i, null).getStatus());
+        }
+
+        MetricasLimiteDTO metricas = filtro.obtenerMetricas();
+        assertTrue(metricas.getClientes() <= maxClientes);
+        assertTrue(metricas.getExpulsados() > 0);
+        assertEquals(0L, metricas.getRechazadas());
+    }
+
+    private static LimiteTasaFilter filtro(int maxClientes, String ruta) {
+        return new LimiteTasaFilter(true, maxClientes, new String[]{ruta}, new String[0]);
+    }
+
+    private static MockHttpServletResponse enviar(LimiteTasaFilter filtro, String uri, String ip, String reenviado)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(ip);
+        if (reenviado != null) {
+            request.addHeader("X-Forwarded-For", reenviado);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,119 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
+import com.umg.roboteducativo.repository.EstadisticaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifica que un delta que la base rechaza no bloquee el volcado de los demás
+ */
+class EstadisticaBufferTest {
+
+    private static final int MAX_REINTENTOS = 2;
+    private static final int PISTA_ELIMINADA = 99;
+    private static final int PISTA_BLOQUEADA = 98;
+
+    private final List<DeltaEstadisticaDTO> aplicados = new ArrayList<>();
+    private boolean baseCaida;
+    private EstadisticaBuffer buffer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void preparar() {
+        EstadisticaRepository repository = mock(EstadisticaRepository.class);
+        doAnswer(invocacion -> {
+            List<DeltaEstadisticaDTO> lote = invocacion.getArgument(0);
+            if (baseCaida) {
+                throw new QueryTimeoutException("sin conexión");
+            }
+            for (DeltaEstadisticaDTO delta : lote) {
+                if (delta.getPistaId() == PISTA_ELIMINADA) {
+                    throw new DataIntegrityViolationException("fk_estadistica_pista");
+                }
+                if (delta.getPistaId() == PISTA_BLOQUEADA) {
+                    throw new QueryTimeoutException("lock wait timeout");
+                }
+            }
+            aplicados.addAll(lote);
+            return null;
+        }).when(repository).aplicarDeltas(anyList());
+        buffer = new EstadisticaBuffer(repository, true, 1000, 1_000_000, MAX_REINTENTOS);
+    }
+
+    @Test
+    void unaPistaEliminadaSeDescartaYElRestoSeAplica() {
+        buffer.registrar(1, 1, 0, 0);
+        buffer.registrar(PISTA_ELIMINADA, 0, 1, 0);
+        buffer.registrar(2, 0, 0, 1);
+
+        buffer.volcar();
+
+        assertEquals(Set.of(1, 2), pistasAplicadas());
+        assertEquals(1, buffer.descartados());
+        assertTrue(buffer.obtenerPendientes().isEmpty());
+    }
+
+    @Test
+    void unErrorTemporalSeReintentaHastaElLimite() {
+        buffer.registrar(PISTA_BLOQUEADA, 1, 0, 0);
+
+        // Mientras no supere el límite, el delta sigue en el buffer
+        for (int i = 0; i < MAX_REINTENTOS; i++) {
+            buffer.registrar(1, 1, 0, 0);
+            buffer.volcar();
+            assertEquals(1, contarPendientes(PISTA_BLOQUEADA));
+        }
+        // Cada volcado empieza por otra clave: si empieza por la bloqueada no gasta un reintento
+        for (int i = 0; i < 2 * (MAX_REINTENTOS + 1); i++) {
+            buffer.registrar(1, 1, 0, 0);
+            buffer.volcar();
+        }
+
+        assertEquals(0, contarPendientes(PISTA_BLOQUEADA));
+        assertEquals(1, buffer.descartados());
+        assertEquals(Set.of(1), pistasAplicadas());
+        assertEquals(0, contarPendientes(1));
+    }
+
+    @Test
+    void conLaBaseCaidaSeConservaTodoSinGastarReintentos() {
+        buffer.registrar(1, 1, 0, 0);
+        buffer.registrar(2, 0, 1, 0);
+        baseCaida = true;
+
+        for (int i = 0; i < MAX_REINTENTOS + 3; i++) {
+            buffer.volcar();
+        }
+
+        assertEquals(2, buffer.obtenerPendientes().size());
+        assertEquals(0, buffer.descartados());
+
+        baseCaida = false;
+        buffer.volcar();
+        assertEquals(Set.of(1, 2), pistasAplicadas());
+    }
+
+    private Set<Integer> pistasAplicadas() {
+        Set<Integer> pistas = new HashSet<>();
+        aplicados.forEach(delta -> pistas.add(delta.getPistaId()));
+        return pistas;
+    }
+
+    private long contarPendientes(int pistaId) {
+        return buffer.obtenerPendientes().stream().filter(delta -> delta.getPistaId() == pistaId).count();
+    }
+}
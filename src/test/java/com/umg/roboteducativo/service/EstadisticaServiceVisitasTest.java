@@ -0,0 +1,54 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.VisitaDTO;
+import com.umg.roboteducativo.repository.AdministradorRepository;
+import com.umg.roboteducativo.repository.EstadisticaRepository;
+import com.umg.roboteducativo.repository.PistaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica el tope de visitas por lote del endpoint público /visitas
+ */
+class EstadisticaServiceVisitasTest {
+
+    private EstadisticaRepository estadisticaRepository;
+    private EstadisticaService estadisticaService;
+
+    @BeforeEach
+    void preparar() {
+        estadisticaRepository = mock(EstadisticaRepository.class);
+        PistaAleatoriaCache pistaAleatoriaCache = mock(PistaAleatoriaCache.class);
+        when(pistaAleatoriaCache.esActiva(anyInt())).thenReturn(true);
+        estadisticaService = new EstadisticaService(estadisticaRepository, mock(PistaRepository.class),
+            mock(AdministradorRepository.class), mock(EstadisticaBuffer.class), mock(EscritorExportacion.class),
+            pistaAleatoriaCache, 50);
+    }
+
+    @Test
+    void registraUnLoteDentroDelTope() {
+        int registradas = estadisticaService.registrarVisitas(List.of(new VisitaDTO(1, 30), new VisitaDTO(2, 20)));
+
+        assertEquals(50, registradas);
+        verify(estadisticaRepository).aplicarDeltas(anyList());
+    }
+
+    @Test
+    void rechazaUnLoteQueSumaMasQueElTope() {
+        List<VisitaDTO> visitas = List.of(new VisitaDTO(1, 30), new VisitaDTO(2, 21));
+
+        assertThrows(IllegalArgumentException.class, () -> estadisticaService.registrarVisitas(visitas));
+        verify(estadisticaRepository, never()).aplicarDeltas(anyList());
+    }
+}
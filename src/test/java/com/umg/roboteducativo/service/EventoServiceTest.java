@@ -0,0 +1,218 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.DeltaEstadisticaDTO;
+import com.umg.roboteducativo.dto.EventoDTO;
+import com.umg.roboteducativo.dto.ResultadoEventosDTO;
+import com.umg.roboteducativo.engine.ResultadoEjecucion;
+import com.umg.roboteducativo.engine.ResultadoEjecucion.Motivo;
+import com.umg.roboteducativo.repository.EstadisticaRepository;
+import com.umg.roboteducativo.repository.EventoProcesadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica la deduplicación por clave de idempotencia y la ventana de fechas aceptadas
+ */
+class EventoServiceTest {
+
+    private static final int RETENCION_DIAS = 7;
+    private static final int MAX_VISITAS = 5;
+    private static final List<String> MOVIMIENTOS = List.of("adelante");
+
+    private EventoProcesadoRepository eventoProcesadoRepository;
+    private EstadisticaRepository estadisticaRepository;
+    private MotorRobotService motorRobotService;
+    private PistaAleatoriaCache pistaAleatoriaCache;
+    private IdempotenciaCache idempotenciaCache;
+    private EventoService eventoService;
+
+    @BeforeEach
+    void preparar() {
+        eventoProcesadoRepository = mock(EventoProcesadoRepository.class);
+        estadisticaRepository = mock(EstadisticaRepository.class);
+        motorRobotService = mock(MotorRobotService.class);
+        pistaAleatoriaCache = mock(PistaAleatoriaCache.class);
+        idempotenciaCache = new IdempotenciaCache(100, 60, "", 30);
+        when(eventoProcesadoRepository.findClavesExistentes(anyCollection())).thenReturn(List.of());
+        when(pistaAleatoriaCache.esActiva(anyInt())).thenReturn(true);
+        eventoService = new EventoService(eventoProcesadoRepository, estadisticaRepository, motorRobotService,
+            pistaAleatoriaCache, idempotenciaCache, 10, MAX_VISITAS, RETENCION_DIAS);
+    }
+
+    @Test
+    void agrupaLosEventosPorPistaYFecha() {
+        when(motorRobotService.evaluar(eq(1), any())).thenReturn(resultado(true));
+        when(motorRobotService.evaluar(eq(2), any())).thenReturn(resultado(false));
+        Instant ahora = Instant.now();
+        Instant ayer = ahora.minus(Duration.ofDays(1));
+
+        ResultadoEventosDTO resultado = eventoService.registrar(List.of(
+            evento("a", 1, EventoDTO.VISITA, ahora),
+            evento("b", 1, EventoDTO.EXITO, ahora),
+            evento("c", 1, EventoDTO.VISITA, ayer),
+            evento("d", 2, EventoDTO.FALLO, ahora)
+        ));
+
+        assertEquals(4, resultado.getRegistrados());
+        List<DeltaEstadisticaDTO> deltas = deltasAplicados();
+        assertEquals(3, deltas.size());
+        DeltaEstadisticaDTO hoyPista1 = deltas.get(0);
+        assertEquals(1, hoyPista1.getPistaId());
+        assertEquals(LocalDate.ofInstant(ahora, ZoneId.systemDefault()), hoyPista1.getFecha());
+        assertEquals(1, hoyPista1.getVisitas());
+        assertEquals(1, hoyPista1.getExitos());
+        assertEquals(1, deltas.get(2).getFallos());
+        verify(eventoProcesadoRepository).insertarLote(eq(List.of("a", "b", "c", "d")), any(LocalDateTime.class));
+    }
+
+    @Test
+    void descartaClavesRepetidasEnElLoteYaProcesadasOYaVistasEnExitoYFallo() {
+        when(eventoProcesadoRepository.findClavesExistentes(anyCollection())).thenReturn(List.of("procesada"));
+        completarIntento(1, "exito", "intento-directo");
+        Instant ahora = Instant.now();
+
+        ResultadoEventosDTO resultado = eventoService.registrar(List.of(
+            evento("nueva", 1, EventoDTO.VISITA, ahora),
+            evento("nueva", 1, EventoDTO.VISITA, ahora),
+            evento("procesada", 1, EventoDTO.VISITA, ahora),
+            evento("intento-directo", 1, EventoDTO.EXITO, ahora)
+        ));
+
+        assertEquals(1, resultado.getRegistrados());
+        assertEquals(3, resultado.getDuplicados());
+        assertEquals(1, deltasAplicados().get(0).getVisitas());
+        verify(motorRobotService, never()).evaluar(anyInt(), any());
+    }
+
+    @Test
+    void unaClaveVistaEnOtraPistaUOtraRutaNoSeDescarta() {
+        when(motorRobotService.evaluar(eq(1), any())).thenReturn(resultado(true));
+        completarIntento(2, "exito", "otra-pista");
+        completarIntento(1, "fallo", "otra-ruta");
+        Instant ahora = Instant.now();
+
+        ResultadoEventosDTO resultado = eventoService.registrar(List.of(
+            evento("otra-pista", 1, EventoDTO.EXITO, ahora),
+            evento("otra-ruta", 1, EventoDTO.EXITO, ahora)
+        ));
+
+        assertEquals(2, resultado.getRegistrados());
+        assertEquals(0, resultado.getDuplicados());
+    }
+
+    @Test
+    void rechazaEventosFueraDeLaVentanaDeFechas() {
+        Instant ahora = Instant.now();
+
+        ResultadoEventosDTO resultado = eventoService.registrar(List.of(
+            evento("futuro", 1, EventoDTO.VISITA, ahora.plus(Duration.ofMinutes(10))),
+            evento("desfase-tolerado", 1, EventoDTO.VISITA, ahora.plus(Duration.ofMinutes(2))),
+            evento("vencido", 1, EventoDTO.VISITA, ahora.minus(Duration.ofDays(RETENCION_DIAS + 1))),
+            evento("dentro", 1, EventoDTO.VISITA, ahora.minus(Duration.ofDays(RETENCION_DIAS - 1)))
+        ));
+
+        assertEquals(2, resultado.getRegistrados());
+        assertEquals(2, resultado.getRechazados());
+        assertTrue(resultado.getErrores().get(0).startsWith("futuro:"));
+        assertTrue(resultado.getErrores().get(1).startsWith("vencido:"));
+    }
+
+    @Test
+    void rechazaPistasInactivasYEventosSinMovimientos() {
+        when(pistaAleatoriaCache.esActiva(9)).thenReturn(false);
+        Instant ahora = Instant.now();
+        EventoDTO sinMovimientos = evento("sin-movimientos", 1, EventoDTO.EXITO, ahora);
+        sinMovimientos.setMovimientos(null);
+
+        ResultadoEventosDTO resultado = eventoService.registrar(List.of(
+            evento("inactiva", 9, EventoDTO.VISITA, ahora),
+            sinMovimientos,
+            evento("desconocido", 1, "SALTO", ahora)
+        ));
+
+        assertEquals(0, resultado.getRegistrados());
+        assertEquals(3, resultado.getRechazados());
+        verify(estadisticaRepository, never()).aplicarDeltas(anyList());
+    }
+
+    @Test
+    void rechazaLotesMayoresQueElMaximo() {
+        List<EventoDTO> eventos = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            eventos.add(evento("clave-" + i, 1, EventoDTO.VISITA, Instant.now()));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> eventoService.registrar(eventos));
+        verify(eventoProcesadoRepository, never()).findClavesExistentes(anyCollection());
+    }
+
+    @Test
+    void rechazaLotesConMasVisitasQueElTopeDeVisitas() {
+        List<EventoDTO> eventos = new ArrayList<>();
+        for (int i = 0; i <= MAX_VISITAS; i++) {
+            eventos.add(evento("visita-" + i, 1, EventoDTO.VISITA, Instant.now()));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> eventoService.registrar(eventos));
+        verify(eventoProcesadoRepository, never()).findClavesExistentes(anyCollection());
+        verify(estadisticaRepository, never()).aplicarDeltas(anyList());
+    }
+
+    @Test
+    void registrarNoPurgaYLaPurgaProgramadaUsaLaRetencion() {
+        eventoService.registrar(List.of(evento("a", 1, EventoDTO.VISITA, Instant.now())));
+        verify(eventoProcesadoRepository, never()).eliminarAnteriores(any());
+
+        LocalDateTime antes = LocalDateTime.now().minusDays(RETENCION_DIAS);
+        eventoService.purgarClavesVencidas();
+
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(eventoProcesadoRepository).eliminarAnteriores(limite.capture());
+        assertFalse(limite.getValue().isBefore(antes));
+        assertFalse(limite.getValue().isAfter(LocalDateTime.now().minusDays(RETENCION_DIAS)));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<DeltaEstadisticaDTO> deltasAplicados() {
+        ArgumentCaptor<List<DeltaEstadisticaDTO>> deltas = ArgumentCaptor.forClass((Class) List.class);
+        verify(estadisticaRepository).aplicarDeltas(deltas.capture());
+        return deltas.getValue();
+    }
+
+    private void completarIntento(int pistaId, String ruta, String clave) {
+        String claveIntento = IdempotenciaCache.claveIntento(pistaId, ruta, clave);
+        idempotenciaCache.reservar(claveIntento);
+        idempotenciaCache.completar(claveIntento, 0);
+    }
+
+    private static EventoDTO evento(String clave, int pistaId, String tipo, Instant timestamp) {
+        return new EventoDTO(pistaId, tipo, timestamp, clave, MOVIMIENTOS);
+    }
+
+    private static ResultadoEjecucion resultado(boolean exito) {
+        return new ResultadoEjecucion(exito, exito ? Motivo.COMPLETADO : Motivo.FUERA_DEL_CAMINO, 1, 0, 0);
+    }
+}
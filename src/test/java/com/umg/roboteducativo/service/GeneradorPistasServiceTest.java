@@ -0,0 +1,129 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.dto.GeneracionPistasDTO;
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.dto.ResultadoGeneracionDTO;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.engine.FormaCanonica;
+import com.umg.roboteducativo.repository.PistaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica la generación en modo simulación: semilla reproducible, formas únicas y límites
+ */
+class GeneradorPistasServiceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private GeneradorPistasService generador;
+
+    @AfterEach
+    void detener() {
+        if (generador != null) {
+            generador.detener();
+        }
+    }
+
+    @Test
+    void conUnHiloLaMismaSemillaRepiteLaGeneracion() throws InterruptedException {
+        generador = crear(1, 10_000);
+
+        List<String> primera = caminos(generador.generar(peticion(20, 42L), null));
+        List<String> segunda = caminos(generador.generar(peticion(20, 42L), null));
+        List<String> otraSemilla = caminos(generador.generar(peticion(20, 7L), null));
+
+        assertEquals(20, primera.size());
+        assertEquals(primera, segunda);
+        assertFalse(primera.equals(otraSemilla));
+    }
+
+    @Test
+    void lasPistasGeneradasCumplenLosParametrosYNoRepitenForma() throws Exception {
+        generador = crear(4, 10_000);
+
+        ResultadoGeneracionDTO resultado = generador.generar(peticion(30, null), null);
+
+        assertEquals(30, resultado.getGeneradas());
+        assertFalse(resultado.getTiempoAgotado());
+        Set<Long> formas = new HashSet<>();
+        for (PistaDTO pista : resultado.getPistas()) {
+            assertTrue(pista.getLongitud() >= 8 && pista.getLongitud() <= 12);
+            assertTrue(formas.add(FormaCanonica.calcular(leerCamino(pista.getConfiguracionJson()))));
+        }
+    }
+
+    @Test
+    void alAgotarseElTiempoDevuelveUnResultadoParcial() throws InterruptedException {
+        generador = crear(2, 0);
+
+        ResultadoGeneracionDTO resultado = generador.generar(peticion(50, 1L), null);
+
+        assertTrue(resultado.getTiempoAgotado());
+        assertTrue(resultado.getGeneradas() < 50);
+        assertEquals(resultado.getGeneradas(), resultado.getPistas().size());
+    }
+
+    @Test
+    void rechazaCantidadesYLongitudesFueraDeLosLimites() {
+        generador = crear(1, 10_000);
+
+        GeneracionPistasDTO muchas = peticion(1001, null);
+        assertThrows(IllegalArgumentException.class, () -> generador.generar(muchas, null));
+
+        GeneracionPistasDTO muyLarga = peticion(1, null);
+        muyLarga.setAncho(1000);
+        muyLarga.setAlto(1000);
+        muyLarga.setLongitudMaxima(10_001);
+        assertThrows(IllegalArgumentException.class, () -> generador.generar(muyLarga, null));
+    }
+
+    private static GeneradorPistasService crear(int hilos, long tiempoMaximoMs) {
+        PistaRepository pistaRepository = mock(PistaRepository.class);
+        when(pistaRepository.findCaminosBinarios()).thenReturn(List.of());
+        when(pistaRepository.findNombresConPrefijo(anyString())).thenReturn(List.of());
+        return new GeneradorPistasService(pistaRepository, mock(PistaService.class), hilos, 1000, 10_000, tiempoMaximoMs);
+    }
+
+    private static GeneracionPistasDTO peticion(int cantidad, Long semilla) {
+        GeneracionPistasDTO peticion = new GeneracionPistasDTO();
+        peticion.setCantidad(cantidad);
+        peticion.setAncho(10);
+        peticion.setAlto(10);
+        peticion.setLongitudMinima(8);
+        peticion.setLongitudMaxima(12);
+        peticion.setSimulacion(true);
+        peticion.setSemilla(semilla);
+        return peticion;
+    }
+
+    private static Camino leerCamino(String json) throws JsonProcessingException {
+        JsonNode puntos = MAPPER.readTree(json);
+        int[] xs = new int[puntos.size()];
+        int[] ys = new int[puntos.size()];
+        for (int i = 0; i < puntos.size(); i++) {
+            xs[i] = puntos.get(i).get("x").asInt();
+            ys[i] = puntos.get(i).get("y").asInt();
+        }
+        return new Camino(xs, ys);
+    }
+
+    private static List<String> caminos(ResultadoGeneracionDTO resultado) {
+        return resultado.getPistas().stream().map(PistaDTO::getConfiguracionJson).toList();
+    }
+}
@@ -0,0 +1,131 @@
+package com.umg.roboteducativo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica reserva, resultado guardado, borrado en la tabla, rotación de generaciones e instantánea
+ */
+class IdempotenciaCacheTest {
+
+    @Test
+    void unaClaveReservadaQuedaEnCursoHastaCompletarla() {
+        IdempotenciaCache cache = new IdempotenciaCache(100, 60, "", 30);
+
+        assertEquals(IdempotenciaCache.NUEVA, cache.reservar("a"));
+        assertEquals(IdempotenciaCache.EN_CURSO, cache.reservar("a"));
+        assertTrue(cache.contiene("a"));
+
+        cache.completar("a", 42);
+        assertEquals(42, cache.reservar("a"));
+    }
+
+    @Test
+    void laMismaClaveEnOtraPistaUOtraRutaEsOtroIntento() {
+        IdempotenciaCache cache = new IdempotenciaCache(100, 60, "", 30);
+        cache.reservar(IdempotenciaCache.claveIntento(1, "exito", "k"));
+        cache.completar(IdempotenciaCache.claveIntento(1, "exito", "k"), 42);
+
+        assertEquals(42, cache.reservar(IdempotenciaCache.claveIntento(1, "exito", "k")));
+        assertEquals(IdempotenciaCache.NUEVA, cache.reservar(IdempotenciaCache.claveIntento(2, "exito", "k")));
+        assertEquals(IdempotenciaCache.NUEVA, cache.reservar(IdempotenciaCache.claveIntento(1, "fallo", "k")));
+    }
+
+    @Test
+    void olvidarBorraSoloEsaClaveYConservaElResultadoDeLasDemas() {
+        int cantidad = 64;
+        IdempotenciaCache cache = new IdempotenciaCache(cantidad, 60, "", 30);
+        for (int i = 0; i < cantidad; i++) {
+            cache.reservar("clave-" + i);
+            cache.completar("clave-" + i, i);
+        }
+
+        // Con la tabla a la mitad hay colisiones: el desplazamiento al borrar debe mover también el resultado
+        for (int i = 0; i < cantidad; i += 2) {
+            cache.olvidar("clave-" + i);
+        }
+
+        for (int i = 0; i < cantidad; i++) {
+            if (i % 2 == 0) {
+                assertFalse(cache.contiene("clave-" + i));
+            } else {
+                assertEquals(i, cache.reservar("clave-" + i));
+            }
+        }
+        assertEquals(IdempotenciaCache.NUEVA, cache.reservar("clave-0"));
+    }
+
+    @Test
+    void alLlenarseRotaYRecuerdaLaGeneracionAnteriorUnaVezMas() {
+        IdempotenciaCache cache = new IdempotenciaCache(4, 60, "", 30);
+        for (int i = 0; i < 5; i++) {
+            cache.reservar("clave-" + i);
+            cache.completar("clave-" + i, i);
+        }
+        // clave-0 a clave-3 pasaron a la generación anterior
+        assertEquals(0, cache.reservar("clave-0"));
+
+        for (int i = 5; i < 9; i++) {
+            cache.reservar("clave-" + i);
+            cache.completar("clave-" + i, i);
+        }
+        // Segunda rotación: la generación con clave-0 a clave-3 se vació
+        assertFalse(cache.contiene("clave-0"));
+        assertFalse(cache.contiene("clave-3"));
+        assertEquals(4, cache.reservar("clave-4"));
+        assertEquals(8, cache.reservar("clave-8"));
+    }
+
+    @Test
+    void sinActividadDuranteLaVentanaOlvidaTodasLasClaves() {
+        IdempotenciaCache cache = new IdempotenciaCache(100, 0, "", 30);
+
+        cache.reservar("a");
+        cache.completar("a", 1);
+
+        assertFalse(cache.contiene("a"));
+    }
+
+    @Test
+    void completarUnaReservaDescartadaAlRotarLaVuelveAGuardar() {
+        IdempotenciaCache cache = new IdempotenciaCache(4, 60, "", 30);
+        cache.reservar("lenta");
+        for (int i = 0; i < 8; i++) {
+            cache.reservar("clave-" + i);
+        }
+        assertFalse(cache.contiene("lenta"));
+
+        cache.completar("lenta", 7);
+
+        assertEquals(7, cache.reservar("lenta"));
+    }
+
+    @Test
+    void laInstantaneaGuardaSoloLasClavesTerminadas() throws Exception {
+        Path directorio = Files.createTempDirectory("idempotencia");
+        Path archivo = directorio.resolve("idempotencia.snapshot");
+        try {
+            IdempotenciaCache cache = new IdempotenciaCache(100, 60, archivo.toString(), 3600);
+            cache.iniciar();
+            cache.reservar("terminada");
+            cache.completar("terminada", 5);
+            cache.reservar("en-curso");
+            cache.detener();
+
+            IdempotenciaCache restaurada = new IdempotenciaCache(100, 60, archivo.toString(), 3600);
+            restaurada.iniciar();
+            assertEquals(5, restaurada.reservar("terminada"));
+            assertEquals(IdempotenciaCache.NUEVA, restaurada.reservar("en-curso"));
+            restaurada.detener();
+        } finally {
+            Files.deleteIfExists(archivo);
+            Files.delete(directorio);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.engine.CaminoBinario;
+import com.umg.roboteducativo.engine.ResultadoEjecucion;
+import com.umg.roboteducativo.engine.ResultadoEjecucion.Motivo;
+import com.umg.roboteducativo.engine.Solucionador;
+import com.umg.roboteducativo.model.Pista;
+import com.umg.roboteducativo.model.SolucionPista;
+import com.umg.roboteducativo.repository.AdministradorRepository;
+import com.umg.roboteducativo.repository.PistaRepository;
+import com.umg.roboteducativo.repository.SolucionPistaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica que crear y actualizar una pista descarta, al confirmar la transacción,
+ * la solución, los veredictos y el camino que estaban en memoria, y que un rollback no los toca
+ */
+class PistaServiceCacheTest {
+
+    private static final int ID = 7;
+
+    // Las sugerencias se piden desde (0, 0) mirando hacia abajo
+
+    // Recto hacia abajo: 2 movimientos hasta el final
+    private static final String JSON_RECTO = "[{\"x\":0,\"y\":0},{\"x\":0,\"y\":1},{\"x\":0,\"y\":2}]";
+    private static final Camino RECTO = new Camino(new int[]{0, 0, 0}, new int[]{0, 1, 2});
+
+    // Con un giro: girar, avanzar, girar y avanzar son 4 movimientos
+    private static final String JSON_CON_GIRO = "[{\"x\":0,\"y\":0},{\"x\":1,\"y\":0},{\"x\":1,\"y\":1}]";
+    private static final Camino CON_GIRO = new Camino(new int[]{0, 1, 1}, new int[]{0, 0, 1});
+
+    private static final int ABAJO = 2;
+    private static final byte[] PROGRAMA = {0};
+    private static final LocalDateTime VERSION = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private PistaRepository pistaRepository;
+    private SolucionPistaRepository solucionPistaRepository;
+    private PistaAleatoriaCache pistaAleatoriaCache;
+    private MotorRobotService motorRobotService;
+    private CacheVeredictos cacheVeredictos;
+    private SolucionadorService solucionadorService;
+    private PistaService pistaService;
+
+    @BeforeEach
+    void preparar() {
+        pistaRepository = mock(PistaRepository.class);
+        solucionPistaRepository = mock(SolucionPistaRepository.class);
+        pistaAleatoriaCache = mock(PistaAleatoriaCache.class);
+        motorRobotService = mock(MotorRobotService.class);
+        cacheVeredictos = new CacheVeredictos(100);
+        solucionadorService = new SolucionadorService(
+            solucionPistaRepository, pistaRepository, motorRobotService, new ObjectMapper(), 100);
+        pistaService = new PistaService(pistaRepository, mock(AdministradorRepository.class),
+            mock(BitacoraService.class), pistaAleatoriaCache, cacheVeredictos, solucionadorService,
+            motorRobotService, mock(EscritorExportacion.class));
+
+        when(motorRobotService.parsearCamino(JSON_RECTO)).thenReturn(RECTO);
+        when(motorRobotService.parsearCamino(JSON_CON_GIRO)).thenReturn(CON_GIRO);
+        when(motorRobotService.leerCamino(any(), any())).thenCallRealMethod();
+        when(pistaRepository.findByHashContenido(anyLong())).thenReturn(List.of());
+        when(pistaRepository.save(any(Pista.class))).thenAnswer(invocacion -> {
+            Pista pista = invocacion.getArgument(0);
+            pista.setId(ID);
+            return pista;
+        });
+        when(pistaRepository.saveAndFlush(any(Pista.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void crearPistaDescartaLaSolucionEnMemoriaAlConfirmar() {
+        // Una solución vieja quedó en memoria para el ID que recibirá la pista nueva
+        guardarSolucionEnRepositorio(RECTO);
+        assertEquals(2, movimientosRestantes());
+
+        guardarSolucionEnRepositorio(CON_GIRO);
+        pistaService.crearPista(dto(JSON_CON_GIRO, null), null);
+        assertEquals(2, movimientosRestantes(), "Sin confirmar, la caché no cambia");
+
+        confirmar();
+
+        assertEquals(4, movimientosRestantes());
+        verify(pistaAleatoriaCache).recargar();
+    }
+
+    @Test
+    void actualizarElCaminoDescartaSolucionVeredictosYCaminoAlConfirmar() {
+        Pista existente = pistaGuardada(RECTO);
+        when(pistaRepository.findById(ID)).thenReturn(Optional.of(existente));
+        guardarSolucionEnRepositorio(RECTO);
+        assertEquals(2, movimientosRestantes());
+        AtomicInteger calculos = new AtomicInteger();
+        evaluar(calculos);
+
+        guardarSolucionEnRepositorio(CON_GIRO);
+        pistaService.actualizarPista(ID, dto(JSON_CON_GIRO, true), null);
+        confirmar();
+
+        assertEquals(4, movimientosRestantes());
+        evaluar(calculos);
+        assertEquals(2, calculos.get(), "El veredicto se vuelve a calcular");
+        verify(motorRobotService).olvidarCamino(ID);
+        verify(pistaAleatoriaCache).recargar();
+    }
+
+    @Test
+    void actualizarSinCambiarElCaminoConservaLasCaches() {
+        Pista existente = pistaGuardada(RECTO);
+        when(pistaRepository.findById(ID)).thenReturn(Optional.of(existente));
+        guardarSolucionEnRepositorio(RECTO);
+        assertEquals(2, movimientosRestantes());
+        AtomicInteger calculos = new AtomicInteger();
+        evaluar(calculos);
+
+        pistaService.actualizarPista(ID, dto(JSON_RECTO, false), null);
+        confirmar();
+
+        assertEquals(2, movimientosRestantes());
+        evaluar(calculos);
+        assertEquals(1, calculos.get());
+        verify(solucionPistaRepository, times(1)).findById(ID);
+        verify(motorRobotService, never()).olvidarCamino(ID);
+    }
+
+    @Test
+    void unRollbackNoTocaLasCaches() {
+        Pista existente = pistaGuardada(RECTO);
+        when(pistaRepository.findById(ID)).thenReturn(Optional.of(existente));
+        guardarSolucionEnRepositorio(RECTO);
+        assertEquals(2, movimientosRestantes());
+
+        guardarSolucionEnRepositorio(CON_GIRO);
+        pistaService.actualizarPista(ID, dto(JSON_CON_GIRO, true), null);
+        deshacer();
+
+        assertEquals(2, movimientosRestantes());
+        verify(motorRobotService, never()).olvidarCamino(ID);
+    }
+
+    private int movimientosRestantes() {
+        return solucionadorService.obtenerSugerencia(ID, 0, 0, ABAJO).getMovimientosRestantes();
+    }
+
+    private void evaluar(AtomicInteger calculos) {
+        cacheVeredictos.obtenerOCalcular(ID, VERSION, PROGRAMA, () -> {
+            calculos.incrementAndGet();
+            return new ResultadoEjecucion(false, Motivo.NO_LLEGO_AL_FINAL, 1, 0, 1);
+        });
+    }
+
+    private void guardarSolucionEnRepositorio(Camino camino) {
+        SolucionPista solucion = new SolucionPista();
+        solucion.setPistaId(ID);
+        solucion.setTablaMovimientos(Solucionador.resolver(camino).serializar());
+        when(solucionPistaRepository.findById(ID)).thenReturn(Optional.of(solucion));
+    }
+
+    private static Pista pistaGuardada(Camino camino) {
+        Pista pista = new Pista();
+        pista.setId(ID);
+        pista.setNombre("Pista");
+        pista.setCaminoBinario(CaminoBinario.codificar(camino));
+        pista.setAncho(Pista.DIMENSION_PREDETERMINADA);
+        pista.setAlto(Pista.DIMENSION_PREDETERMINADA);
+        pista.setActiva(true);
+        pista.setFechaModificacion(VERSION);
+        return pista;
+    }
+
+    private static PistaDTO dto(String json, Boolean activa) {
+        PistaDTO dto = new PistaDTO();
+        dto.setNombre("Pista");
+        dto.setConfiguracionJson(json);
+        dto.setActiva(activa);
+        return dto;
+    }
+
+    private static void confirmar() {
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static void deshacer() {
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizaciones.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+}
@@ -0,0 +1,232 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.dto.PistaDTO;
+import com.umg.roboteducativo.dto.ResultadoImportacionDTO;
+import com.umg.roboteducativo.dto.ResumenImportacionDTO;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.engine.CaminoBinario;
+import com.umg.roboteducativo.model.Pista;
+import com.umg.roboteducativo.repository.AdministradorRepository;
+import com.umg.roboteducativo.repository.PistaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica la detección de caminos repetidos por huella de contenido al crear, actualizar e importar,
+ * y los nombres únicos de las pistas importadas
+ */
+class PistaServiceCaminoUnicoTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Mismo camino con distinto formato: la huella solo depende de las celdas
+    private static final String CAMINO = "[{\"x\":0,\"y\":0},{\"x\":0,\"y\":1},{\"x\":1,\"y\":1}]";
+    private static final String CAMINO_CON_ESPACIOS = "[ {\"x\": 0, \"y\": 0}, {\"x\": 0, \"y\": 1}, {\"x\": 1, \"y\": 1} ]";
+    private static final String OTRO_CAMINO = "[{\"x\":2,\"y\":0},{\"x\":2,\"y\":1},{\"x\":2,\"y\":2}]";
+
+    private PistaRepository pistaRepository;
+    private PistaService pistaService;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        pistaRepository = mock(PistaRepository.class);
+        MotorRobotService motorRobotService = mock(MotorRobotService.class);
+        for (String json : List.of(CAMINO, CAMINO_CON_ESPACIOS, OTRO_CAMINO)) {
+            when(motorRobotService.parsearCamino(json)).thenReturn(leerCamino(json));
+        }
+        when(motorRobotService.leerCamino(any(), any())).thenCallRealMethod();
+        when(pistaRepository.findByHashContenido(anyLong())).thenReturn(List.of());
+        when(pistaRepository.findByHashContenidoIn(anyCollection())).thenReturn(List.of());
+        when(pistaRepository.findNombresExistentes(anyCollection())).thenReturn(List.of());
+        when(pistaRepository.save(any(Pista.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        when(pistaRepository.saveAndFlush(any(Pista.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        pistaService = new PistaService(pistaRepository, mock(AdministradorRepository.class),
+            mock(BitacoraService.class), mock(PistaAleatoriaCache.class), mock(CacheVeredictos.class),
+            mock(SolucionadorService.class), motorRobotService, mock(EscritorExportacion.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void limpiar() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void crearGuardaLaHuellaYLasMetricasDelCamino() throws Exception {
+        pistaService.crearPista(dto("Nueva", CAMINO), null);
+
+        ArgumentCaptor<Pista> guardada = ArgumentCaptor.forClass(Pista.class);
+        verify(pistaRepository).save(guardada.capture());
+        assertEquals(huella(CAMINO), guardada.getValue().getHashContenido());
+        assertEquals(3, guardada.getValue().getLongitud());
+        assertEquals(1, guardada.getValue().getGiros());
+        assertEquals(3, guardada.getValue().getProgramaMinimo());
+        assertNull(guardada.getValue().getConfiguracionJson());
+    }
+
+    @Test
+    void crearRechazaUnCaminoQueYaExisteAunqueElJsonTengaOtroFormato() throws Exception {
+        Pista existente = existente(5, "Original", CAMINO);
+        when(pistaRepository.findByHashContenido(huella(CAMINO))).thenReturn(List.of(existente));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> pistaService.crearPista(dto("Copia", CAMINO_CON_ESPACIOS), null));
+
+        assertTrue(error.getMessage().contains("Original"), error.getMessage());
+        verify(pistaRepository, never()).save(any(Pista.class));
+    }
+
+    @Test
+    void unaColisionDeHuellaConOtroCaminoNoEsDuplicado() throws Exception {
+        // Misma huella (simulada) pero bytes distintos: se comparan los caminos completos
+        Pista colision = existente(5, "Otra", OTRO_CAMINO);
+        when(pistaRepository.findByHashContenido(huella(CAMINO))).thenReturn(List.of(colision));
+
+        pistaService.crearPista(dto("Nueva", CAMINO), null);
+
+        verify(pistaRepository).save(any(Pista.class));
+    }
+
+    @Test
+    void actualizarElFormatoDelCaminoNoChocaConLaPropiaPista() throws Exception {
+        Pista propia = existente(5, "Original", CAMINO);
+        when(pistaRepository.findById(5)).thenReturn(Optional.of(propia));
+        when(pistaRepository.findByHashContenido(huella(CAMINO))).thenReturn(List.of(propia));
+
+        pistaService.actualizarPista(5, dto("Original", CAMINO_CON_ESPACIOS), null);
+
+        verify(pistaRepository).saveAndFlush(propia);
+    }
+
+    @Test
+    void actualizarAlCaminoDeOtraPistaSeRechaza() throws Exception {
+        Pista propia = existente(5, "Propia", OTRO_CAMINO);
+        Pista otra = existente(6, "Otra", CAMINO);
+        when(pistaRepository.findById(5)).thenReturn(Optional.of(propia));
+        when(pistaRepository.findByHashContenido(huella(CAMINO))).thenReturn(List.of(otra));
+
+        assertThrows(RuntimeException.class, () -> pistaService.actualizarPista(5, dto("Propia", CAMINO), null));
+        verify(pistaRepository, never()).saveAndFlush(any(Pista.class));
+    }
+
+    @Test
+    void importarOmiteCaminosDeLaBaseYRepetidosDentroDelArchivo() throws Exception {
+        when(pistaRepository.findByHashContenidoIn(anyCollection()))
+            .thenReturn(List.of(existente(5, "Original", CAMINO)));
+
+        ResumenImportacionDTO resumen = pistaService.importarPistas(List.of(
+            dto("Copia", CAMINO_CON_ESPACIOS),
+            dto("Nueva", OTRO_CAMINO),
+            dto("Nueva otra vez", OTRO_CAMINO)
+        ), null);
+
+        assertEquals(1, resumen.getImportadas());
+        assertEquals(2, resumen.getDuplicadas());
+        List<ResultadoImportacionDTO> resultados = resumen.getResultados();
+        assertEquals(ResultadoImportacionDTO.DUPLICADA, resultados.get(0).getEstado());
+        assertEquals(5, resultados.get(0).getId());
+        assertEquals(ResultadoImportacionDTO.IMPORTADA, resultados.get(1).getEstado());
+        assertEquals(ResultadoImportacionDTO.DUPLICADA, resultados.get(2).getEstado());
+        verify(pistaRepository, never()).findByHashContenido(anyLong());
+        verify(pistaRepository, never()).existsByNombre(anyString());
+    }
+
+    @Test
+    void importarRenombraSinDistinguirMayusculasTildesNiEspacios() {
+        // La intercalación de la base considera iguales "abc", "ABC" y "Ábc"
+        when(pistaRepository.findNombresExistentes(anyCollection())).thenReturn(List.of("ABC"));
+        when(pistaRepository.findNombresConPrefijo(anyString())).thenReturn(List.of("ABC (IMPORTADA)"));
+
+        ResumenImportacionDTO resumen = pistaService.importarPistas(List.of(
+            dto("abc", OTRO_CAMINO),
+            dto("Ábc ", CAMINO)
+        ), null);
+
+        assertEquals(2, resumen.getImportadas());
+        assertEquals("abc (importada 2)", resumen.getResultados().get(0).getNombre());
+        assertEquals("Ábc (importada 3)", resumen.getResultados().get(1).getNombre());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importarUnCaminoLargoGuardaSoloElCaminoBinario() {
+        // 10.000 celdas en serpiente: su JSON (unos 180 KB) no cabría en la columna TEXT
+        int lado = 100;
+        int cantidad = lado * lado;
+        int[] xs = new int[cantidad];
+        int[] ys = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            xs[i] = (i / lado) % 2 == 0 ? i % lado : lado - 1 - i % lado;
+            ys[i] = i / lado;
+        }
+        PistaDTO grande = new PistaDTO();
+        grande.setNombre("Grande");
+        grande.setCamino(CaminoBinario.codificar(new Camino(xs, ys)));
+        grande.setAncho(lado);
+        grande.setAlto(lado);
+
+        ResumenImportacionDTO resumen = pistaService.importarPistas(List.of(grande), null);
+
+        assertEquals(1, resumen.getImportadas());
+        ArgumentCaptor<List<Pista>> insertadas = ArgumentCaptor.forClass(List.class);
+        verify(pistaRepository).insertarLote(insertadas.capture());
+        Pista pista = insertadas.getValue().get(0);
+        assertNull(pista.getConfiguracionJson());
+        assertEquals(cantidad, pista.getLongitud());
+    }
+
+    private static PistaDTO dto(String nombre, String json) {
+        PistaDTO dto = new PistaDTO();
+        dto.setNombre(nombre);
+        dto.setConfiguracionJson(json);
+        return dto;
+    }
+
+    private static Pista existente(int id, String nombre, String json) throws Exception {
+        Pista pista = new Pista();
+        pista.setId(id);
+        pista.setNombre(nombre);
+        pista.setConfiguracionJson(json);
+        pista.setCaminoBinario(CaminoBinario.codificar(leerCamino(json)));
+        pista.setHashContenido(CaminoBinario.huella(pista.getCaminoBinario()));
+        pista.setActiva(true);
+        return pista;
+    }
+
+    private static long huella(String json) throws Exception {
+        return CaminoBinario.huella(CaminoBinario.codificar(leerCamino(json)));
+    }
+
+    private static Camino leerCamino(String json) throws Exception {
+        JsonNode puntos = MAPPER.readTree(json);
+        int[] xs = new int[puntos.size()];
+        int[] ys = new int[puntos.size()];
+        for (int i = 0; i < puntos.size(); i++) {
+            xs[i] = puntos.get(i).get("x").asInt();
+            ys[i] = puntos.get(i).get("y").asInt();
+        }
+        return new Camino(xs, ys);
+    }
+}
@@ -0,0 +1,77 @@
+package com.umg.roboteducativo.service;
+
+import com.umg.roboteducativo.dto.TeselaDTO;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.repository.AdministradorRepository;
+import com.umg.roboteducativo.repository.PistaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica que una tesela devuelve solo la región pedida, recortada a la cuadrícula de la pista
+ */
+class PistaServiceTeselaTest {
+
+    private static final int ID = 3;
+    private static final int LADO = 300;
+
+    private PistaService pistaService;
+
+    @BeforeEach
+    void preparar() {
+        // Camino en diagonal escalonada desde (100,100) hasta (199,199)
+        int[] xs = new int[199];
+        int[] ys = new int[199];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 100 + (i + 1) / 2;
+            ys[i] = 100 + i / 2;
+        }
+        MotorRobotService motorRobotService = mock(MotorRobotService.class);
+        when(motorRobotService.obtenerCamino(ID)).thenReturn(
+            new MotorRobotService.PistaCompilada(ID, null, new Camino(xs, ys), LADO, LADO));
+        pistaService = new PistaService(mock(PistaRepository.class), mock(AdministradorRepository.class),
+            mock(BitacoraService.class), mock(PistaAleatoriaCache.class), mock(CacheVeredictos.class),
+            mock(SolucionadorService.class), motorRobotService, mock(EscritorExportacion.class));
+    }
+
+    @Test
+    void devuelveSoloLasCeldasDeLaRegion() {
+        TeselaDTO tesela = pistaService.obtenerTesela(ID, 150, 150, 2, 2);
+
+        assertEquals(150, tesela.getX());
+        assertEquals(150, tesela.getY());
+        assertArrayEquals(new int[]{150, 150, 151, 150, 151, 151}, tesela.getCeldas());
+        assertEquals(LADO, tesela.getAnchoPista());
+        assertEquals(199, tesela.getFinX());
+    }
+
+    @Test
+    void sinEsquinaSeCentraEnElInicio() {
+        TeselaDTO tesela = pistaService.obtenerTesela(ID, null, null, 10, 10);
+
+        assertEquals(95, tesela.getX());
+        assertEquals(95, tesela.getY());
+        assertEquals(100, tesela.getInicioX());
+    }
+
+    @Test
+    void laRegionSeRecortaALaCuadricula() {
+        TeselaDTO tesela = pistaService.obtenerTesela(ID, LADO - 5, -20, 64, 64);
+
+        assertEquals(LADO - 64, tesela.getX());
+        assertEquals(0, tesela.getY());
+        assertEquals(64, tesela.getAncho());
+    }
+
+    @Test
+    void rechazaRegionesVaciasOMasGrandesQueElMaximo() {
+        assertThrows(IllegalArgumentException.class, () -> pistaService.obtenerTesela(ID, 0, 0, 0, 5));
+        assertThrows(IllegalArgumentException.class, () -> pistaService.obtenerTesela(ID, 0, 0, 65, 5));
+    }
+}
@@ -0,0 +1,40 @@
+package com.umg.roboteducativo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.roboteducativo.engine.Camino;
+import com.umg.roboteducativo.repository.PistaRepository;
+import com.umg.roboteducativo.repository.SolucionPistaRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica que las tablas en memoria no crecen más allá de la capacidad configurada
+ */
+class SolucionadorServiceTest {
+
+    private static final int CAPACIDAD = 10;
+
+    @Test
+    void laCacheDeSolucionesNoSuperaLaCapacidad() {
+        SolucionPistaRepository solucionPistaRepository = mock(SolucionPistaRepository.class);
+        MotorRobotService motorRobotService = mock(MotorRobotService.class);
+        when(solucionPistaRepository.findById(anyInt())).thenReturn(Optional.empty());
+        Camino camino = new Camino(new int[]{0, 0}, new int[]{0, 1});
+        when(motorRobotService.obtenerCamino(anyInt())).thenAnswer(invocacion ->
+            new MotorRobotService.PistaCompilada(invocacion.getArgument(0), null, camino, 5, 5));
+        SolucionadorService service = new SolucionadorService(
+            solucionPistaRepository, mock(PistaRepository.class), motorRobotService, new ObjectMapper(), CAPACIDAD);
+
+        for (int pistaId = 1; pistaId <= 100; pistaId++) {
+            assertEquals(1, service.obtenerSugerencia(pistaId, 0, 0, 2).getMovimientosRestantes());
+            assertTrue(service.tamanioCache() <= CAPACIDAD);
+        }
+    }
+}